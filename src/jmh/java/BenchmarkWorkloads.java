@@ -0,0 +1,266 @@
+import benchmarks.Workload;
+
+/**
+ * The measured operations for the JMH benchmarks in the benchmarks package, one nested class per operation.
+ * See {@link Workload} for why they live here.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public final class BenchmarkWorkloads {
+
+    private BenchmarkWorkloads() {
+    }
+
+    /**
+     * Builds an array of size cards, going through standard decks as many times as needed
+     *
+     * @param size number of cards
+     * @return the cards, in standard deck order
+     */
+    static Card[] cards(int size) {
+        Card[] cards = new Card[size];
+        for (int i = 0; i < size; i++) {
+            cards[i] = Card.standard(i % Card.STANDARD_DECK_SIZE);
+        }
+        return cards;
+    }
+
+    /**
+     * Creates a new standard deck
+     */
+    public static final class DeckCreate implements Workload {
+        @Override
+        public void setup(int size, String variant) {
+        }
+
+        @Override
+        public Object run() {
+            return new Deck();
+        }
+    }
+
+    /**
+     * Shuffles a deck of size cards
+     */
+    public static final class DeckShuffle implements Workload {
+        private Deck deck;
+
+        @Override
+        public void setup(int size, String variant) {
+            deck = new Deck(cards(size));
+        }
+
+        @Override
+        public Object run() {
+            deck.shuffle();
+            return deck;
+        }
+    }
+
+    /**
+     * Draws one card from a deck of size cards, resetting the deck when it runs out
+     */
+    public static final class DeckDraw implements Workload {
+        private Deck deck;
+
+        @Override
+        public void setup(int size, String variant) {
+            deck = new Deck(cards(size));
+        }
+
+        @Override
+        public Object run() {
+            Card card = deck.draw();
+            if (card == null) {
+                deck.reset();
+                card = deck.draw();
+            }
+            return card;
+        }
+    }
+
+    /**
+     * Discards a card from a hand of size cards, then draws it back so the hand keeps its size
+     */
+    public static final class PlayerDiscard implements Workload {
+        private Player player;
+        private DiscardPile pile;
+        private Deck back;
+        private Card card;
+
+        @Override
+        public void setup(int size, String variant) {
+            player = new Player("Bench", 1, cards(size), Player.HandType.valueOf(variant));
+            pile = new DiscardPile();
+            back = new Deck(new Card[0]);
+            card = Card.standard((size / 2) % Card.STANDARD_DECK_SIZE);
+        }
+
+        @Override
+        public Object run() {
+            player.discardCard(card, pile);
+            back.addCard(pile.removeCard(card));
+            player.draw(back);
+            return player;
+        }
+    }
+
+    /**
+     * Finds the highest value card in a hand of size cards
+     */
+    public static final class PlayerHighest implements Workload {
+        private Player player;
+
+        @Override
+        public void setup(int size, String variant) {
+            player = new Player("Bench", 1, cards(size), Player.HandType.valueOf(variant));
+        }
+
+        @Override
+        public Object run() {
+            return player.getHighestValueCard();
+        }
+    }
+
+    /**
+     * Removes the middle card of a pile of size cards and adds it back on top
+     */
+    public static final class DiscardPileRemove implements Workload {
+        private DiscardPile pile;
+        private Card card;
+
+        @Override
+        public void setup(int size, String variant) {
+            pile = new DiscardPile(cards(size));
+            card = Card.standard((size / 2) % Card.STANDARD_DECK_SIZE);
+        }
+
+        @Override
+        public Object run() {
+            Card removed = pile.removeCard(card);
+            pile.addCard(removed);
+            return removed;
+        }
+    }
+
+    /**
+     * Fills an empty pile with size cards and removes them all
+     */
+    public static final class DiscardPileRemoveAll implements Workload {
+        private DiscardPile pile;
+        private Card[] cards;
+
+        @Override
+        public void setup(int size, String variant) {
+            pile = new DiscardPile();
+            cards = cards(size);
+        }
+
+        @Override
+        public Object run() {
+            for (Card card : cards) {
+                pile.addCard(card);
+            }
+            return pile.removeAll();
+        }
+    }
+
+    /**
+     * Ranks {@link #HANDS} random poker hands of size (5 or 7) cards with {@link PokerHandEvaluator}
+     */
+    public static final class PokerEvaluate implements Workload {
+        static final int HANDS = 1024;
+
+        private int[] ordinals;
+        private int size;
+        private int sum;
+
+        @Override
+        public void setup(int size, String variant) {
+            this.size = size;
+            ordinals = new int[HANDS * size];
+            Deck deck = Deck.standard(ShuffleSource.seeded(size));
+            for (int hand = 0; hand < HANDS; hand++) {
+                deck.reset();
+                deck.shuffle();
+                for (int c = 0; c < size; c++) {
+                    ordinals[hand * size + c] = deck.draw().getOrdinal();
+                }
+            }
+        }
+
+        @Override
+        public Object run() {
+            int[] o = ordinals;
+            int sum = 0;
+            if (size == 5) {
+                for (int i = 0; i < o.length; i += 5) {
+                    sum += PokerHandEvaluator.evaluate(o[i], o[i + 1], o[i + 2], o[i + 3], o[i + 4]);
+                }
+            } else {
+                for (int i = 0; i < o.length; i += 7) {
+                    sum += PokerHandEvaluator.evaluate(o[i], o[i + 1], o[i + 2], o[i + 3], o[i + 4], o[i + 5], o[i + 6]);
+                }
+            }
+            this.sum = sum;
+            return this;
+        }
+    }
+
+    /**
+     * Plays one full High Card game with no output, reusing the game between runs
+     */
+    public static final class GamePlay implements Workload {
+        private SelfPlayedGame game;
+
+        @Override
+        public void setup(int size, String variant) {
+            game = new SelfPlayedGame("Player 1", "Player 2", ShuffleSource.xoroshiro(), GameListener.NONE);
+        }
+
+        @Override
+        public Object run() {
+            game.reset();
+            game.playGame();
+            return game;
+        }
+    }
+
+    /**
+     * Plays one High Card game straight on a {@link GameEngine}, with a lazily shuffled deck
+     */
+    public static final class EnginePlay implements Workload {
+        private GameEngine engine;
+
+        @Override
+        public void setup(int size, String variant) {
+            Deck deck = Deck.standard(ShuffleSource.xoroshiro());
+            deck.setLazyShuffle(true);
+            engine = new GameEngine(new HighCardRules(), new TableState(deck, new Player[]{new Player("Player 1", 1), new Player("Player 2", 1)}));
+        }
+
+        @Override
+        public Object run() {
+            engine.playGame();
+            return engine;
+        }
+    }
+
+    /**
+     * Builds a brand new High Card game and plays it with no output, the cost of not reusing anything
+     */
+    public static final class GameCreateAndPlay implements Workload {
+        @Override
+        public void setup(int size, String variant) {
+        }
+
+        @Override
+        public Object run() {
+            SelfPlayedGame game = new SelfPlayedGame("Player 1", "Player 2", ShuffleSource.random(), GameListener.NONE);
+            game.playGame();
+            return game;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares two JMH result files written with {@code -rf csv}, printing the change of every score.
+ * A change is marked with * when it is bigger than the two error margins added together.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar benchmarks.CompareResults before.csv after.csv
+ * </pre>
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public final class CompareResults {
+
+    private CompareResults() {
+    }
+
+    /**
+     * @param args the baseline csv file and the csv file to compare against it
+     * @throws IOException if a file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CompareResults <baseline.csv> <candidate.csv>");
+            System.exit(1);
+        }
+        Map<String, double[]> baseline = read(args[0]);
+        Map<String, double[]> candidate = read(args[1]);
+
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Candidate", "Change");
+        for (Map.Entry<String, double[]> entry : baseline.entrySet()) {
+            double[] before = entry.getValue();
+            double[] after = candidate.get(entry.getKey());
+            if (after == null) {
+                System.out.printf("%-90s %14.3f %14s%n", entry.getKey(), before[0], "missing");
+                continue;
+            }
+            double change = before[0] == 0 ? 0 : (after[0] - before[0]) * 100 / before[0];
+            boolean significant = Math.abs(after[0] - before[0]) > before[1] + after[1];
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%%s%n",
+                    entry.getKey(), before[0], after[0], change, significant ? " *" : "");
+        }
+        for (String key : candidate.keySet()) {
+            if (!baseline.containsKey(key)) {
+                System.out.printf("%-90s %14s %14.3f%n", key, "missing", candidate.get(key)[0]);
+            }
+        }
+    }
+
+    /**
+     * Reads a JMH csv file
+     *
+     * @param file path of the file
+     * @return score and error for each benchmark, keyed by benchmark name, parameters and unit
+     * @throws IOException if the file cannot be read
+     */
+    private static Map<String, double[]> read(String file) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8);
+        Map<String, double[]> results = new LinkedHashMap<>();
+        if (lines.isEmpty()) {
+            return results;
+        }
+        List<String> header = split(lines.get(0));
+        int score = header.indexOf("Score");
+        int error = score + 1;
+        int unit = header.indexOf("Unit");
+        for (int i = 1; i < lines.size(); i++) {
+            List<String> row = split(lines.get(i));
+            if (row.size() < header.size()) {
+                continue;
+            }
+            StringBuilder key = new StringBuilder(row.get(0));
+            for (int column = unit + 1; column < header.size(); column++) {
+                if (!row.get(column).isEmpty()) {
+                    key.append(' ').append(header.get(column).replace("Param: ", "")).append('=').append(row.get(column));
+                }
+            }
+            key.append(" (").append(row.get(unit)).append(')');
+            results.put(key.toString(), new double[]{parse(row.get(score)), parse(row.get(error))});
+        }
+        return results;
+    }
+
+    /**
+     * @param text number written by JMH, may be NaN
+     * @return the number, with NaN read as 0
+     */
+    private static double parse(String text) {
+        double value = Double.parseDouble(text);
+        return Double.isNaN(value) ? 0 : value;
+    }
+
+    /**
+     * Splits a csv line, handling quoted fields
+     *
+     * @param line the line
+     * @return the fields without quotes
+     */
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deck construction, shuffle and draw
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeckBenchmark {
+    @Param({"52", "416"})
+    public int size;
+
+    private Workload create;
+    private Workload shuffle;
+    private Workload draw;
+
+    @Setup
+    public void setup() {
+        create = Workload.create("DeckCreate", size, "");
+        shuffle = Workload.create("DeckShuffle", size, "");
+        draw = Workload.create("DeckDraw", size, "");
+    }
+
+    @Benchmark
+    public Object create() {
+        return create.run();
+    }
+
+    @Benchmark
+    public Object shuffle() {
+        return shuffle.run();
+    }
+
+    @Benchmark
+    public Object draw() {
+        return draw.run();
+    }
+}
@@ -0,0 +1,42 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Discard pile removal
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiscardPileBenchmark {
+    @Param({"52", "416", "4160"})
+    public int pileSize;
+
+    private Workload remove;
+    private Workload removeAll;
+
+    @Setup
+    public void setup() {
+        remove = Workload.create("DiscardPileRemove", pileSize, "");
+        removeAll = Workload.create("DiscardPileRemoveAll", pileSize, "");
+    }
+
+    @Benchmark
+    public Object removeCard() {
+        return remove.run();
+    }
+
+    @Benchmark
+    public Object removeAll() {
+        return removeAll.run();
+    }
+}
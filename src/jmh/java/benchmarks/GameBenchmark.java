@@ -0,0 +1,46 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full High Card game with no output, on a reused game, on a brand new one and straight on a game engine
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    private Workload reused;
+    private Workload fresh;
+    private Workload engine;
+
+    @Setup
+    public void setup() {
+        reused = Workload.create("GamePlay", 0, "");
+        fresh = Workload.create("GameCreateAndPlay", 0, "");
+        engine = Workload.create("EnginePlay", 0, "");
+    }
+
+    @Benchmark
+    public Object reusedGame() {
+        return reused.run();
+    }
+
+    @Benchmark
+    public Object newGame() {
+        return fresh.run();
+    }
+
+    @Benchmark
+    public Object engineGame() {
+        return engine.run();
+    }
+}
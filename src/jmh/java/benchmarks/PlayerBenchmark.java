@@ -0,0 +1,45 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Player hand operations for each way a hand can be stored
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerBenchmark {
+    @Param({"5", "52", "416"})
+    public int handSize;
+
+    @Param({"LIST", "BITSET", "VALUE_ORDERED"})
+    public String handType;
+
+    private Workload discard;
+    private Workload highest;
+
+    @Setup
+    public void setup() {
+        discard = Workload.create("PlayerDiscard", handSize, handType);
+        highest = Workload.create("PlayerHighest", handSize, handType);
+    }
+
+    @Benchmark
+    public Object discardCard() {
+        return discard.run();
+    }
+
+    @Benchmark
+    public Object getHighestValueCard() {
+        return highest.run();
+    }
+}
@@ -0,0 +1,39 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Poker hand ranking of 5 and 7 cards, the score is the time per hand
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PokerEvaluatorBenchmark {
+    // hands ranked per call, must match BenchmarkWorkloads.PokerEvaluate.HANDS
+    private static final int HANDS = 1024;
+
+    @Param({"5", "7"})
+    public int size;
+
+    private Workload evaluate;
+
+    @Setup
+    public void setup() {
+        evaluate = Workload.create("PokerEvaluate", size, "");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HANDS)
+    public Object evaluate() {
+        return evaluate.run();
+    }
+}
@@ -0,0 +1,48 @@
+package benchmarks;
+
+/**
+ * One operation to measure. The framework classes live in the default package, which JMH benchmarks
+ * (and any other named package) cannot reference, so each operation is written as a default-package class
+ * implementing this interface and the benchmarks only ever call it through here.
+ * The call site in each benchmark method only ever sees one implementation, so the JIT inlines it.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public interface Workload {
+
+    /**
+     * Builds the state used by {@link #run()}, called once per trial outside of measurement
+     *
+     * @param size size parameter of the benchmark (deck, hand or pile size)
+     * @param variant variant parameter of the benchmark, or an empty string if it has none
+     */
+    void setup(int size, String variant);
+
+    /**
+     * Performs the measured operation once
+     *
+     * @return a result for the benchmark to return, so the JIT cannot drop the work
+     */
+    Object run();
+
+    /**
+     * Creates and sets up a workload by name
+     *
+     * @param name simple name of a nested class in the default-package BenchmarkWorkloads class
+     * @param size size parameter
+     * @param variant variant parameter
+     * @return the ready workload
+     */
+    static Workload create(String name, int size, String variant) {
+        try {
+            Workload workload = (Workload) Class.forName("BenchmarkWorkloads$" + name)
+                    .getDeclaredConstructor().newInstance();
+            workload.setup(size, variant);
+            return workload;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create workload " + name, e);
+        }
+    }
+}
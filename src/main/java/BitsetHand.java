@@ -0,0 +1,279 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * A hand for standard 52-card play, kept as one long where bit i is set when the card with ordinal i is in hand.
+ * Add, remove and contains are O(1) and allocate nothing. Since ordinals go up with value,
+ * the highest card is simply the highest set bit.
+ *
+ * Cards that are not standard, and second copies of a standard card (multi-deck games),
+ * do not fit in the mask and are kept in a list instead.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+class BitsetHand extends Hand {
+    private long mask;
+    private int size;
+    private List<Card> others;
+
+    @Override
+    void add(Card card) {
+        int ordinal = card.getOrdinal();
+        if (ordinal >= 0 && (mask & (1L << ordinal)) == 0) {
+            mask |= 1L << ordinal;
+        } else {
+            if (others == null) {
+                others = new ArrayList<>();
+            }
+            others.add(card);
+        }
+        size++;
+    }
+
+    @Override
+    boolean remove(Card card) {
+        if (card == null) {
+            return false;
+        }
+        int ordinal = card.getOrdinal();
+        if (ordinal >= 0 && (mask & (1L << ordinal)) != 0) {
+            mask &= ~(1L << ordinal);
+            size--;
+            return true;
+        }
+        int index = indexOfOther(card);
+        if (index == -1) {
+            return false;
+        }
+        others.remove(index);
+        size--;
+        return true;
+    }
+
+    @Override
+    boolean contains(Card card) {
+        if (card == null) {
+            return false;
+        }
+        int ordinal = card.getOrdinal();
+        if (ordinal >= 0 && (mask & (1L << ordinal)) != 0) {
+            return true;
+        }
+        return indexOfOther(card) != -1;
+    }
+
+    /**
+     * Finds a matching card in the overflow list
+     *
+     * @param card card to look for
+     * @return index of the card, or -1 if not found
+     */
+    private int indexOfOther(Card card) {
+        if (others == null) {
+            return -1;
+        }
+        for (int i = 0; i < others.size(); i++) {
+            Card current = others.get(i);
+            if (current == card || current.equals(card)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    /**
+     * When several cards share the highest value, the standard card with the highest suit index is returned.
+     *
+     * @return the card with the highest value, or null if the hand is empty
+     */
+    @Override
+    Card highest() {
+        Card highest = mask == 0 ? null : Card.standard(63 - Long.numberOfLeadingZeros(mask));
+        if (others != null) {
+            for (Card card : others) {
+                if (highest == null || card.getValue() > highest.getValue()) {
+                    highest = card;
+                }
+            }
+        }
+        return highest;
+    }
+
+    /**
+     * When several cards share the lowest value, the standard card with the lowest suit index is returned.
+     *
+     * @return the card with the lowest value, or null if the hand is empty
+     */
+    @Override
+    Card lowest() {
+        Card lowest = mask == 0 ? null : Card.standard(Long.numberOfTrailingZeros(mask));
+        if (others != null) {
+            for (Card card : others) {
+                if (lowest == null || card.getValue() < lowest.getValue()) {
+                    lowest = card;
+                }
+            }
+        }
+        return lowest;
+    }
+
+    @Override
+    Card pollHighest() {
+        Card card = highest();
+        if (card == null) {
+            return null;
+        }
+        int ordinal = card.getOrdinal();
+        if (ordinal >= 0 && (mask & (1L << ordinal)) != 0) {
+            mask &= ~(1L << ordinal);
+            size--;
+        } else {
+            remove(card);
+        }
+        return card;
+    }
+
+    @Override
+    Card[] cardsOfValue(int value) {
+        // the four ordinals of a standard value sit next to each other
+        long bits = value >= 1 && value <= Card.STANDARD_NAMES.length ? mask & (0xFL << ((value - 1) * 4)) : 0;
+        int count = Long.bitCount(bits);
+        if (others != null) {
+            for (Card card : others) {
+                if (card.getValue() == value) {
+                    count++;
+                }
+            }
+        }
+        Card[] result = new Card[count];
+        int i = 0;
+        for (; bits != 0; bits &= bits - 1) {
+            result[i++] = Card.standard(Long.numberOfTrailingZeros(bits));
+        }
+        if (others != null) {
+            for (Card card : others) {
+                if (card.getValue() == value) {
+                    result[i++] = card;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    void clear() {
+        mask = 0;
+        size = 0;
+        if (others != null) {
+            others.clear();
+        }
+    }
+
+    /**
+     * Standard cards come first in ordinal order (lowest value first), then the other cards in the order they were added.
+     *
+     * @return a new array holding every card in hand
+     */
+    @Override
+    Card[] toArray() {
+        Card[] result = new Card[size];
+        copyInto(result, 0);
+        return result;
+    }
+
+    @Override
+    void copyInto(Card[] dest, int offset) {
+        int i = offset;
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            dest[i++] = Card.standard(Long.numberOfTrailingZeros(bits));
+        }
+        if (others != null) {
+            for (Card card : others) {
+                dest[i++] = card;
+            }
+        }
+    }
+
+    @Override
+    Card get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int inMask = Long.bitCount(mask);
+        if (index >= inMask) {
+            return others.get(index - inMask);
+        }
+        long bits = mask;
+        for (int i = 0; i < index; i++) {
+            bits &= bits - 1;
+        }
+        return Card.standard(Long.numberOfTrailingZeros(bits));
+    }
+
+    /**
+     * Takes the lowest set bit each step, so going through the hand is O(size) rather than O(size * size) by get
+     */
+    @Override
+    Iterator<Card> iterator() {
+        return new Iterator<Card>() {
+            private long bits = mask;
+            private int other;
+
+            @Override
+            public boolean hasNext() {
+                return bits != 0 || (others != null && other < others.size());
+            }
+
+            @Override
+            public Card next() {
+                if (bits != 0) {
+                    Card card = Card.standard(Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                    return card;
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return others.get(other++);
+            }
+        };
+    }
+
+    @Override
+    void appendTo(Appendable out) throws IOException {
+        String separator = "";
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            Card.standard(Long.numberOfTrailingZeros(bits)).appendTo(out.append(separator));
+            separator = ", ";
+        }
+        if (others != null) {
+            for (int i = 0; i < others.size(); i++) {
+                others.get(i).appendTo(out.append(separator));
+                separator = ", ";
+            }
+        }
+    }
+
+    @Override
+    void forEach(Consumer<? super Card> action) {
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            action.accept(Card.standard(Long.numberOfTrailingZeros(bits)));
+        }
+        if (others != null) {
+            for (int i = 0; i < others.size(); i++) {
+                action.accept(others.get(i));
+            }
+        }
+    }
+}
@@ -1,3 +1,4 @@
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -10,9 +11,34 @@ import java.util.*;
  */
 
 public class Card {
-    private String name;
-    private String suit;
-    private int value;
+    /**
+     * Number of cards in a standard deck, and the number of canonical cards kept by {@link #standard(int)}
+     */
+    public static final int STANDARD_DECK_SIZE = 52;
+
+    static final String[] STANDARD_SUITS = {"Hearts", "Clubs", "Diamonds", "Spades"};
+    static final String[] STANDARD_NAMES = {"Ace", "2", "3", "4", "5", "6", "7", "8", "9", "10", "Jack", "Queen", "King"};
+
+    // ordinal = (value - 1) * 4 + suit index, so a higher ordinal never has a lower value
+    private static final Card[] STANDARD = new Card[STANDARD_DECK_SIZE];
+    // "{name} of {suit}" of every standard card by ordinal, rendered once
+    private static final String[] STANDARD_DISPLAY = new String[STANDARD_DECK_SIZE];
+
+    static {
+        for (int value = 1; value <= STANDARD_NAMES.length; value++) {
+            for (int suit = 0; suit < STANDARD_SUITS.length; suit++) {
+                Card card = new Card(STANDARD_NAMES[value - 1], STANDARD_SUITS[suit], value);
+                STANDARD[card.ordinal] = card;
+                STANDARD_DISPLAY[card.ordinal] = card.name + " of " + card.suit;
+            }
+        }
+    }
+
+    private final String name;
+    private final String suit;
+    private final int value;
+    private final int hash;
+    private final int ordinal;
 
 
     /**
@@ -29,6 +55,61 @@ public class Card {
         this.name = name;
         this.suit = suit;
         this.value = value;
+        this.hash = 31 * (31 * name.hashCode() + suit.hashCode()) + value;
+        this.ordinal = standardOrdinal(name, suit, value);
+    }
+
+    /**
+     * Returns a card with the given details. Standard cards are shared instances from a fixed table and never allocate,
+     * any other card is created fresh, so arbitrary details cannot pile up in a cache that is never emptied.
+     *
+     * @param name name or number of this card
+     * @param suit suit of the card
+     * @param value value of the card / worth of the card
+     * @return the card with the given details, the canonical one for a standard card
+     * @throws IllegalArgumentException if any of the details are invalid, same as the constructor
+     */
+
+    public static Card of(String name, String suit, int value) {
+        int ordinal = standardOrdinal(name, suit, value);
+        if (ordinal >= 0) {
+            return STANDARD[ordinal];
+        }
+        return new Card(name, suit, value);
+    }
+
+    /**
+     * Returns the canonical standard card with the given ordinal.
+     *
+     * @param ordinal ordinal of the card, from 0 to 51
+     * @return the canonical standard card
+     * @throws IllegalArgumentException if ordinal is out of range
+     */
+
+    public static Card standard(int ordinal) {
+        if (ordinal < 0 || ordinal >= STANDARD_DECK_SIZE) {
+            throw new IllegalArgumentException("Illegal standard card ordinal: " + ordinal);
+        }
+        return STANDARD[ordinal];
+    }
+
+    /**
+     * Finds the ordinal of a standard card, without creating anything
+     *
+     * @return the ordinal (value - 1) * 4 + suit index, or -1 if the details are not a standard card
+     */
+
+    private static int standardOrdinal(String name, String suit, int value) {
+        if (value < 1 || value > STANDARD_NAMES.length || name == null || suit == null
+                || !STANDARD_NAMES[value - 1].equals(name)) {
+            return -1;
+        }
+        for (int i = 0; i < STANDARD_SUITS.length; i++) {
+            if (STANDARD_SUITS[i].equals(suit)) {
+                return (value - 1) * 4 + i;
+            }
+        }
+        return -1;
     }
 
     /**
@@ -92,12 +173,51 @@ public class Card {
     }
 
     /**
-     * @return String of the card in "{name} of {suit}" format
+     * Returns the ordinal of the card in a standard deck. Equal cards always have the same ordinal.
+     *
+     * @return ordinal from 0 to 51, or -1 if this is not a standard card
+     */
+
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    /**
+     * @return String of the card in "{name} of {suit}" format, standard cards return a shared pre-rendered string
      */
 
     @Override
     public String toString() {
-        return name + " of " + suit;
+        return ordinal >= 0 ? STANDARD_DISPLAY[ordinal] : name + " of " + suit;
+    }
+
+    /**
+     * Appends the card in the same format as {@link #toString()}, without creating a string
+     *
+     * @param sb the builder to append to
+     * @return sb
+     */
+
+    public StringBuilder appendTo(StringBuilder sb) {
+        if (ordinal >= 0) {
+            return sb.append(STANDARD_DISPLAY[ordinal]);
+        }
+        return sb.append(name).append(" of ").append(suit);
+    }
+
+    /**
+     * Appends the card in the same format as {@link #toString()}, without creating a string
+     *
+     * @param out where to append to
+     * @return out
+     * @throws IOException if out fails
+     */
+
+    public Appendable appendTo(Appendable out) throws IOException {
+        if (ordinal >= 0) {
+            return out.append(STANDARD_DISPLAY[ordinal]);
+        }
+        return out.append(name).append(" of ").append(suit);
     }
 
     /**
@@ -111,10 +231,21 @@ public class Card {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Card card = (Card) o;
-        if (value != card.value) return false;
+        // cheap checks first, strings are only compared for custom cards
+        if (hash != card.hash || value != card.value || ordinal != card.ordinal) return false;
+        if (ordinal >= 0) return true;
         // ( true/false  ?      {run if true}      :  {run if false}  ) 三元运算符
         if (name != null ? !name.equals(card.name) : card.name != null) return false;
         return suit != null ? suit.equals(card.suit) : card.suit == null;
     }
 
+    /**
+     * @return hash code based on name, suit and value, computed once when the card is created
+     */
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
 }
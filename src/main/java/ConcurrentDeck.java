@@ -0,0 +1,362 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A deck many dealer threads can draw from at the same time.
+ *
+ * The order of the cards is fixed when the deck is shuffled and published as an immutable epoch.
+ * A draw claims the top card by moving the epoch's counter down with a compare-and-set, so draws never lock,
+ * never hand out the same card twice, and behave as if they happened one after another.
+ *
+ * Operations that change the cards (addCard, shuffle, reshuffle, reset) take a writer lock that draws never touch.
+ * The writer seals the current epoch (from then on its counter refuses claims), builds the next epoch from the
+ * cards nobody claimed, and publishes it. Draws that meet a sealed epoch just pick up the new one,
+ * so they only wait for the publish, not for other draws. Each change copies the deck,
+ * so add cards in bulk with {@link #reshuffle(Card[])} rather than one at a time.
+ *
+ * Progress: draws are lock-free among themselves, a failed compare-and-set means another draw got a card.
+ * They are not lock-free against writers: a draw that meets a sealed epoch waits until the writer has copied
+ * the deck, which takes O(n) for n cards left. It spins briefly, then yields, then parks for growing
+ * periods, so a writer that gets descheduled mid-change does not keep the waiting draws burning a core.
+ * Reset and restoring an order build their epoch before sealing, so draws never wait for those.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public class ConcurrentDeck extends Deck {
+    // counter value of an epoch that is being replaced
+    private static final int SEALED = -1;
+    // how a draw waits for a sealed epoch to be replaced: spins first, then yields, then parks up to the cap
+    private static final int SPINS = 64;
+    private static final int YIELDS = 64;
+    private static final long MAX_PARK_NANOS = 1_000_000L;
+
+    private final AtomicReference<Epoch> epoch = new AtomicReference<>();
+    private final Object writeLock = new Object();
+    private final Card[] initialCards;
+    private final ShuffleSource random;
+
+    /**
+     * The cards of one published order, the top card is order[remaining - 1]
+     */
+    private static final class Epoch {
+        private final Card[] order;
+        private final AtomicInteger remaining;
+
+        private Epoch(Card[] order, int count) {
+            this.order = order;
+            this.remaining = new AtomicInteger(count);
+        }
+    }
+
+    /**
+     * Creates an unshuffled standard deck
+     */
+    public ConcurrentDeck() {
+        this(Deck.STANDARD_ORDER, ShuffleSource.random());
+    }
+
+    /**
+     * Creates a deck holding the given cards, the last card is the top
+     *
+     * @param cards Array of cards to initialize, null entries are skipped
+     * @param random Where shuffles get their random numbers from, only used under the writer lock
+     * @throws IllegalArgumentException if cards array or random source is null
+     */
+    public ConcurrentDeck(Card[] cards, ShuffleSource random) {
+        super(new Card[0], random);
+        if (cards == null) {
+            throw new IllegalArgumentException("Cards array is a null array!!!");
+        }
+        this.random = random;
+        Card[] order = new Card[cards.length];
+        int count = 0;
+        for (Card card : cards) {
+            if (card != null) {
+                order[count++] = card;
+            }
+        }
+        this.initialCards = Arrays.copyOf(order, count);
+        epoch.set(new Epoch(order, count));
+    }
+
+    /**
+     * @return the number of cards not drawn yet, a snapshot when other threads are drawing
+     */
+    @Override
+    public int size() {
+        for (int waited = 0; ; waited = backOff(waited)) {
+            int remaining = epoch.get().remaining.get();
+            if (remaining != SEALED) {
+                return remaining;
+            }
+        }
+    }
+
+    /**
+     * Claims the top card without locking, safe to call from any number of threads
+     *
+     * @return The top card, or null if deck is empty
+     */
+    @Override
+    public Card draw() {
+        long start = GameMetrics.start();
+        int waited = 0;
+        while (true) {
+            Epoch current = epoch.get();
+            int remaining = current.remaining.get();
+            if (remaining > 0) {
+                if (current.remaining.compareAndSet(remaining, remaining - 1)) {
+                    GameMetrics.stop(GameMetrics.Operation.DRAW, start);
+                    return current.order[remaining - 1];
+                }
+            } else if (remaining == SEALED) {
+                // a writer is building the next epoch
+                waited = backOff(waited);
+            } else {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Claims up to n cards from the top with a single compare-and-set, safe to call from any number of threads.
+     * The cards come out of one epoch, so they are always consecutive in that epoch's order.
+     *
+     * @param buf array to draw into
+     * @param off position in buf of the top card
+     * @param n number of cards to draw
+     * @return number of cards drawn, less than n if the deck runs out
+     * @throws IllegalArgumentException if buf is null, n is negative or buf does not have room for n cards from off
+     */
+    @Override
+    public int drawInto(Card[] buf, int off, int n) {
+        validateDrawTarget(buf, off, n);
+        long start = GameMetrics.start();
+        int waited = 0;
+        while (true) {
+            Epoch current = epoch.get();
+            int remaining = current.remaining.get();
+            if (remaining == SEALED) {
+                waited = backOff(waited);
+                continue;
+            }
+            int count = Math.min(n, remaining);
+            if (count == 0) {
+                return 0;
+            }
+            if (current.remaining.compareAndSet(remaining, remaining - count)) {
+                for (int i = 0; i < count; i++) {
+                    buf[off + i] = current.order[remaining - 1 - i];
+                }
+                GameMetrics.stop(GameMetrics.Operation.DRAW, start, count);
+                return count;
+            }
+        }
+    }
+
+    /**
+     * A concurrent deck fixes the whole order when it publishes an epoch, so it always shuffles eagerly
+     *
+     * @param lazyShuffle must be false
+     * @throws UnsupportedOperationException if lazyShuffle is true
+     */
+    @Override
+    public void setLazyShuffle(boolean lazyShuffle) {
+        if (lazyShuffle) {
+            throw new UnsupportedOperationException("A concurrent deck cannot shuffle lazily");
+        }
+    }
+
+    @Override
+    public void shuffle() {
+        shuffle(random);
+    }
+
+    /**
+     * Shuffles the cards not drawn yet and publishes them as a new order
+     *
+     * @param random Where this shuffle gets its random numbers from
+     * @throws IllegalArgumentException if random source is null
+     * @throws IllegalStateException if deck is empty
+     */
+    @Override
+    public void shuffle(ShuffleSource random) {
+        if (random == null) {
+            throw new IllegalArgumentException("Shuffle source cannot be null");
+        }
+        synchronized (writeLock) {
+            Epoch current = epoch.get();
+            if (current.remaining.get() == 0) {
+                throw new IllegalStateException("Cannot shuffle an empty deck");
+            }
+            long start = GameMetrics.start();
+            int count = seal(current);
+            Card[] order = Arrays.copyOf(current.order, count);
+            shuffle(order, count, random);
+            epoch.set(new Epoch(order, count));
+            GameMetrics.stop(GameMetrics.Operation.SHUFFLE, start);
+        }
+    }
+
+    /**
+     * Puts the deck back to the cards it was created with, in their original order
+     */
+    @Override
+    public void reset() {
+        Epoch next = new Epoch(initialCards.clone(), initialCards.length);
+        synchronized (writeLock) {
+            seal(epoch.get());
+            epoch.set(next);
+        }
+    }
+
+    /**
+     * Adds a (1) card on top of the deck
+     *
+     * @param card The card to add
+     * @throws IllegalArgumentException if card is null, message: "Cannot add null card to deck"
+     */
+    @Override
+    public void addCard(Card card) {
+        if (card == null) {
+            throw new IllegalArgumentException("Cannot add null card to deck");
+        }
+        synchronized (writeLock) {
+            Epoch current = epoch.get();
+            int count = seal(current);
+            Card[] order = Arrays.copyOf(current.order, count + 1);
+            order[count] = card;
+            epoch.set(new Epoch(order, count + 1));
+        }
+    }
+
+    /**
+     * Adds all cards from the provided array to the deck, then shuffles, publishing a single new order
+     *
+     * @param cards Array of cards to add
+     * @throws IllegalArgumentException if cards array is null, message: "Cards array cannot be null"
+     * @throws IllegalStateException if the deck would still be empty
+     */
+    @Override
+    public void reshuffle(Card[] cards) {
+        if (cards == null) {
+            throw new IllegalArgumentException("Cards array cannot be null");
+        }
+        synchronized (writeLock) {
+            long start = GameMetrics.start();
+            Epoch current = epoch.get();
+            int count = seal(current);
+            Card[] order = Arrays.copyOf(current.order, count + cards.length);
+            for (Card card : cards) {
+                if (card != null) {
+                    order[count++] = card;
+                }
+            }
+            shuffle(order, count, random);
+            epoch.set(new Epoch(order, count));
+            if (count == 0) {
+                throw new IllegalStateException("Reshuffle operation failed",
+                        new IllegalStateException("Cannot shuffle an empty deck"));
+            }
+            GameMetrics.stop(GameMetrics.Operation.RESHUFFLE, start);
+        }
+    }
+
+    /**
+     * Moves every card of a discard pile into the deck at random positions and publishes a single new order,
+     * see {@link Deck#recycleFrom(DiscardPile)}
+     *
+     * @param pile the pile to take the cards from
+     * @return number of cards moved into the deck
+     * @throws IllegalArgumentException if pile is null, message: "Discard pile cannot be null"
+     */
+    @Override
+    public int recycleFrom(DiscardPile pile) {
+        if (pile == null) {
+            throw new IllegalArgumentException("Discard pile cannot be null");
+        }
+        synchronized (writeLock) {
+            Epoch current = epoch.get();
+            int count = seal(current);
+            Card[] order = Arrays.copyOf(current.order, count + pile.size());
+            int moved = pile.drainInto(order, count);
+            insertRandomly(order, count, count + moved, random);
+            epoch.set(new Epoch(order, count + moved));
+            return moved;
+        }
+    }
+
+    /**
+     * @return a new array holding the cards nobody has claimed yet, from the bottom to the top card
+     */
+    @Override
+    Card[] toArray() {
+        synchronized (writeLock) {
+            Epoch current = epoch.get();
+            int count = seal(current);
+            Card[] order = Arrays.copyOf(current.order, count);
+            epoch.set(new Epoch(current.order, count));
+            return order;
+        }
+    }
+
+    /**
+     * Publishes the given cards as the new order
+     *
+     * @param order the new cards from the bottom to the top card, none of them null
+     */
+    @Override
+    void restoreOrder(Card[] order) {
+        Epoch next = new Epoch(order.clone(), order.length);
+        synchronized (writeLock) {
+            seal(epoch.get());
+            epoch.set(next);
+        }
+    }
+
+    /**
+     * Stops an epoch from handing out more cards, called with the writer lock held
+     *
+     * @param current the published epoch
+     * @return the number of cards nobody claimed, they are order[0] to order[count - 1]
+     */
+    private static int seal(Epoch current) {
+        return Math.max(0, current.remaining.getAndSet(SEALED));
+    }
+
+    /**
+     * Waits a little for a writer to publish the next epoch, longer the more often it has waited already
+     *
+     * @param waited how many times the caller has waited so far
+     * @return the new count, pass it to the next call
+     */
+    private static int backOff(int waited) {
+        // below SPINS just read again, copying a small deck takes about as long as a few reads
+        if (waited >= SPINS + YIELDS) {
+            LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1_000L << Math.min(20, waited - SPINS - YIELDS)));
+        } else if (waited >= SPINS) {
+            Thread.yield();
+        }
+        return waited + 1;
+    }
+
+    /**
+     * Fisher-Yates shuffle of the first count cards of an array that is not published yet
+     *
+     * @param order the cards
+     * @param count number of cards to shuffle
+     * @param random random source
+     */
+    private static void shuffle(Card[] order, int count, ShuffleSource random) {
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Card temp = order[i];
+            order[i] = order[j];
+            order[j] = temp;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+import java.io.PrintStream;
+
+/**
+ * Prints a game to the console, this is the output SelfPlayedGame has always had.
+ * Each line is rendered into one reused builder, so the cards and hands are never turned into strings of their own,
+ * and the stream prints the finished line in its own charset.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public class ConsoleGameListener implements GameListener {
+    private final PrintStream out;
+    private final StringBuilder line = new StringBuilder(128);
+
+    /**
+     * Creates a listener printing to whatever System.out is at the time of each event
+     */
+    public ConsoleGameListener() {
+        this.out = null;
+    }
+
+    /**
+     * Creates a listener printing to the given stream
+     *
+     * @param out stream to print to
+     * @throws IllegalArgumentException if out is null
+     */
+    public ConsoleGameListener(PrintStream out) {
+        if (out == null) {
+            throw new IllegalArgumentException("Output stream cannot be null");
+        }
+        this.out = out;
+    }
+
+    /**
+     * @return the stream to print to
+     */
+    private PrintStream out() {
+        return out != null ? out : System.out;
+    }
+
+    /**
+     * @return the line builder, emptied
+     */
+    private StringBuilder line() {
+        line.setLength(0);
+        return line;
+    }
+
+    /**
+     * Prints the line builder as one line
+     */
+    private void printLine() {
+        out().println(line);
+    }
+
+    @Override
+    public void onGameStarted(Player player1, Player player2) {
+        line().append("Starting High Card Game!");
+        printLine();
+        line().append("Players: ").append(player1.getName()).append(" vs ").append(player2.getName());
+        printLine();
+    }
+
+    @Override
+    public void onCardsDealt(Player player1, Player player2) {
+        line().append("\nCards have been dealt:");
+        printLine();
+        player1.appendTo(line().append(player1.getName()).append("'s hand: "));
+        printLine();
+        player2.appendTo(line().append(player2.getName()).append("'s hand: "));
+        printLine();
+    }
+
+    @Override
+    public void onRoundStarted(int round) {
+        line().append("\n--- Round ").append(round).append(" ---");
+        printLine();
+    }
+
+    @Override
+    public void onCardPlayed(Player player, Card card) {
+        card.appendTo(line().append(player.getName()).append(" plays: ")).append(" (Value: ").append(card.getValue()).append(')');
+        printLine();
+    }
+
+    @Override
+    public void onRoundWon(int round, Player winner, Player player1, int player1Score, Player player2, int player2Score) {
+        if (winner != null) {
+            line().append(winner.getName()).append(" wins this round!");
+        } else {
+            line().append("It's a tie! No points awarded.");
+        }
+        printLine();
+        line().append("Current Score: ").append(player1.getName()).append(' ').append(player1Score).append(" - ")
+                .append(player2.getName()).append(' ').append(player2Score);
+        printLine();
+    }
+
+    @Override
+    public void onGameOver(Player player1, int player1Score, Player player2, int player2Score, Player winner) {
+        line().append("\n****** FINAL RESULTS ******");
+        printLine();
+        line().append(player1.getName()).append(": ").append(player1Score).append(" points");
+        printLine();
+        line().append(player2.getName()).append(": ").append(player2Score).append(" points");
+        printLine();
+        if (winner != null) {
+            line().append(winner.getName()).append(" WINS THE GAME!");
+        } else {
+            line().append("THE GAME IS A TIE!");
+        }
+        printLine();
+    }
+}
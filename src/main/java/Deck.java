@@ -4,13 +4,32 @@ import java.util.*;
  * This class represents a deck of playing cards.
  * This class includes proper exception handling.
  *
+ * Cards are kept in a plain array with a size cursor, the top of the deck is the last used slot.
+ * Drawing only moves the cursor, and {@link #reset()} puts the original cards back without allocating,
+ * so one deck can be reused for many games.
+ *
+ * In lazy shuffle mode ({@link #setLazyShuffle(boolean)}) a shuffle only marks the cards as unordered,
+ * and every draw swaps a random one of them to the top first, which is the Fisher-Yates shuffle done one step
+ * at a time. The cards come out in the same distribution, but a game that deals 10 cards of 52 pays for 10 steps.
+ * Anything that exposes the order, like a snapshot or turning lazy mode off, finishes the shuffle first.
+ *
  * @author Shaoyang Chen
  * @version 114.514
  * @since 1919.8.10
  */
 public class Deck {
-    private List<Card> cards;
-    private Random random;
+    // the 52 canonical cards in the unshuffled order of Deck(), shared by every standard deck, never modified
+    static final Card[] STANDARD_ORDER = createStandardOrder();
+
+    private Card[] cards;
+    private int size;
+    private Card[] initialCards;
+    private ShuffleSource random;
+    private boolean lazyShuffle;
+    // cards[0] to cards[randomCount - 1] are shuffled lazily, their order is decided as they are drawn
+    private int randomCount;
+    // the source of the shuffle that is still being done lazily
+    private ShuffleSource pendingRandom;
 
     /**
      * Constructor that take in an array of cards
@@ -22,32 +41,61 @@ public class Deck {
     //Overloading Constructor Deck
 
     public Deck(Card[] cards) {
+        this(cards, ShuffleSource.random());
+    }
+
+    /**
+     * Constructor that take in an array of cards and the random source used by {@link #shuffle()}
+     *
+     * @param cards Array of cards to initialize
+     * @param random Where shuffles get their random numbers from
+     * @throws IllegalArgumentException if provided cards array or random source is null
+     */
+    public Deck(Card[] cards, ShuffleSource random) {
         validateDeckInitialization(cards);
+        validateShuffleSource(random);
 
-        this.cards = new ArrayList<>();
-        this.random = new Random();
+        this.cards = new Card[cards.length];
+        this.random = random;
 
         for (Card card : cards) {
             if (card != null) {
-                this.cards.add(card);
+                this.cards[size++] = card;
             }
         }
+        this.initialCards = Arrays.copyOf(this.cards, size);
     }
 
     /**
      * Default constructor which creates an unshuffled standard deck
-     *
-     * @throws RuntimeException if failed to initialize standard deck, and will provide error message.
      */
     public Deck() {
-        this.cards = new ArrayList<>();
-        this.random = new Random();
+        this(ShuffleSource.random());
+    }
 
-        try {
-            initializeStandardDeck();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to initialize standard deck: " + e.getMessage(), e);
-        }
+    /**
+     * Creates an unshuffled standard deck, see {@link #standard(ShuffleSource)}
+     *
+     * @param random Where shuffles get their random numbers from
+     */
+    private Deck(ShuffleSource random) {
+        this.cards = new Card[STANDARD_ORDER.length];
+        this.random = random;
+        this.initialCards = STANDARD_ORDER;
+
+        initializeStandardDeck();
+    }
+
+    /**
+     * Creates an unshuffled standard deck that shuffles with the given random source
+     *
+     * @param random Where shuffles get their random numbers from
+     * @return a new standard deck of 52 cards
+     * @throws IllegalArgumentException if random source is null
+     */
+    public static Deck standard(ShuffleSource random) {
+        validateShuffleSource(random);
+        return new Deck(random);
     }
 
     /**
@@ -63,36 +111,41 @@ public class Deck {
     }
 
     /**
-     * Initializes a standard deck with size of 52 cards.
+     * Validates a random source
      *
-     * @throws RuntimeException if failed to create card, and will provide message "Failed to create card: {nameOfCard} of {suitOfCard} {Error Message}"
-     * @throws IllegalStateException if created deck have wrong amount of cards
+     * @param random Random source to validate
+     * @throws IllegalArgumentException if random source is null, message: "Shuffle source cannot be null"
      */
-    private void initializeStandardDeck() {
-        String[] suits = {"Hearts", "Clubs", "Diamonds", "Spades"};
-        String[] names = {"Ace", "2", "3", "4", "5", "6", "7", "8", "9", "10", "Jack", "Queen", "King"};
-        int[] values = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13};
-
-        // create in order of suits
-        // for (int i = 0; i < suits.length; i++) {
-        //    String suit = suits[i];
-        //    for(i){...}
-        // }
-
-        for (String suit : suits) {
-            // create 13 for each
-            for (int i = 0; i < names.length; i++) {
-                try {
-                    cards.add(new Card(names[i], suit, values[i]));
-                } catch (IllegalArgumentException e) {
-                    throw new RuntimeException("Failed to create card: " + names[i] + " of " + suit, e);
-                }
-            }
+    private static void validateShuffleSource(ShuffleSource random) {
+        if (random == null) {
+            throw new IllegalArgumentException("Shuffle source cannot be null");
         }
+    }
 
-        if (cards.size() != 52) {
-            throw new IllegalStateException("Standard deck should have 52 cards, but has: " + cards.size());
+    /**
+     * Builds the order of a standard deck with size of 52 cards, in order of suits.
+     * The cards are the shared canonical instances from {@link Card#standard(int)}, so nothing is allocated or validated here.
+     *
+     * @return the 52 standard cards, 13 for each suit
+     */
+    private static Card[] createStandardOrder() {
+        Card[] order = new Card[Card.STANDARD_DECK_SIZE];
+        int i = 0;
+        // create in order of suits, 13 for each
+        for (int suit = 0; suit < Card.STANDARD_SUITS.length; suit++) {
+            for (int value = 1; value <= Card.STANDARD_NAMES.length; value++) {
+                order[i++] = Card.standard((value - 1) * 4 + suit);
+            }
         }
+        return order;
+    }
+
+    /**
+     * Initializes a standard deck with size of 52 cards by copying the shared standard order.
+     */
+    private void initializeStandardDeck() {
+        System.arraycopy(STANDARD_ORDER, 0, cards, 0, STANDARD_ORDER.length);
+        size = STANDARD_ORDER.length;
     }
 
     /**
@@ -101,7 +154,7 @@ public class Deck {
      * @return The number of cards currently in the deck
      */
     public int size() {
-        return cards.size();
+        return size;
     }
 
     /**
@@ -113,49 +166,178 @@ public class Deck {
     public Card draw() {
         validateDeckState();
 
-        if (cards.isEmpty()) {
+        if (size == 0) {
             return null;
         }
 
-        try {
-            return cards.remove(cards.size() - 1);
-        } catch (IndexOutOfBoundsException e) {
-            throw new IllegalStateException("Deck state corrupted during draw operation", e);
+        long start = GameMetrics.start();
+        Card card = removeTop();
+        GameMetrics.stop(GameMetrics.Operation.DRAW, start);
+        return card;
+    }
+
+    /**
+     * Removes the top card, first swapping a random unordered card to the top if the deck is shuffled lazily
+     *
+     * @return the top card, the deck must not be empty
+     */
+    private Card removeTop() {
+        int top = --size;
+        if (top < randomCount) {
+            int j = pendingRandom.nextInt(top + 1);
+            Card temp = cards[top];
+            cards[top] = cards[j];
+            cards[j] = temp;
+            randomCount = top;
+        }
+        Card card = cards[top];
+        cards[top] = null;
+        return card;
+    }
+
+    /**
+     * Removes and returns up to n cards from the top of the deck in one go
+     *
+     * @param n number of cards to draw
+     * @return the drawn cards, top card first, shorter than n if the deck runs out
+     * @throws IllegalArgumentException if n is negative
+     */
+    public Card[] draw(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Number of cards cannot be negative");
+        }
+        Card[] drawn = new Card[Math.min(n, size())];
+        int count = drawInto(drawn, 0, drawn.length);
+        return count == drawn.length ? drawn : Arrays.copyOf(drawn, count);
+    }
+
+    /**
+     * Removes up to n cards from the top of the deck into an array the caller owns, so the same buffer can be reused
+     *
+     * @param buf array to draw into
+     * @param off position in buf of the top card
+     * @param n number of cards to draw
+     * @return number of cards drawn, less than n if the deck runs out
+     * @throws IllegalArgumentException if buf is null, n is negative or buf does not have room for n cards from off
+     */
+    public int drawInto(Card[] buf, int off, int n) {
+        validateDrawTarget(buf, off, n);
+        validateDeckState();
+
+        long start = GameMetrics.start();
+        int count = Math.min(n, size);
+        for (int i = 0; i < count; i++) {
+            buf[off + i] = removeTop();
+        }
+        GameMetrics.stop(GameMetrics.Operation.DRAW, start, count);
+        return count;
+    }
+
+    /**
+     * Validates the arguments of a bulk draw
+     *
+     * @param buf array to draw into
+     * @param off position in buf of the first card
+     * @param n number of cards to draw
+     * @throws IllegalArgumentException if buf is null, n is negative or buf is too small
+     */
+    static void validateDrawTarget(Card[] buf, int off, int n) {
+        if (buf == null) {
+            throw new IllegalArgumentException("Destination array cannot be null");
+        }
+        if (n < 0) {
+            throw new IllegalArgumentException("Number of cards cannot be negative");
+        }
+        if (off < 0 || off > buf.length - n) {
+            throw new IllegalArgumentException("Destination array too small: need " + n + " slots from offset " + off
+                    + ", length is " + buf.length);
         }
     }
 
+    /**
+     * Turns lazy shuffling on or off. Turning it off finishes a lazy shuffle that is still going on,
+     * so the deck is in the same state an eager shuffle would have left it in.
+     *
+     * @param lazyShuffle true to make shuffles O(1) and randomize each card as it is drawn
+     */
+    public void setLazyShuffle(boolean lazyShuffle) {
+        if (!lazyShuffle) {
+            materialize();
+        }
+        this.lazyShuffle = lazyShuffle;
+    }
+
+    /**
+     * @return true if shuffles are done lazily, as cards are drawn
+     */
+    public boolean isLazyShuffle() {
+        return lazyShuffle;
+    }
+
     /**
      * Shuffles the deck using Fisher-Yates shuffle algorithm
      *
      * @throws IllegalStateException if deck is empty or in invalid state, message: Shuffle operation failed
      */
     public void shuffle() {
+        shuffle(random);
+    }
+
+    /**
+     * Shuffles the deck using Fisher-Yates shuffle algorithm, taking random numbers from the given source
+     * instead of the deck's own one (for example a seeded source to repeat a shuffle)
+     *
+     * @param random Where this shuffle gets its random numbers from
+     * @throws IllegalArgumentException if random source is null
+     * @throws IllegalStateException if deck is empty or in invalid state
+     */
+    public void shuffle(ShuffleSource random) {
+        validateShuffleSource(random);
         validateDeckState();
 
-        if (cards.isEmpty()) {
+        if (size == 0) {
             throw new IllegalStateException("Cannot shuffle an empty deck");
         }
 
-        try {
+        //Knuth Shuffle / Fisher-Yates Shuffle
+        //Starting from the last element of the array,
+        //randomly select a position (including the current position) to swap,
+        //and then process forward step by step.
 
-            //Knuth Shuffle / Fisher-Yates Shuffle
-            //Starting from the last element of the array,
-            //randomly select a position (including the current position) to swap,
-            //and then process forward step by step.
+        long start = GameMetrics.start();
+        if (lazyShuffle) {
+            randomCount = size;
+            pendingRandom = random;
+            GameMetrics.stop(GameMetrics.Operation.SHUFFLE, start);
+            return;
+        }
+        Card[] cards = this.cards;
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Card temp = cards[i];
+            cards[i] = cards[j];
+            cards[j] = temp;
+        }
+        GameMetrics.stop(GameMetrics.Operation.SHUFFLE, start);
+    }
 
-            for (int i = cards.size() - 1; i > 0; i--) {
-                int j = random.nextInt(i + 1);
-                Card temp = cards.get(i);
-                cards.set(i, cards.get(j));
-                cards.set(j, temp);
-            }
-        } catch (Exception e) {
-            throw new IllegalStateException("Shuffle operation failed", e);
+    /**
+     * Puts the deck back to the cards it was created with, in their original (unshuffled) order.
+     * Cards drawn since then are restored and cards added since then are dropped, nothing is allocated.
+     */
+    public void reset() {
+        validateDeckState();
+
+        if (size > initialCards.length) {
+            Arrays.fill(cards, initialCards.length, size, null);
         }
+        System.arraycopy(initialCards, 0, cards, 0, initialCards.length);
+        size = initialCards.length;
+        randomCount = 0;
     }
 
     /**
-     * Adds a (1) card to the deck
+     * Adds a (1) card on top of the deck, it is drawn next even if the deck is shuffled lazily
      *
      * @param card The card to add
      * @throws IllegalArgumentException if card is null, message: "Cannot add null card to deck"
@@ -164,7 +346,8 @@ public class Deck {
         if (card == null) {
             throw new IllegalArgumentException("Cannot add null card to deck");
         }
-        cards.add(card);
+        ensureCapacity(size + 1);
+        cards[size++] = card;
     }
 
     /**
@@ -179,18 +362,123 @@ public class Deck {
             throw new IllegalArgumentException("Cards array cannot be null");
         }
 
+        long start = GameMetrics.start();
         try {
+            ensureCapacity(size + cards.length);
             for (Card card : cards) {
                 if (card != null) {
                     addCard(card);
                 }
             }
             shuffle();
+            GameMetrics.stop(GameMetrics.Operation.RESHUFFLE, start);
         } catch (Exception e) {
             throw new IllegalStateException("Reshuffle operation failed", e);
         }
     }
 
+    /**
+     * Moves every card of a discard pile into the deck, straight from the pile's storage into the deck's,
+     * and puts each of them at a random position with an inside-out Fisher-Yates pass. The pile is left empty.
+     *
+     * Only the incoming cards are touched, so this costs O(number of recycled cards) however big the deck is.
+     * When the cards already in the deck are in random order (it was shuffled) the whole deck is afterwards too,
+     * so this replaces {@code reshuffle(pile.removeAll())} without the copy and the full shuffle.
+     *
+     * @param pile the pile to take the cards from
+     * @return number of cards moved into the deck
+     * @throws IllegalArgumentException if pile is null, message: "Discard pile cannot be null"
+     */
+    public int recycleFrom(DiscardPile pile) {
+        if (pile == null) {
+            throw new IllegalArgumentException("Discard pile cannot be null");
+        }
+        validateDeckState();
+
+        ensureCapacity(size + pile.size());
+        int moved = pile.drainInto(cards, size);
+        if (lazyShuffle && randomCount == size) {
+            // every card is still unordered, the new ones just join them
+            randomCount += moved;
+            if (pendingRandom == null) {
+                pendingRandom = random;
+            }
+        } else {
+            materialize();
+            insertRandomly(cards, size, size + moved, random);
+        }
+        size += moved;
+        return moved;
+    }
+
+    /**
+     * Inside-out Fisher-Yates: each card from index from up to to swaps with a random card at or below its own index,
+     * which keeps cards[0] to cards[to - 1] in uniformly random order if cards[0] to cards[from - 1] were
+     *
+     * @param cards the cards
+     * @param from index of the first incoming card
+     * @param to index after the last incoming card
+     * @param random random source
+     */
+    static void insertRandomly(Card[] cards, int from, int to, ShuffleSource random) {
+        for (int i = from; i < to; i++) {
+            int j = random.nextInt(i + 1);
+            Card temp = cards[i];
+            cards[i] = cards[j];
+            cards[j] = temp;
+        }
+    }
+
+    /**
+     * @return a new array holding the cards in the deck, from the bottom to the top card
+     */
+    Card[] toArray() {
+        validateDeckState();
+        materialize();
+        return Arrays.copyOf(cards, size);
+    }
+
+    /**
+     * Replaces the cards in the deck, used when a deck is restored from a snapshot.
+     * The cards the deck was created with, which {@link #reset()} goes back to, stay the same.
+     *
+     * @param order the new cards from the bottom to the top card, none of them null
+     */
+    void restoreOrder(Card[] order) {
+        validateDeckState();
+        Arrays.fill(cards, 0, size, null);
+        ensureCapacity(order.length);
+        System.arraycopy(order, 0, cards, 0, order.length);
+        size = order.length;
+        randomCount = 0;
+    }
+
+    /**
+     * Finishes a lazy shuffle by putting the unordered cards in random order, exactly the steps
+     * the remaining draws would have taken
+     */
+    private void materialize() {
+        Card[] cards = this.cards;
+        for (int i = randomCount - 1; i > 0; i--) {
+            int j = pendingRandom.nextInt(i + 1);
+            Card temp = cards[i];
+            cards[i] = cards[j];
+            cards[j] = temp;
+        }
+        randomCount = 0;
+    }
+
+    /**
+     * Grows the card array so it can hold at least the given number of cards
+     *
+     * @param capacity number of cards the deck must be able to hold
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > cards.length) {
+            cards = Arrays.copyOf(cards, Math.max(capacity, cards.length + (cards.length >> 1) + 1));
+        }
+    }
+
     /**
      * Validates that the deck is in a usable or correct state
      *
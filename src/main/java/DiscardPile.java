@@ -1,17 +1,43 @@
+import java.io.IOException;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
- * This class represents a discard pile of cards, all cards are stored in an array list
+ * This class represents a discard pile of cards, all cards are stored in an array in the order they were discarded.
+ *
+ * Every distinct card is indexed in a hash map that points to the slots holding it, linked from oldest to newest,
+ * so removing a card is expected O(1) no matter how big the pile gets. A removed card leaves an empty slot behind
+ * instead of shifting the cards after it, and the empty slots are squeezed out once they take up half the array.
+ * Equal cards (from multi-deck piles) each get their own slot, and the oldest one is removed first.
  *
  * @author Shaoyang Chen
  * @version 114.514
  * @since 1919.8.10
  */
 public class DiscardPile {
-    private List<Card> discardPile;
+    private static final int INITIAL_CAPACITY = 16;
+
+    // discarded cards in order, null where a card has been removed
+    private Card[] discardPile;
+    // nextSame[i] is the next slot after i holding a card equal to discardPile[i], or -1
+    private int[] nextSame;
+    // slots used so far, including empty ones
+    private int end;
+    // cards actually in the pile
+    private int size;
+    private Map<Card, Chain> index;
+    private List<Card> view;
+
+    /**
+     * Oldest and newest slot holding one distinct card, both -1 when there is no such card in the pile
+     */
+    private static final class Chain {
+        private int head = -1;
+        private int tail = -1;
+    }
 
     /**
-     * Constructor that initializes array list of discard pile with given cards
+     * Constructor that initializes the discard pile with given cards
      *
      * @param cards Array of cards to initialize the discard pile.
      * @throws IllegalArgumentException if cards array is null, message "Cards array cannot be null"
@@ -21,10 +47,10 @@ public class DiscardPile {
             throw new IllegalArgumentException("Cards array cannot be null");
         }
 
-        this.discardPile = new ArrayList<>();
+        init(Math.max(INITIAL_CAPACITY, cards.length));
         for (Card card : cards) {
             if (card != null) {
-                this.discardPile.add(card);
+                addCard(card);
             }
         }
     }
@@ -33,7 +59,18 @@ public class DiscardPile {
      * Default constructor that creates an empty discard pile, takes in no params and return nothing
      */
     public DiscardPile() {
-        this.discardPile = new ArrayList<>();
+        init(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates the storage of an empty pile
+     *
+     * @param capacity number of cards the pile can hold before growing
+     */
+    private void init(int capacity) {
+        this.discardPile = new Card[capacity];
+        this.nextSame = new int[capacity];
+        this.index = new HashMap<>();
     }
 
     /**
@@ -42,7 +79,149 @@ public class DiscardPile {
      * @return The discard pile as an array of cards
      */
     public Card[] getDiscardPile() {
-        return discardPile.toArray(new Card[0]);
+        Card[] cards = new Card[size];
+        copyCards(cards, 0);
+        return cards;
+    }
+
+    /**
+     * Copies the cards in discard order, skipping the empty slots, without squeezing them out,
+     * so reading the pile never changes it
+     *
+     * @param dest array with room for the whole pile from offset
+     * @param offset position in dest of the first card
+     */
+    private void copyCards(Card[] dest, int offset) {
+        if (size == end) {
+            System.arraycopy(discardPile, 0, dest, offset, size);
+            return;
+        }
+        for (int read = 0; read < end; read++) {
+            Card card = discardPile[read];
+            if (card != null) {
+                dest[offset++] = card;
+            }
+        }
+    }
+
+    /**
+     * Returns a read only view of the discard pile. It is created once and always shows the current cards
+     * in the order they were discarded, so reading it never copies anything.
+     *
+     * @return unmodifiable live list of the cards in the pile
+     */
+    public List<Card> getDiscardPileView() {
+        if (view == null) {
+            view = new View();
+        }
+        return view;
+    }
+
+    /**
+     * Calls the action for every card in the pile, in the order they were discarded, without copying the pile
+     *
+     * @param action what to do with each card
+     * @throws IllegalArgumentException if action is null
+     */
+    public void forEachCard(Consumer<? super Card> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        for (int i = 0; i < end; i++) {
+            Card card = discardPile[i];
+            if (card != null) {
+                action.accept(card);
+            }
+        }
+    }
+
+    /**
+     * Copies the cards in the pile into an array the caller owns, so the same buffer can be reused
+     *
+     * @param dest array to copy into
+     * @param offset position in dest of the first card
+     * @return number of cards copied
+     * @throws IllegalArgumentException if dest is null or does not have room for the whole pile from offset
+     */
+    public int copyInto(Card[] dest, int offset) {
+        if (dest == null) {
+            throw new IllegalArgumentException("Destination array cannot be null");
+        }
+        if (offset < 0 || offset > dest.length - size) {
+            throw new IllegalArgumentException("Destination array too small: need " + size + " slots from offset " + offset
+                    + ", length is " + dest.length);
+        }
+        copyCards(dest, offset);
+        return size;
+    }
+
+    /**
+     * Moves every card into an array in discard order and empties the pile, with no copy in between.
+     * The caller makes sure dest has room.
+     *
+     * @param dest array to move the cards into
+     * @param offset position in dest of the first card
+     * @return number of cards moved
+     */
+    int drainInto(Card[] dest, int offset) {
+        compact();
+        System.arraycopy(discardPile, 0, dest, offset, size);
+        int moved = size;
+        clear();
+        return moved;
+    }
+
+    /**
+     * Read only list backed directly by the pile. Reading never squeezes out the empty slots, so get is O(1)
+     * only while there are none and iterating is the way to go through the pile.
+     */
+    private final class View extends AbstractList<Card> {
+        @Override
+        public Card get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            if (size == end) {
+                return discardPile[index];
+            }
+            for (int read = 0; ; read++) {
+                if (discardPile[read] != null && index-- == 0) {
+                    return discardPile[read];
+                }
+            }
+        }
+
+        @Override
+        public Iterator<Card> iterator() {
+            return new Iterator<Card>() {
+                private int slot = skipHoles(0);
+
+                @Override
+                public boolean hasNext() {
+                    return slot < end;
+                }
+
+                @Override
+                public Card next() {
+                    if (slot >= end) {
+                        throw new NoSuchElementException();
+                    }
+                    Card card = discardPile[slot];
+                    slot = skipHoles(slot + 1);
+                    return card;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void forEach(Consumer<? super Card> action) {
+            forEachCard(action);
+        }
     }
 
     /**
@@ -51,7 +230,7 @@ public class DiscardPile {
      * @return The number of cards in the discard pile
      */
     public int size() {
-        return discardPile.size();
+        return size;
     }
 
     /**
@@ -64,11 +243,45 @@ public class DiscardPile {
         if (card == null) {
             throw new IllegalArgumentException("Cannot add null card to discard pile");
         }
-        discardPile.add(card);
+        if (end == discardPile.length) {
+            // squeeze out removed slots first, only grow when the pile is really full
+            if (size < end) {
+                compact();
+            }
+            if (end == discardPile.length) {
+                int capacity = discardPile.length + (discardPile.length >> 1) + 1;
+                discardPile = Arrays.copyOf(discardPile, capacity);
+                nextSame = Arrays.copyOf(nextSame, capacity);
+            }
+        }
+        link(card, end);
+        discardPile[end++] = card;
+        size++;
+    }
+
+    /**
+     * Appends a slot to the chain of its card
+     *
+     * @param card The card in the slot
+     * @param slot The slot index
+     */
+    private void link(Card card, int slot) {
+        nextSame[slot] = -1;
+        Chain chain = index.get(card);
+        if (chain == null) {
+            chain = new Chain();
+            index.put(card, chain);
+        }
+        if (chain.tail == -1) {
+            chain.head = slot;
+        } else {
+            nextSame[chain.tail] = slot;
+        }
+        chain.tail = slot;
     }
 
     /**
-     * Removes the specified card from the discard pile
+     * Removes the specified card from the discard pile, the oldest one if there are several
      *
      * @param card The card to remove
      * @return The removed card, or null if card is not found
@@ -78,18 +291,63 @@ public class DiscardPile {
             return null;
         }
 
-        int index = -1;
-        for (int i = 0; i < discardPile.size(); i++) {
-            if (discardPile.get(i).equals(card)) {
-                index = i;
-                break;
-            }
+        long start = GameMetrics.start();
+        Chain chain = index.get(card);
+        if (chain == null || chain.head == -1) {
+            return null;
+        }
+
+        int slot = chain.head;
+        Card removed = discardPile[slot];
+        chain.head = nextSame[slot];
+        if (chain.head == -1) {
+            chain.tail = -1;
+        }
+        discardPile[slot] = null;
+        size--;
+
+        if (size == 0) {
+            end = 0;
+        } else if (end - size > (end >> 1) + INITIAL_CAPACITY) {
+            compact();
         }
+        GameMetrics.stop(GameMetrics.Operation.PILE_REMOVE, start);
+        return removed;
+    }
+
+    /**
+     * @param slot first slot to look at
+     * @return the first slot from there holding a card, or end if there is none
+     */
+    private int skipHoles(int slot) {
+        while (slot < end && discardPile[slot] == null) {
+            slot++;
+        }
+        return slot;
+    }
 
-        if (index != -1) {
-            return discardPile.remove(index);
+    /**
+     * Moves all cards to the front of the array in their order, dropping the empty slots, and rebuilds the index
+     */
+    private void compact() {
+        if (size == end) {
+            return;
         }
-        return null;
+        for (Chain chain : index.values()) {
+            chain.head = -1;
+            chain.tail = -1;
+        }
+        int write = 0;
+        for (int read = 0; read < end; read++) {
+            Card card = discardPile[read];
+            if (card != null) {
+                discardPile[write] = card;
+                link(card, write);
+                write++;
+            }
+        }
+        Arrays.fill(discardPile, write, end, null);
+        end = write;
     }
 
     /**
@@ -98,28 +356,88 @@ public class DiscardPile {
      * @return Array of all removed cards, or empty array if pile is empty or when no cards are removed
      */
     public Card[] removeAll() {
-        Card[] allCards = discardPile.toArray(new Card[0]);
-        discardPile.clear();
+        Card[] allCards = getDiscardPile();
+        clear();
         return allCards;
     }
 
+    /**
+     * Empties the pile, keeping its storage and index entries for reuse
+     */
+    void clear() {
+        if (end == 0) {
+            return;
+        }
+        Arrays.fill(discardPile, 0, end, null);
+        for (Chain chain : index.values()) {
+            chain.head = -1;
+            chain.tail = -1;
+        }
+        end = 0;
+        size = 0;
+    }
+
     /**
      * @return A string contain of all cards in the discard pile
      */
     @Override
     public String toString() {
-        if (discardPile.isEmpty()) {
+        if (size == 0) {
             return "Empty discard pile";
         }
+        return appendTo(new StringBuilder(size * 20)).toString();
+    }
 
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < discardPile.size(); i++) {
-            sb.append(discardPile.get(i).toString());
-            if (i < discardPile.size() - 1) {
+    /**
+     * Appends the pile in the same format as {@link #toString()}, without creating any string
+     * or copying the pile, so a reused builder can render it every round
+     *
+     * @param sb the builder to append to
+     * @return sb
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        if (size == 0) {
+            return sb.append("Empty discard pile");
+        }
+        int written = 0;
+        for (int i = 0; i < end; i++) {
+            Card card = discardPile[i];
+            if (card == null) {
+                continue;
+            }
+            card.appendTo(sb);
+            if (++written < size) {
                 sb.append(", ");
             }
         }
-        sb.append(".");
-        return sb.toString();
+        return sb.append('.');
+    }
+
+    /**
+     * Appends the pile in the same format as {@link #toString()}, without creating any string
+     *
+     * @param out where to append to
+     * @return out
+     * @throws IOException if out fails
+     */
+    public Appendable appendTo(Appendable out) throws IOException {
+        if (out instanceof StringBuilder) {
+            return appendTo((StringBuilder) out);
+        }
+        if (size == 0) {
+            return out.append("Empty discard pile");
+        }
+        int written = 0;
+        for (int i = 0; i < end; i++) {
+            Card card = discardPile[i];
+            if (card == null) {
+                continue;
+            }
+            card.appendTo(out);
+            if (++written < size) {
+                out.append(", ");
+            }
+        }
+        return out.append('.');
     }
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+/**
+ * Plays games by some {@link GameRules} on a {@link TableState}: deal, then tricks in which every seat plays a card
+ * in turn, each trick resolved and scored and its cards put on the discard pile, until the rules say the game is over.
+ *
+ * The loop only calls the rules and writes to the table's preallocated arrays, so once the table is built
+ * a game allocates nothing as long as the rules do not. {@link #playGame()} resets the table first,
+ * so the same engine plays game after game.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public class GameEngine {
+    private final GameRules rules;
+    private final TableState table;
+    private long turns;
+
+    /**
+     * Creates an engine for a table
+     *
+     * @param rules the rules to play by
+     * @param table the table to play on
+     * @throws IllegalArgumentException if rules or table is null
+     */
+    public GameEngine(GameRules rules, TableState table) {
+        if (rules == null) {
+            throw new IllegalArgumentException("Game rules cannot be null");
+        }
+        if (table == null) {
+            throw new IllegalArgumentException("Table cannot be null");
+        }
+        this.rules = rules;
+        this.table = table;
+    }
+
+    /**
+     * @return the rules
+     */
+    public GameRules getRules() {
+        return rules;
+    }
+
+    /**
+     * @return the table
+     */
+    public TableState getTable() {
+        return table;
+    }
+
+    /**
+     * @return number of cards played by this engine so far, one per seat per trick
+     */
+    public long getTurns() {
+        return turns;
+    }
+
+    /**
+     * Resets the table and plays one whole game on it
+     *
+     * @return the winning seat, or {@link GameRules#TIE}
+     */
+    public int playGame() {
+        table.reset();
+        return play();
+    }
+
+    /**
+     * Deals and plays tricks until the game is over, on the table as it is (call {@link TableState#reset()} first)
+     *
+     * @return the winning seat, or {@link GameRules#TIE}
+     */
+    public int play() {
+        rules.deal(table);
+        while (!rules.isOver(table)) {
+            playTrick();
+        }
+        return rules.winner(table);
+    }
+
+    /**
+     * Plays one trick: every seat in turn plays a card, then the trick is resolved and scored
+     * and the played cards go to the discard pile
+     *
+     * @return the seat that took the trick, or {@link GameRules#TIE}
+     */
+    public int playTrick() {
+        return trick(-1, null);
+    }
+
+    /**
+     * Plays one trick in which one seat's card was chosen somewhere else, for example by a player over the network.
+     * That card must already be out of the seat's hand, every other seat chooses by the rules.
+     *
+     * @param seat the seat whose card is given
+     * @param card the card that seat plays
+     * @return the seat that took the trick, or {@link GameRules#TIE}
+     * @throws IllegalArgumentException if seat is not a seat at the table or card is null
+     */
+    public int playTrick(int seat, Card card) {
+        if (seat < 0 || seat >= table.getPlayerCount()) {
+            throw new IllegalArgumentException("No seat " + seat + " at a table of " + table.getPlayerCount());
+        }
+        if (card == null) {
+            throw new IllegalArgumentException("Card cannot be null");
+        }
+        return trick(seat, card);
+    }
+
+    /**
+     * @param given seat whose card is given, or -1 if every seat chooses by the rules
+     * @param card the given card
+     * @return the seat that took the trick, or {@link GameRules#TIE}
+     */
+    private int trick(int given, Card card) {
+        int seats = table.getPlayerCount();
+        for (int seat = 0; seat < seats; seat++) {
+            table.setPlayed(seat, null);
+        }
+        for (int seat = 0; seat < seats; seat++) {
+            table.setPlayed(seat, seat == given ? card : rules.choosePlay(table, seat));
+        }
+        turns += seats;
+        int winner = rules.resolveTrick(table);
+        rules.score(table, winner);
+        DiscardPile pile = table.getDiscardPile();
+        for (int seat = 0; seat < seats; seat++) {
+            pile.addCard(table.getPlayed(seat));
+        }
+        table.endTrick();
+        return winner;
+    }
+
+    /**
+     * Plays High Card games on one table and reports how fast they went
+     *
+     * @param args optional number of games (default 10,000,000), players (default 2) and seed
+     */
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        Deck deck = Deck.standard(ShuffleSource.xoroshiro(seed));
+        deck.setLazyShuffle(true);
+        Player[] seats = new Player[players];
+        for (int i = 0; i < players; i++) {
+            seats[i] = new Player("Player " + (i + 1), 1);
+        }
+        GameEngine engine = new GameEngine(new HighCardRules(), new TableState(deck, seats));
+
+        long[] wins = new long[players + 1];
+        long start = System.nanoTime();
+        for (long g = 0; g < games; g++) {
+            wins[engine.playGame() + 1]++;
+        }
+        long nanos = System.nanoTime() - start;
+
+        for (int i = 0; i < players; i++) {
+            System.out.printf("%s wins: %d%n", seats[i].getName(), wins[i + 1]);
+        }
+        System.out.printf("Ties: %d%n", wins[0]);
+        System.out.printf("%d games in %.1f ms: %.0f games/s, %.0f turns/s%n",
+                games, nanos / 1e6, games * 1e9 / nanos, engine.getTurns() * 1e9 / nanos);
+    }
+}
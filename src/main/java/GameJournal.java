@@ -0,0 +1,391 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An append-only journal of {@link SelfPlayedGame} events, so a disputed game can be replayed
+ * with {@link JournalReplayer}. Add it as the game's listener, it passes every event on to the next listener.
+ *
+ * The game thread only puts fixed size records into a single-producer single-consumer ring buffer,
+ * a few array stores and one ordered write per event with no locking and no allocation.
+ * A background writer thread drains the ring in batches into a memory-mapped file that grows one chunk at a time.
+ * If the writer falls behind by a whole ring the game thread waits for it instead of dropping events.
+ *
+ * File format: a 16 byte header (int magic "GJNL", int version, long reserved) and then 16 byte records
+ * (byte type, byte seat, short round, int card ordinal, long value), all big-endian.
+ * Cards are journaled by ordinal, so games must use standard cards. Dealt cards are journaled in the order
+ * the hands list them, so both players must keep their hands as a {@link Player.HandType#LIST}, which lists
+ * cards in the order they were drawn. Player names and ages are not journaled: a replay restores the deck,
+ * the hands, the discard pile and the scores.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public class GameJournal implements GameListener, AutoCloseable {
+    // "GJNL"
+    static final int MAGIC = 0x474A4E4C;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 16;
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    // records mapped at a time, by the journal and by the replayer
+    static final int CHUNK_RECORDS = 1 << 16;
+    private static final long WRITER_PARK_NANOS = 50_000;
+
+    /**
+     * The kinds of journal records
+     */
+    public enum EventType {
+        /**
+         * Seed of the game's shuffle source, value is the seed
+         */
+        SEED,
+        /**
+         * A game starts
+         */
+        GAME_START,
+        /**
+         * The game is reset, its deck put back together and shuffled again, hands emptied and scores zeroed
+         */
+        RESET,
+        /**
+         * A card is drawn into a seat's hand
+         */
+        DRAW,
+        /**
+         * A seat plays a card, it goes to the discard pile
+         */
+        PLAY,
+        /**
+         * A round has been scored, seat is the winner or -1 for a tie, value holds both scores
+         */
+        ROUND,
+        /**
+         * The game is over, value holds both scores
+         */
+        GAME_OVER;
+
+        private static final EventType[] VALUES = values();
+
+        /**
+         * @param code type byte of a record
+         * @return the type, or null for a code no record has
+         */
+        static EventType of(int code) {
+            return code >= 1 && code <= VALUES.length ? VALUES[code - 1] : null;
+        }
+
+        /**
+         * @return the type byte of this record type, never 0 so an empty slot is never a record
+         */
+        int code() {
+            return ordinal() + 1;
+        }
+    }
+
+    private final GameListener next;
+    private final FileChannel channel;
+    // two longs per record: type, seat, round and card packed in the first, value in the second
+    private final long[] ring;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    // the producer's last look at head, so it only reads the volatile when the ring seems full
+    private long cachedHead;
+    private final Thread writer;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    // only used by the writer thread
+    private MappedByteBuffer chunk;
+    private long chunkStart = HEADER_SIZE;
+    private long written;
+
+    private Player player1;
+    private Player player2;
+
+    /**
+     * Creates a journal in a new file, replacing any file already there
+     *
+     * @param file the journal file
+     * @param next listener that receives every event after it is journaled, use {@link GameListener#NONE} for none
+     * @throws IllegalArgumentException if file or next is null
+     * @throws IOException if the file cannot be created
+     */
+    public GameJournal(Path file, GameListener next) throws IOException {
+        this(file, next, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a journal in a new file with a ring buffer of the given number of records
+     *
+     * @param file the journal file
+     * @param next listener that receives every event after it is journaled
+     * @param capacity number of records the ring holds, a power of two
+     * @throws IllegalArgumentException if file or next is null, or capacity is not a positive power of two
+     * @throws IOException if the file cannot be created
+     */
+    public GameJournal(Path file, GameListener next, int capacity) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        if (next == null) {
+            throw new IllegalArgumentException("Game listener cannot be null");
+        }
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two, entered value: " + capacity);
+        }
+        this.next = next;
+        this.ring = new long[capacity * 2];
+        this.mask = capacity - 1;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(0).flip();
+        channel.write(header, 0);
+
+        writer = new Thread(this::drain, "game-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Journals a seed and returns the xoroshiro source for it, so a game created with the source can be replayed
+     *
+     * @param seed the seed
+     * @return {@link ShuffleSource#xoroshiro(long)} of the seed
+     */
+    public ShuffleSource seededSource(long seed) {
+        append(EventType.SEED, 0, 0, -1, seed);
+        return ShuffleSource.xoroshiro(seed);
+    }
+
+    /**
+     * @throws IllegalArgumentException if a player's hand is not a {@link Player.HandType#LIST}
+     */
+    @Override
+    public void onGameStarted(Player player1, Player player2) {
+        checkDealOrder(player1);
+        checkDealOrder(player2);
+        this.player1 = player1;
+        this.player2 = player2;
+        append(EventType.GAME_START, 0, 0, -1, 0);
+        next.onGameStarted(player1, player2);
+    }
+
+    @Override
+    public void onGameReset() {
+        append(EventType.RESET, 0, 0, -1, 0);
+        next.onGameReset();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the players are not the ones the game started with
+     */
+    @Override
+    public void onCardsDealt(Player player1, Player player2) {
+        if (seat(player1) != 0 || seat(player2) != 1) {
+            throw new IllegalArgumentException("Cards dealt to players in the wrong seats");
+        }
+        appendDeal(player1.getHandView(), player2.getHandView());
+        next.onCardsDealt(player1, player2);
+    }
+
+    @Override
+    public void onRoundStarted(int round) {
+        next.onRoundStarted(round);
+    }
+
+    @Override
+    public void onCardPlayed(Player player, Card card) {
+        append(EventType.PLAY, seat(player), 0, card.getOrdinal(), 0);
+        next.onCardPlayed(player, card);
+    }
+
+    @Override
+    public void onRoundWon(int round, Player winner, Player player1, int player1Score, Player player2, int player2Score) {
+        append(EventType.ROUND, winner == null ? -1 : seat(winner), round, -1, scores(player1Score, player2Score));
+        next.onRoundWon(round, winner, player1, player1Score, player2, player2Score);
+    }
+
+    @Override
+    public void onGameOver(Player player1, int player1Score, Player player2, int player2Score, Player winner) {
+        append(EventType.GAME_OVER, winner == null ? -1 : seat(winner), 0, -1, scores(player1Score, player2Score));
+        next.onGameOver(player1, player1Score, player2, player2Score, winner);
+    }
+
+    /**
+     * Journals the cards of both hands as drawn in the order the game deals them, one card to each seat in turn.
+     * The hands are lists, checked when the game started, so they hold cards in the order they were dealt.
+     *
+     * @param hand1 hand of the first player
+     * @param hand2 hand of the second player
+     */
+    private void appendDeal(List<Card> hand1, List<Card> hand2) {
+        for (int i = 0, n = Math.max(hand1.size(), hand2.size()); i < n; i++) {
+            if (i < hand1.size()) {
+                append(EventType.DRAW, 0, 0, hand1.get(i).getOrdinal(), 0);
+            }
+            if (i < hand2.size()) {
+                append(EventType.DRAW, 1, 0, hand2.get(i).getOrdinal(), 0);
+            }
+        }
+    }
+
+    /**
+     * @return seat of one of the players the game started with
+     * @throws IllegalArgumentException if the player is not at the table
+     */
+    private int seat(Player player) {
+        if (player != null && player == player1) {
+            return 0;
+        }
+        if (player != null && player == player2) {
+            return 1;
+        }
+        throw new IllegalArgumentException("Player is not at the journaled game: " + player);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the player's hand does not keep cards in the order they were drawn
+     */
+    private static void checkDealOrder(Player player) {
+        if (player.getHandType() != Player.HandType.LIST) {
+            throw new IllegalArgumentException("Journaled players need a LIST hand to keep deal order, "
+                    + player.getName() + " has " + player.getHandType());
+        }
+    }
+
+    private static long scores(int player1Score, int player2Score) {
+        return (long) player1Score << 32 | (player2Score & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Puts one record into the ring, called only from the game thread
+     */
+    private void append(EventType type, int seat, int round, int card, long value) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        long sequence = tail.get();
+        if (sequence - cachedHead > mask) {
+            // looks full, see how far the writer really is and wait for it if we must
+            while (sequence - (cachedHead = head.get()) > mask) {
+                checkWriter();
+                LockSupport.unpark(writer);
+                Thread.yield();
+            }
+        }
+        int slot = (int) (sequence & mask) << 1;
+        ring[slot] = (long) type.code() << 56 | (long) (seat & 0xFF) << 48 | (long) (round & 0xFFFF) << 32 | (card & 0xFFFFFFFFL);
+        ring[slot + 1] = value;
+        tail.lazySet(sequence + 1);
+    }
+
+    /**
+     * Writer thread: moves records from the ring into the file in batches until the journal is closed and drained
+     */
+    private void drain() {
+        try {
+            while (true) {
+                // closed is read before tail: every record appended before close() is then below end
+                boolean closing = closed;
+                long end = tail.get();
+                long start = head.get();
+                if (start == end) {
+                    if (closing) {
+                        return;
+                    }
+                    LockSupport.parkNanos(this, WRITER_PARK_NANOS);
+                    continue;
+                }
+                for (long sequence = start; sequence < end; sequence++) {
+                    int slot = (int) (sequence & mask) << 1;
+                    writeRecord(ring[slot], ring[slot + 1]);
+                }
+                head.lazySet(end);
+            }
+        } catch (Throwable t) {
+            failure = t;
+        }
+    }
+
+    /**
+     * Appends one record to the mapped file, mapping the next chunk when the current one is full
+     */
+    private void writeRecord(long header, long value) throws IOException {
+        if (chunk == null || !chunk.hasRemaining()) {
+            if (chunk != null) {
+                chunkStart += chunk.capacity();
+            }
+            chunk = channel.map(FileChannel.MapMode.READ_WRITE, chunkStart, (long) CHUNK_RECORDS * RECORD_SIZE);
+        }
+        chunk.putLong(header);
+        chunk.putLong(value);
+        written++;
+    }
+
+    /**
+     * @throws IllegalStateException if the writer thread has failed
+     */
+    private void checkWriter() {
+        Throwable t = failure;
+        if (t != null) {
+            throw new IllegalStateException("Journal writer failed", t);
+        }
+    }
+
+    /**
+     * Waits until every event journaled so far is in the file
+     *
+     * @throws IllegalStateException if the writer thread has failed
+     */
+    public void flush() {
+        long end = tail.get();
+        while (head.get() < end) {
+            checkWriter();
+            LockSupport.unpark(writer);
+            Thread.yield();
+        }
+        checkWriter();
+    }
+
+    /**
+     * Writes out every journaled event, stops the writer and trims the file to the records written
+     *
+     * @throws IOException if the file cannot be finished
+     * @throws IllegalStateException if the writer thread has failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing the journal", e);
+        }
+        try {
+            checkWriter();
+            if (chunk != null) {
+                chunk.force();
+            }
+            chunk = null;
+            channel.truncate(HEADER_SIZE + written * RECORD_SIZE);
+        } finally {
+            channel.close();
+        }
+    }
+}
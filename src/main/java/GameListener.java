@@ -0,0 +1,83 @@
+/**
+ * Receives the events of a {@link SelfPlayedGame} as it is played.
+ * Every method does nothing by default, so a listener only overrides the events it cares about.
+ * Events pass the game's own objects, nothing is built just to report an event.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public interface GameListener {
+
+    /**
+     * Listener that ignores every event, a game using it produces no output and no garbage
+     */
+    GameListener NONE = new GameListener() {
+    };
+
+    /**
+     * Called when a game starts, before any card is dealt
+     *
+     * @param player1 the first player
+     * @param player2 the second player
+     */
+    default void onGameStarted(Player player1, Player player2) {
+    }
+
+    /**
+     * Called when the game has been reset to be played again, after its deck was reset and shuffled
+     */
+    default void onGameReset() {
+    }
+
+    /**
+     * Called after both players have been dealt their hands
+     *
+     * @param player1 the first player
+     * @param player2 the second player
+     */
+    default void onCardsDealt(Player player1, Player player2) {
+    }
+
+    /**
+     * Called when a round starts
+     *
+     * @param round the round number, starting at 1
+     */
+    default void onRoundStarted(int round) {
+    }
+
+    /**
+     * Called when a player plays a card
+     *
+     * @param player the player
+     * @param card the card played
+     */
+    default void onCardPlayed(Player player, Card card) {
+    }
+
+    /**
+     * Called when a round has been scored
+     *
+     * @param round the round number, starting at 1
+     * @param winner the player who won the round, or null for a tie
+     * @param player1 the first player
+     * @param player1Score score of the first player after this round
+     * @param player2 the second player
+     * @param player2Score score of the second player after this round
+     */
+    default void onRoundWon(int round, Player winner, Player player1, int player1Score, Player player2, int player2Score) {
+    }
+
+    /**
+     * Called when the game is over
+     *
+     * @param player1 the first player
+     * @param player1Score final score of the first player
+     * @param player2 the second player
+     * @param player2Score final score of the second player
+     * @param winner the player who won the game, or null for a tie
+     */
+    default void onGameOver(Player player1, int player1Score, Player player2, int player2Score, Player winner) {
+    }
+}
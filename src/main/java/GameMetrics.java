@@ -0,0 +1,250 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counts and times deck, player, discard pile and game operations for the whole JVM.
+ *
+ * Instrumented code brackets an operation with {@link #start()} and {@link #stop(Operation, long)}.
+ * While metrics are disabled (the default) start returns 0 after a single flag read and stop returns at once,
+ * so nothing is measured, counted or allocated. While enabled every operation adds to a {@link LongAdder}
+ * count and to a latency histogram of power of two nanosecond buckets, also LongAdders, so threads never contend.
+ *
+ * Turn it on with -Dcardgame.metrics=true, {@link #setEnabled(boolean)} or the JMX attribute "Enabled"
+ * after {@link #register()} has published the MBean as "cardgame:type=GameMetrics".
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public final class GameMetrics implements GameMetricsMBean {
+    /**
+     * Name the MBean is registered under
+     */
+    public static final String OBJECT_NAME = "cardgame:type=GameMetrics";
+
+    private static final GameMetrics INSTANCE = new GameMetrics();
+    private static final int BUCKETS = 64;
+
+    private static volatile boolean enabled = Boolean.getBoolean("cardgame.metrics");
+
+    /**
+     * The operations that are measured
+     */
+    public enum Operation {
+        SHUFFLE, DRAW, RESHUFFLE, DISCARD, RETURN, PILE_REMOVE, ROUND;
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder timed = new LongAdder();
+        // latencies[i] counts operations that took from 2^i to 2^(i+1) - 1 nanoseconds
+        private final LongAdder[] latencies = new LongAdder[BUCKETS];
+
+        Operation() {
+            for (int i = 0; i < BUCKETS; i++) {
+                latencies[i] = new LongAdder();
+            }
+        }
+    }
+
+    private GameMetrics() {
+    }
+
+    /**
+     * @return the metrics of this JVM
+     */
+    public static GameMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, doing nothing if they are registered already
+     *
+     * @throws IllegalStateException if registration fails
+     */
+    public static void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (InstanceAlreadyExistsException e) {
+            // registered by another thread in the meantime
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register game metrics", e);
+        }
+    }
+
+    /**
+     * Marks the start of an operation
+     *
+     * @return start time to pass to {@link #stop(Operation, long)}, 0 when metrics are disabled
+     */
+    static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records one operation started with {@link #start()}
+     *
+     * @param operation the operation
+     * @param start what start returned
+     */
+    static void stop(Operation operation, long start) {
+        stop(operation, start, 1);
+    }
+
+    /**
+     * Records an operation that handled several items at once, like a bulk draw, as one latency sample
+     *
+     * @param operation the operation
+     * @param start what start returned
+     * @param items number of items to add to the operation's count
+     */
+    static void stop(Operation operation, long start, long items) {
+        if (start == 0) {
+            return;
+        }
+        long nanos = Math.max(0, System.nanoTime() - start);
+        operation.count.add(items);
+        operation.timed.increment();
+        operation.totalNanos.add(nanos);
+        operation.latencies[63 - Long.numberOfLeadingZeros(nanos | 1)].increment();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        GameMetrics.enabled = enabled;
+    }
+
+    @Override
+    public long getShuffleCount() {
+        return Operation.SHUFFLE.count.sum();
+    }
+
+    @Override
+    public long getDrawCount() {
+        return Operation.DRAW.count.sum();
+    }
+
+    @Override
+    public long getReshuffleCount() {
+        return Operation.RESHUFFLE.count.sum();
+    }
+
+    @Override
+    public long getDiscardCount() {
+        return Operation.DISCARD.count.sum();
+    }
+
+    @Override
+    public long getReturnCount() {
+        return Operation.RETURN.count.sum();
+    }
+
+    @Override
+    public long getPileRemoveCount() {
+        return Operation.PILE_REMOVE.count.sum();
+    }
+
+    @Override
+    public long getRoundCount() {
+        return Operation.ROUND.count.sum();
+    }
+
+    /**
+     * @throws IllegalArgumentException if there is no operation with that name
+     */
+    @Override
+    public long getCount(String operation) {
+        return operation(operation).count.sum();
+    }
+
+    /**
+     * @throws IllegalArgumentException if there is no operation with that name
+     */
+    @Override
+    public double getMeanNanos(String operation) {
+        Operation op = operation(operation);
+        long timed = op.timed.sum();
+        return timed == 0 ? 0 : (double) op.totalNanos.sum() / timed;
+    }
+
+    /**
+     * @throws IllegalArgumentException if there is no operation with that name or percentile is out of range
+     */
+    @Override
+    public long getPercentileNanos(String operation, double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be from 0 to 100, entered value: " + percentile);
+        }
+        Operation op = operation(operation);
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = op.latencies[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return (1L << (i + 1)) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public String getSummary() {
+        StringBuilder sb = new StringBuilder(512);
+        sb.append("Metrics ").append(enabled ? "enabled" : "disabled");
+        for (Operation op : Operation.values()) {
+            sb.append('\n').append(op.name()).append(": ").append(op.count.sum())
+                    .append(String.format(", mean %.0f ns, p50 %d ns, p99 %d ns",
+                            getMeanNanos(op.name()), getPercentileNanos(op.name(), 50), getPercentileNanos(op.name(), 99)));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (Operation op : Operation.values()) {
+            op.count.reset();
+            op.timed.reset();
+            op.totalNanos.reset();
+            for (LongAdder bucket : op.latencies) {
+                bucket.reset();
+            }
+        }
+    }
+
+    /**
+     * @param name name of an operation
+     * @return the operation
+     * @throws IllegalArgumentException if there is no operation with that name
+     */
+    private static Operation operation(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Operation cannot be null");
+        }
+        try {
+            return Operation.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown operation: " + name);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Management interface of {@link GameMetrics}, as seen through JMX.
+ * Operation names are the names of {@link GameMetrics.Operation}, for example "DRAW".
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public interface GameMetricsMBean {
+
+    /**
+     * @return true if operations are being counted and timed
+     */
+    boolean isEnabled();
+
+    /**
+     * Turns counting and timing on or off, takes effect immediately on every thread
+     *
+     * @param enabled true to record operations
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * @return number of deck shuffles
+     */
+    long getShuffleCount();
+
+    /**
+     * @return number of cards drawn from decks
+     */
+    long getDrawCount();
+
+    /**
+     * @return number of deck reshuffles
+     */
+    long getReshuffleCount();
+
+    /**
+     * @return number of cards players discarded
+     */
+    long getDiscardCount();
+
+    /**
+     * @return number of cards players returned to a deck
+     */
+    long getReturnCount();
+
+    /**
+     * @return number of discard pile removals
+     */
+    long getPileRemoveCount();
+
+    /**
+     * @return number of game rounds played
+     */
+    long getRoundCount();
+
+    /**
+     * @param operation name of the operation
+     * @return how many times it has been recorded
+     */
+    long getCount(String operation);
+
+    /**
+     * @param operation name of the operation
+     * @return mean latency in nanoseconds, 0 if it was never timed
+     */
+    double getMeanNanos(String operation);
+
+    /**
+     * @param operation name of the operation
+     * @param percentile from 0 to 100
+     * @return upper bound of the power of two latency bucket holding that percentile, in nanoseconds
+     */
+    long getPercentileNanos(String operation, double percentile);
+
+    /**
+     * @return counts and latencies of every operation, one per line
+     */
+    String getSummary();
+
+    /**
+     * Sets every count and histogram back to zero
+     */
+    void reset();
+}
@@ -0,0 +1,199 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The binary protocol between a {@link GameServer} and its clients.
+ *
+ * Every message is a frame: an unsigned short length, then that many bytes: a type byte and the payload.
+ * Numbers are big-endian, cards are their ordinal ({@link Card#getOrdinal()}) in one byte,
+ * and strings are an unsigned short length followed by UTF-8. A client sends one request and reads
+ * the frames it is answered with, a request never gets a frame of another request in between.
+ *
+ * <pre>
+ * request   payload                  answer
+ * JOIN      string name              JOINED (int table, byte seat)
+ * DRAW                               HAND (byte count, count cards)
+ * PLAY      card                     TRICK (card yours, card house's, byte winner seat or -1, byte score, byte house score)
+ *                                    then GAME_OVER (byte winner seat or -1, byte score, byte house score) after the last trick
+ * DISCARD   card                     DISCARDED (card, byte cards left in hand), then GAME_OVER if the hand is empty
+ * any                                ERROR (byte code, string message) instead when the request is not allowed
+ * </pre>
+ *
+ * A client plays seat 0 of a High Card table of its own against the house in seat 1, see {@link HighCardRules}.
+ * DRAW starts a game and deals both hands, PLAY plays a trick, DISCARD throws a card away without playing it.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public final class GameProtocol {
+    /**
+     * Bytes of the length field in front of every frame
+     */
+    public static final int LENGTH_SIZE = 2;
+    /**
+     * Largest length a frame may give, anything longer is a protocol error
+     */
+    public static final int MAX_FRAME = 512;
+
+    // requests
+    public static final byte JOIN = 0x01;
+    public static final byte DRAW = 0x02;
+    public static final byte PLAY = 0x03;
+    public static final byte DISCARD = 0x04;
+
+    // answers
+    public static final byte JOINED = (byte) 0x81;
+    public static final byte HAND = (byte) 0x82;
+    public static final byte TRICK = (byte) 0x83;
+    public static final byte GAME_OVER = (byte) 0x84;
+    public static final byte DISCARDED = (byte) 0x85;
+    public static final byte ERROR = (byte) 0xFF;
+
+    // error codes: unknown type or bad payload, request before JOIN, second JOIN,
+    // DRAW while a game is on, PLAY or DISCARD with no game on, card not in the player's hand
+    public static final int BAD_REQUEST = 1;
+    public static final int NOT_JOINED = 2;
+    public static final int ALREADY_JOINED = 3;
+    public static final int GAME_IN_PROGRESS = 4;
+    public static final int NO_GAME = 5;
+    public static final int NOT_IN_HAND = 6;
+
+    private GameProtocol() {
+    }
+
+    /**
+     * Size of the frame at the buffer's position, if all of it has arrived
+     *
+     * @param buffer bytes received, ready to be read
+     * @return number of bytes of the whole frame including the length field, or -1 if it is not complete yet
+     * @throws IllegalArgumentException if the frame claims to be empty or longer than {@link #MAX_FRAME}
+     */
+    public static int frameSize(ByteBuffer buffer) {
+        if (buffer.remaining() < LENGTH_SIZE) {
+            return -1;
+        }
+        int length = buffer.getShort(buffer.position()) & 0xFFFF;
+        if (length == 0 || length > MAX_FRAME) {
+            throw new IllegalArgumentException("Illegal frame length: " + length);
+        }
+        return buffer.remaining() < LENGTH_SIZE + length ? -1 : LENGTH_SIZE + length;
+    }
+
+    /**
+     * Starts a frame, to be finished with {@link #end(ByteBuffer, int)} once the payload is written
+     *
+     * @param buffer buffer to write to
+     * @param type message type
+     * @return position of the frame, for end
+     */
+    static int begin(ByteBuffer buffer, byte type) {
+        int start = buffer.position();
+        buffer.putShort((short) 0).put(type);
+        return start;
+    }
+
+    /**
+     * Fills in the length of a frame started with {@link #begin(ByteBuffer, byte)}
+     *
+     * @param buffer buffer written to
+     * @param start what begin returned
+     */
+    static void end(ByteBuffer buffer, int start) {
+        buffer.putShort(start, (short) (buffer.position() - start - LENGTH_SIZE));
+    }
+
+    /**
+     * Writes a JOIN request
+     *
+     * @param buffer buffer to write to
+     * @param name the player's name
+     */
+    public static void join(ByteBuffer buffer, String name) {
+        int start = begin(buffer, JOIN);
+        putString(buffer, name);
+        end(buffer, start);
+    }
+
+    /**
+     * Writes a DRAW request
+     *
+     * @param buffer buffer to write to
+     */
+    public static void draw(ByteBuffer buffer) {
+        end(buffer, begin(buffer, DRAW));
+    }
+
+    /**
+     * Writes a PLAY request
+     *
+     * @param buffer buffer to write to
+     * @param card the card to play
+     */
+    public static void play(ByteBuffer buffer, Card card) {
+        int start = begin(buffer, PLAY);
+        buffer.put((byte) card.getOrdinal());
+        end(buffer, start);
+    }
+
+    /**
+     * Writes a DISCARD request
+     *
+     * @param buffer buffer to write to
+     * @param card the card to discard
+     */
+    public static void discard(ByteBuffer buffer, Card card) {
+        int start = begin(buffer, DISCARD);
+        buffer.put((byte) card.getOrdinal());
+        end(buffer, start);
+    }
+
+    /**
+     * Writes an ERROR answer
+     *
+     * @param buffer buffer to write to
+     * @param code error code
+     * @param message what went wrong
+     */
+    static void error(ByteBuffer buffer, int code, String message) {
+        int start = begin(buffer, ERROR);
+        buffer.put((byte) code);
+        putString(buffer, message);
+        end(buffer, start);
+    }
+
+    /**
+     * Reads a card ordinal
+     *
+     * @param buffer buffer to read from
+     * @return the standard card
+     * @throws IllegalArgumentException if the byte is not a standard card ordinal
+     */
+    public static Card getCard(ByteBuffer buffer) {
+        return Card.standard(buffer.get() & 0xFF);
+    }
+
+    /**
+     * Writes a string, cut to {@link #MAX_FRAME} / 2 bytes so it always fits in a frame
+     *
+     * @param buffer buffer to write to
+     * @param s the string
+     */
+    public static void putString(ByteBuffer buffer, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_FRAME / 2);
+        buffer.putShort((short) length).put(bytes, 0, length);
+    }
+
+    /**
+     * Reads a string
+     *
+     * @param buffer buffer to read from
+     * @return the string
+     */
+    public static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
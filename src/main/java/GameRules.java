@@ -0,0 +1,80 @@
+/**
+ * The rules of a trick-taking card game, played on a {@link TableState} by a {@link GameEngine}.
+ *
+ * A game is a deal followed by tricks until {@link #isOver(TableState)}. In every trick each seat in turn
+ * chooses a card with {@link #choosePlay(TableState, int)}, then the trick is resolved and scored,
+ * and the engine puts its cards on the discard pile.
+ * Rules keep no state of their own, everything lives in the table, so one rules object can serve any number of tables.
+ * The engine calls these once per turn or trick, so they should not allocate.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public interface GameRules {
+
+    /**
+     * Winner of a trick or game that nobody won
+     */
+    int TIE = -1;
+
+    /**
+     * Deals the cards a game starts with, the table has just been reset
+     *
+     * @param table the table
+     */
+    void deal(TableState table);
+
+    /**
+     * @param table the table
+     * @return true when no more tricks are played
+     */
+    boolean isOver(TableState table);
+
+    /**
+     * Takes the card a seat plays in the current trick out of its player's hand.
+     * The cards already played in this trick by lower seats are on the table.
+     *
+     * @param table the table
+     * @param seat the seat to play
+     * @return the card played
+     */
+    Card choosePlay(TableState table, int seat);
+
+    /**
+     * Decides who takes the trick, from the cards every seat has played
+     *
+     * @param table the table, holding the trick's cards
+     * @return the winning seat, or {@link #TIE}
+     */
+    int resolveTrick(TableState table);
+
+    /**
+     * Scores a resolved trick
+     *
+     * @param table the table
+     * @param winner the seat that took the trick, or {@link #TIE}
+     */
+    void score(TableState table, int winner);
+
+    /**
+     * Decides who won the game once it is over, by default the only seat with the highest score
+     *
+     * @param table the table
+     * @return the winning seat, or {@link #TIE}
+     */
+    default int winner(TableState table) {
+        int winner = TIE;
+        int best = Integer.MIN_VALUE;
+        for (int seat = 0; seat < table.getPlayerCount(); seat++) {
+            int score = table.getScore(seat);
+            if (score > best) {
+                best = score;
+                winner = seat;
+            } else if (score == best) {
+                winner = TIE;
+            }
+        }
+        return winner;
+    }
+}
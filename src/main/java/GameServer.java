@@ -0,0 +1,473 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hosts High Card tables over TCP with the binary {@link GameProtocol}, one table per connection.
+ *
+ * A few selector threads share all connections: the first one also accepts them and hands each new connection
+ * to the threads in turn. A connection stays on its thread for good, and its table, deck and buffers are only
+ * touched by that thread, so nothing is locked. Requests are answered as soon as they are read, and a client
+ * that sends faster than it reads has its input left unread until its answers are written (backpressure).
+ *
+ * Tables play through a {@link GameEngine} with {@link HighCardRules}: the client's seat plays the cards it sends,
+ * the house seat plays by the rules. Decks shuffle lazily and are seeded from the server seed and the table number.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public class GameServer implements AutoCloseable {
+    private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+    private static final int IN_SIZE = 1024;
+    private static final int OUT_SIZE = 4096;
+    // free room the output buffer needs before another request is handled, more than the longest answer
+    private static final int MAX_ANSWER = 256;
+    private static final HighCardRules RULES = new HighCardRules();
+
+    private final ServerSocketChannel server;
+    private final Loop[] loops;
+    private final long seed;
+    private final AtomicInteger tables = new AtomicInteger();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final LongAdder games = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private volatile boolean running;
+    private int nextLoop;
+
+    /**
+     * Opens a server on the loopback address
+     *
+     * @param port port to listen on, 0 for any free port
+     * @param threads number of selector threads
+     * @throws IOException if the port cannot be bound
+     * @throws IllegalArgumentException if threads is not positive
+     */
+    public GameServer(int port, int threads) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), threads, System.nanoTime());
+    }
+
+    /**
+     * Opens a server, it takes connections once {@link #start()} is called
+     *
+     * @param address address to listen on
+     * @param threads number of selector threads
+     * @param seed seed for the decks of the tables
+     * @throws IOException if the address cannot be bound
+     * @throws IllegalArgumentException if address is null or threads is not positive
+     */
+    public GameServer(InetSocketAddress address, int threads, long seed) throws IOException {
+        if (address == null) {
+            throw new IllegalArgumentException("Address cannot be null");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        this.seed = seed;
+        this.loops = new Loop[threads];
+        this.server = ServerSocketChannel.open();
+        try {
+            server.bind(address, 1024);
+            server.configureBlocking(false);
+            for (int i = 0; i < threads; i++) {
+                loops[i] = new Loop(i);
+            }
+            server.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Starts the selector threads
+     *
+     * @throws IllegalStateException if the server was started already
+     */
+    public synchronized void start() {
+        if (running || loops[0].thread.isAlive()) {
+            throw new IllegalStateException("Server already started");
+        }
+        running = true;
+        for (Loop loop : loops) {
+            loop.thread.start();
+        }
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * @return number of open connections
+     */
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * @return number of games finished on all tables
+     */
+    public long getGamesPlayed() {
+        return games.sum();
+    }
+
+    /**
+     * @return number of requests answered
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * Stops the selector threads and closes every connection
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Loop loop : loops) {
+            if (loop != null) {
+                loop.selector.wakeup();
+            }
+        }
+        for (Loop loop : loops) {
+            if (loop != null && loop.thread.isAlive() && loop.thread != Thread.currentThread()) {
+                try {
+                    loop.thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        try {
+            server.close();
+        } catch (IOException e) {
+            // nothing left to do with it
+        }
+        for (Loop loop : loops) {
+            if (loop != null) {
+                loop.closeAll();
+            }
+        }
+    }
+
+    /**
+     * One connection: its buffers and, once it has joined, its table
+     */
+    private final class Session {
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(IN_SIZE);
+        private final ByteBuffer out = ByteBuffer.allocate(OUT_SIZE);
+        private int tableId = -1;
+        private TableState table;
+        private GameEngine engine;
+        private boolean playing;
+
+        private Session(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        private void join(String name) {
+            tableId = tables.getAndIncrement();
+            Deck deck = Deck.standard(ShuffleSource.xoroshiro(seed + tableId * SEED_STEP));
+            deck.setLazyShuffle(true);
+            table = new TableState(deck, new Player[]{new Player(name, 1), new Player("House", 1)});
+            engine = new GameEngine(RULES, table);
+        }
+    }
+
+    /**
+     * A selector thread and the connections it serves
+     */
+    private final class Loop implements Runnable {
+        private final Selector selector;
+        private final Thread thread;
+        private final Queue<SocketChannel> incoming = new ConcurrentLinkedQueue<>();
+
+        private Loop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "game-server-" + index);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    registerIncoming();
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            serve(key);
+                        }
+                    }
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                if (running) {
+                    throw new IllegalStateException("Game server selector failed", e);
+                }
+            }
+        }
+
+        private void accept() throws IOException {
+            SocketChannel channel;
+            while ((channel = server.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                connections.incrementAndGet();
+                Loop target = loops[nextLoop];
+                nextLoop = (nextLoop + 1) % loops.length;
+                if (target == this) {
+                    channel.register(selector, SelectionKey.OP_READ, new Session(channel));
+                } else {
+                    target.incoming.add(channel);
+                    target.selector.wakeup();
+                }
+            }
+        }
+
+        private void registerIncoming() {
+            SocketChannel channel;
+            while ((channel = incoming.poll()) != null) {
+                try {
+                    channel.register(selector, SelectionKey.OP_READ, new Session(channel));
+                } catch (IOException e) {
+                    disconnect(channel);
+                }
+            }
+        }
+
+        /**
+         * Reads, answers and writes for one ready connection
+         */
+        private void serve(SelectionKey key) {
+            Session session = (Session) key.attachment();
+            try {
+                if (key.isReadable() && session.channel.read(session.in) < 0) {
+                    close(key);
+                    return;
+                }
+                if (key.isWritable() || session.out.position() == 0) {
+                    flush(session);
+                }
+                // frames left over for want of room are handled as soon as a flush makes room again
+                boolean pending;
+                do {
+                    pending = handleFrames(session);
+                    flush(session);
+                } while (pending && session.out.remaining() >= MAX_ANSWER);
+                // while answers are waiting to be written, stop reading so a fast sender cannot run the server out of room
+                key.interestOps(session.out.position() > 0 ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+            } catch (IOException | IllegalArgumentException e) {
+                close(key);
+            }
+        }
+
+        /**
+         * Answers every complete frame in the input buffer, as long as the output buffer has room
+         *
+         * @return true if a complete frame is left unanswered because the output buffer is full
+         * @throws IllegalArgumentException if a frame has an illegal length, the connection is dropped
+         */
+        private boolean handleFrames(Session session) {
+            ByteBuffer in = session.in;
+            in.flip();
+            try {
+                int size;
+                while (session.out.remaining() >= MAX_ANSWER && (size = GameProtocol.frameSize(in)) > 0) {
+                    int limit = in.limit();
+                    int end = in.position() + size;
+                    in.position(in.position() + GameProtocol.LENGTH_SIZE).limit(end);
+                    int answerStart = session.out.position();
+                    try {
+                        handle(session, in, session.out);
+                    } catch (IllegalArgumentException | BufferUnderflowException e) {
+                        session.out.position(answerStart);
+                        GameProtocol.error(session.out, GameProtocol.BAD_REQUEST, "Malformed request");
+                    }
+                    requests.increment();
+                    in.limit(limit).position(end);
+                }
+                return GameProtocol.frameSize(in) > 0;
+            } finally {
+                in.compact();
+            }
+        }
+
+        private void flush(Session session) throws IOException {
+            ByteBuffer out = session.out;
+            if (out.position() == 0) {
+                return;
+            }
+            out.flip();
+            session.channel.write(out);
+            out.compact();
+        }
+
+        private void close(SelectionKey key) {
+            key.cancel();
+            disconnect(((Session) key.attachment()).channel);
+        }
+
+        private void disconnect(SocketChannel channel) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // closing anyway
+            }
+            connections.decrementAndGet();
+        }
+
+        private void closeAll() {
+            try {
+                for (SelectionKey key : selector.keys()) {
+                    if (key.attachment() instanceof Session) {
+                        close(key);
+                    }
+                }
+                selector.close();
+            } catch (IOException | ClosedSelectorException e) {
+                // shutting down
+            }
+            SocketChannel channel;
+            while ((channel = incoming.poll()) != null) {
+                disconnect(channel);
+            }
+        }
+    }
+
+    /**
+     * Answers one request
+     *
+     * @param session the connection
+     * @param in the request, positioned at its type byte and limited to its end
+     * @param out where the answer goes
+     */
+    private void handle(Session session, ByteBuffer in, ByteBuffer out) {
+        byte type = in.get();
+        if (type == GameProtocol.JOIN) {
+            if (session.table != null) {
+                GameProtocol.error(out, GameProtocol.ALREADY_JOINED, "Already at table " + session.tableId);
+                return;
+            }
+            String name = GameProtocol.getString(in);
+            if (name.trim().isEmpty()) {
+                GameProtocol.error(out, GameProtocol.BAD_REQUEST, "Name cannot be empty");
+                return;
+            }
+            session.join(name);
+            int start = GameProtocol.begin(out, GameProtocol.JOINED);
+            out.putInt(session.tableId).put((byte) 0);
+            GameProtocol.end(out, start);
+            return;
+        }
+        if (type != GameProtocol.DRAW && type != GameProtocol.PLAY && type != GameProtocol.DISCARD) {
+            GameProtocol.error(out, GameProtocol.BAD_REQUEST, "Unknown request type " + (type & 0xFF));
+            return;
+        }
+        if (session.table == null) {
+            GameProtocol.error(out, GameProtocol.NOT_JOINED, "Join a table first");
+            return;
+        }
+
+        TableState table = session.table;
+        Player player = table.getPlayer(0);
+        if (type == GameProtocol.DRAW) {
+            if (session.playing) {
+                GameProtocol.error(out, GameProtocol.GAME_IN_PROGRESS, "Finish the game first");
+                return;
+            }
+            table.reset();
+            RULES.deal(table);
+            session.playing = true;
+            List<Card> hand = player.getHandView();
+            int start = GameProtocol.begin(out, GameProtocol.HAND);
+            out.put((byte) hand.size());
+            // a bit set hand's get counts bits, the iterator walks them once
+            for (Card card : hand) {
+                out.put((byte) card.getOrdinal());
+            }
+            GameProtocol.end(out, start);
+            return;
+        }
+
+        Card card = GameProtocol.getCard(in);
+        if (!session.playing) {
+            GameProtocol.error(out, GameProtocol.NO_GAME, "No game in progress, draw first");
+            return;
+        }
+        // a played card reaches the discard pile with its trick, a discarded one goes there now
+        if (type == GameProtocol.PLAY ? !player.removeCardFromHand(card)
+                : !player.discardCard(card, table.getDiscardPile())) {
+            GameProtocol.error(out, GameProtocol.NOT_IN_HAND, card + " is not in hand");
+            return;
+        }
+        if (type == GameProtocol.PLAY) {
+            int winner = session.engine.playTrick(0, card);
+            int start = GameProtocol.begin(out, GameProtocol.TRICK);
+            out.put((byte) card.getOrdinal()).put((byte) table.getPlayed(1).getOrdinal()).put((byte) winner)
+                    .put((byte) table.getScore(0)).put((byte) table.getScore(1));
+            GameProtocol.end(out, start);
+        } else {
+            int start = GameProtocol.begin(out, GameProtocol.DISCARDED);
+            out.put((byte) card.getOrdinal()).put((byte) player.size());
+            GameProtocol.end(out, start);
+        }
+        if (RULES.isOver(table)) {
+            session.playing = false;
+            games.increment();
+            int start = GameProtocol.begin(out, GameProtocol.GAME_OVER);
+            out.put((byte) RULES.winner(table)).put((byte) table.getScore(0)).put((byte) table.getScore(1));
+            GameProtocol.end(out, start);
+        }
+    }
+
+    /**
+     * Runs a server until the process is stopped
+     *
+     * @param args optional port (default 7000), selector threads (default all cores) and seed
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), threads, seed);
+        server.start();
+        System.out.println("High Card server on port " + server.getPort() + " with " + threads + " selector threads");
+        for (Loop loop : server.loops) {
+            try {
+                loop.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+}
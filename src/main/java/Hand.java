@@ -0,0 +1,227 @@
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * The storage behind a player's hand. Player only talks to this class,
+ * so the way cards are kept can be swapped without changing Player's methods.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+abstract class Hand {
+    private List<Card> view;
+
+    /**
+     * Adds a card to the hand
+     *
+     * @param card the card to add, never null
+     */
+    abstract void add(Card card);
+
+    /**
+     * Adds count cards taken from an array, starting at offset and moving step slots each time,
+     * so a hand can pick its cards straight out of a round-robin deal
+     *
+     * @param cards array holding the cards, none of them null
+     * @param offset position of the first card
+     * @param step distance between two cards, 1 for consecutive cards
+     * @param count number of cards to add
+     */
+    void addAll(Card[] cards, int offset, int step, int count) {
+        for (int i = 0; i < count; i++) {
+            add(cards[offset + i * step]);
+        }
+    }
+
+    /**
+     * Removes one card equal to the given card
+     *
+     * @param card the card to remove
+     * @return true if a card was removed, false if no such card is in hand
+     */
+    abstract boolean remove(Card card);
+
+    /**
+     * Checks if the hand holds a card equal to the given card
+     *
+     * @param card the card to look for
+     * @return true if the card is in hand
+     */
+    abstract boolean contains(Card card);
+
+    /**
+     * @return number of cards in hand
+     */
+    abstract int size();
+
+    /**
+     * @return the card with the highest value, or null if the hand is empty
+     */
+    abstract Card highest();
+
+    /**
+     * @return the card with the lowest value, or null if the hand is empty
+     */
+    abstract Card lowest();
+
+    /**
+     * Removes and returns the card {@link #highest()} would return
+     *
+     * @return the removed card, or null if the hand is empty
+     */
+    Card pollHighest() {
+        Card card = highest();
+        if (card != null) {
+            remove(card);
+        }
+        return card;
+    }
+
+    /**
+     * @param value the value to look for
+     * @return a new array holding every card in hand with that value, empty if there is none
+     */
+    abstract Card[] cardsOfValue(int value);
+
+    /**
+     * @return a new array holding every card in hand
+     */
+    abstract Card[] toArray();
+
+    /**
+     * Returns the card at a position, in the same order as {@link #toArray()}
+     *
+     * @param index position of the card, from 0 to size - 1
+     * @return the card at that position
+     */
+    abstract Card get(int index);
+
+    /**
+     * Calls the action for every card, in the same order as {@link #toArray()}, without copying anything
+     *
+     * @param action what to do with each card
+     */
+    abstract void forEach(Consumer<? super Card> action);
+
+    /**
+     * Goes through the hand by position, which only suits hands where {@link #get(int)} is O(1),
+     * the others walk their own storage
+     *
+     * @return a read only iterator over the cards, in the same order as {@link #toArray()}
+     */
+    Iterator<Card> iterator() {
+        return new Iterator<Card>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size();
+            }
+
+            @Override
+            public Card next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+
+    /**
+     * @return true if {@link #get(int)} is O(1), so the view can be marked {@link RandomAccess}
+     */
+    boolean isRandomAccess() {
+        return false;
+    }
+
+    /**
+     * Appends every card, in the same order as {@link #toArray()} and separated by ", ",
+     * without creating any string or copying the hand
+     *
+     * @param out where to append to
+     * @throws IOException if out fails
+     */
+    void appendTo(Appendable out) throws IOException {
+        for (int i = 0, n = size(); i < n; i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            get(i).appendTo(out);
+        }
+    }
+
+    /**
+     * Copies every card into an existing array, in the same order as {@link #toArray()}
+     *
+     * @param dest array to copy into, must have room for size cards from offset
+     * @param offset position in dest of the first card
+     */
+    void copyInto(Card[] dest, int offset) {
+        for (int i = 0, n = size(); i < n; i++) {
+            dest[offset + i] = get(i);
+        }
+    }
+
+    /**
+     * @return an unmodifiable list that always shows the current cards in hand, created once
+     */
+    List<Card> view() {
+        if (view == null) {
+            view = isRandomAccess() ? new RandomAccessView() : new View();
+        }
+        return view;
+    }
+
+    /**
+     * Read only list backed directly by the hand, iterating the way the hand stores its cards
+     */
+    private class View extends AbstractList<Card> {
+        @Override
+        public Card get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return Hand.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return Hand.this.size();
+        }
+
+        @Override
+        public Iterator<Card> iterator() {
+            return Hand.this.iterator();
+        }
+
+        @Override
+        public void forEach(Consumer<? super Card> action) {
+            Hand.this.forEach(action);
+        }
+    }
+
+    /**
+     * The view of a hand whose get is O(1)
+     */
+    private final class RandomAccessView extends View implements RandomAccess {
+    }
+
+    /**
+     * Removes every card from the hand
+     */
+    abstract void clear();
+
+    /**
+     * @return true if there is no card in hand
+     */
+    boolean isEmpty() {
+        return size() == 0;
+    }
+}
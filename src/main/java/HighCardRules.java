@@ -0,0 +1,101 @@
+/**
+ * High Card: every player is dealt a hand, and in each trick everyone plays their highest value card.
+ * The only highest card takes the trick and a point, a tie gives no point. The game is over as soon as
+ * any player's hand is empty.
+ * These are the rules {@link SelfPlayedGame} plays with 2 players and 5 cards each.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public class HighCardRules implements GameRules {
+    private final int handSize;
+
+    /**
+     * Creates the rules with 5 cards for each player
+     */
+    public HighCardRules() {
+        this(5);
+    }
+
+    /**
+     * Creates the rules with the given hand size
+     *
+     * @param handSize cards dealt to each player, one trick is played per card
+     * @throws IllegalArgumentException if handSize is not positive
+     */
+    public HighCardRules(int handSize) {
+        if (handSize <= 0) {
+            throw new IllegalArgumentException("Hand size must be positive, entered value: " + handSize);
+        }
+        this.handSize = handSize;
+    }
+
+    /**
+     * @return cards dealt to each player
+     */
+    public int getHandSize() {
+        return handSize;
+    }
+
+    /**
+     * Deals handSize cards to every seat in turn, fewer if the deck runs out
+     */
+    @Override
+    public void deal(TableState table) {
+        int cards = table.getPlayerCount() * handSize;
+        Player.deal(table.getDeck(), table.players(), handSize, table.dealBuffer(cards));
+    }
+
+    /**
+     * @return true once any player has run out of cards
+     */
+    @Override
+    public boolean isOver(TableState table) {
+        for (int seat = 0; seat < table.getPlayerCount(); seat++) {
+            if (table.getPlayer(seat).size() == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Card choosePlay(TableState table, int seat) {
+        return table.getPlayer(seat).pollHighestValueCard();
+    }
+
+    @Override
+    public int resolveTrick(TableState table) {
+        int winner = TIE;
+        int best = Integer.MIN_VALUE;
+        for (int seat = 0; seat < table.getPlayerCount(); seat++) {
+            int value = table.getPlayed(seat).getValue();
+            if (value > best) {
+                best = value;
+                winner = seat;
+            } else if (value == best) {
+                winner = TIE;
+            }
+        }
+        return winner;
+    }
+
+    /**
+     * One point to the trick's winner, nothing for a tie
+     */
+    @Override
+    public void score(TableState table, int winner) {
+        if (winner != TIE) {
+            table.addScore(winner, 1);
+        }
+    }
+
+    /**
+     * @return String in "High Card with {n} cards" format
+     */
+    @Override
+    public String toString() {
+        return "High Card with " + handSize + " cards";
+    }
+}
@@ -0,0 +1,224 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Plays a large number of High Card games (the game in {@link SelfPlayedGame}) without any console output,
+ * split over all cores with a fork/join pool. Every worker keeps its own game, deck and players and reuses them
+ * for all of its games, so the only allocation is one game per chunk of work.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public class HighCardSimulation {
+    // more chunks than threads, so a slow thread can have work stolen from it
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private HighCardSimulation() {
+    }
+
+    /**
+     * Aggregated results of many games
+     */
+    public static final class Result {
+        private long games;
+        private long player1Wins;
+        private long player2Wins;
+        private long ties;
+        // scoreCounts[a][b] = number of games that ended a - b
+        private final long[][] scoreCounts = new long[6][6];
+        private long nanos;
+
+        /**
+         * Records one finished game
+         *
+         * @param player1Score final score of player 1
+         * @param player2Score final score of player 2
+         */
+        private void record(int player1Score, int player2Score) {
+            games++;
+            if (player1Score > player2Score) {
+                player1Wins++;
+            } else if (player2Score > player1Score) {
+                player2Wins++;
+            } else {
+                ties++;
+            }
+            scoreCounts[player1Score][player2Score]++;
+        }
+
+        /**
+         * Adds another result into this one
+         *
+         * @param other result to add
+         * @return this result
+         */
+        private Result merge(Result other) {
+            games += other.games;
+            player1Wins += other.player1Wins;
+            player2Wins += other.player2Wins;
+            ties += other.ties;
+            for (int i = 0; i < scoreCounts.length; i++) {
+                for (int j = 0; j < scoreCounts[i].length; j++) {
+                    scoreCounts[i][j] += other.scoreCounts[i][j];
+                }
+            }
+            return this;
+        }
+
+        /**
+         * @return number of games played
+         */
+        public long getGames() {
+            return games;
+        }
+
+        /**
+         * @return number of games won by player 1
+         */
+        public long getPlayer1Wins() {
+            return player1Wins;
+        }
+
+        /**
+         * @return number of games won by player 2
+         */
+        public long getPlayer2Wins() {
+            return player2Wins;
+        }
+
+        /**
+         * @return number of tied games
+         */
+        public long getTies() {
+            return ties;
+        }
+
+        /**
+         * Returns how many games ended with the given score
+         *
+         * @param player1Score final score of player 1, 0 to 5
+         * @param player2Score final score of player 2, 0 to 5
+         * @return number of games that ended with that score
+         */
+        public long getScoreCount(int player1Score, int player2Score) {
+            return scoreCounts[player1Score][player2Score];
+        }
+
+        /**
+         * @return wall clock time of the run in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return games played per second
+         */
+        public double getGamesPerSecond() {
+            return nanos == 0 ? 0 : games * 1e9 / nanos;
+        }
+
+        /**
+         * @return summary of wins, ties, score distribution and throughput
+         */
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(512);
+            sb.append("Games: ").append(games).append('\n');
+            sb.append("Player 1 wins: ").append(player1Wins).append('\n');
+            sb.append("Player 2 wins: ").append(player2Wins).append('\n');
+            sb.append("Ties: ").append(ties).append('\n');
+            sb.append("Score distribution (player 1 - player 2):\n");
+            for (int i = 0; i < scoreCounts.length; i++) {
+                for (int j = 0; j < scoreCounts[i].length; j++) {
+                    if (scoreCounts[i][j] != 0) {
+                        sb.append("  ").append(i).append(" - ").append(j).append(": ").append(scoreCounts[i][j]).append('\n');
+                    }
+                }
+            }
+            sb.append(String.format("Throughput: %.0f games/s", getGamesPerSecond()));
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Plays the given number of games on all available cores
+     *
+     * @param games number of games to play
+     * @param seed seed for the shuffles, the same seed and thread count give the same result
+     * @return aggregated results
+     */
+    public static Result run(long games, long seed) {
+        return run(games, Runtime.getRuntime().availableProcessors(), seed);
+    }
+
+    /**
+     * Plays the given number of games on the given number of threads
+     *
+     * @param games number of games to play
+     * @param threads number of worker threads
+     * @param seed seed for the shuffles, the same seed and thread count give the same result
+     * @return aggregated results
+     * @throws IllegalArgumentException if games is negative or threads is not positive
+     */
+    public static Result run(long games, int threads, long seed) {
+        if (games < 0) {
+            throw new IllegalArgumentException("Number of games cannot be negative");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+
+        int chunks = threads * CHUNKS_PER_THREAD;
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Result result = pool.submit(() -> IntStream.range(0, chunks)
+                    .parallel()
+                    .mapToObj(chunk -> runChunk(games / chunks + (chunk < games % chunks ? 1 : 0), seed + chunk))
+                    .reduce(Result::merge)
+                    .orElseGet(Result::new)).get();
+            result.nanos = System.nanoTime() - start;
+            return result;
+        } catch (Exception e) {
+            throw new IllegalStateException("Simulation failed", e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays games one after another on a single reused game
+     *
+     * @param games number of games to play
+     * @param seed seed for this chunk's shuffles
+     * @return results of this chunk
+     */
+    private static Result runChunk(long games, long seed) {
+        Result result = new Result();
+        SelfPlayedGame game = new SelfPlayedGame("Player 1", "Player 2", ShuffleSource.xoroshiro(seed), GameListener.NONE);
+        game.setLazyShuffle(true);
+        for (long i = 0; i < games; i++) {
+            if (i > 0) {
+                game.reset();
+            }
+            game.playSilently();
+            result.record(game.getPlayer1Score(), game.getPlayer2Score());
+        }
+        return result;
+    }
+
+    /**
+     * Runs a simulation from the command line
+     *
+     * @param args optional number of games (default 10,000,000), threads (default all cores) and seed
+     */
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        System.out.println("Simulating " + games + " games on " + threads + " threads");
+        System.out.println(run(games, threads, seed));
+    }
+}
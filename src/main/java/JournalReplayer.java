@@ -0,0 +1,287 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Rebuilds the table of a journaled {@link SelfPlayedGame} at any event of a {@link GameJournal} file.
+ *
+ * A journaled seed recreates the game's deck and repeats its shuffles: the one made when the game is created
+ * and the one every {@link SelfPlayedGame#reset()} makes. Every card drawn is then checked
+ * against that deck, so a journal that does not match its seed is reported instead of replayed wrongly.
+ * Without a seed the hands, discard pile and scores are still rebuilt, but there is no deck.
+ * Player names and ages are not journaled, the seats are replayed as "Player 1" and "Player 2".
+ * Cards played go to the discard pile. The file is mapped in chunks like {@link GameJournal} writes it,
+ * so journals of any size can be opened.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public class JournalReplayer {
+    private static final int CHUNK_SIZE = GameJournal.CHUNK_RECORDS * GameJournal.RECORD_SIZE;
+
+    private final MappedByteBuffer[] chunks;
+    private final long eventCount;
+
+    // table after the first `applied` events
+    private long applied;
+    private Deck deck;
+    private Player[] players;
+    private DiscardPile discardPile;
+    private int[] scores;
+    private int round;
+
+    private JournalReplayer(MappedByteBuffer[] chunks, long eventCount) {
+        this.chunks = chunks;
+        this.eventCount = eventCount;
+        restart();
+    }
+
+    /**
+     * Maps a journal file, read only
+     *
+     * @param file the journal file
+     * @return a replayer standing before the first event
+     * @throws IllegalArgumentException if file is null or is not a journal of a known version
+     * @throws IOException if the file cannot be read
+     */
+    public static JournalReplayer open(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < GameJournal.HEADER_SIZE) {
+                throw new IllegalArgumentException("Not a game journal");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, GameJournal.HEADER_SIZE);
+            if (header.getInt() != GameJournal.MAGIC) {
+                throw new IllegalArgumentException("Not a game journal");
+            }
+            int version = header.getInt();
+            if (version != GameJournal.VERSION) {
+                throw new IllegalArgumentException("Unsupported game journal version: " + version);
+            }
+            long eventCount = (size - GameJournal.HEADER_SIZE) / GameJournal.RECORD_SIZE;
+            long length = eventCount * GameJournal.RECORD_SIZE;
+            MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((length + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i * CHUNK_SIZE;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, GameJournal.HEADER_SIZE + start,
+                        Math.min(CHUNK_SIZE, length - start));
+            }
+            return new JournalReplayer(chunks, written(chunks, eventCount));
+        }
+    }
+
+    /**
+     * Finds where the records end in a journal that was not closed, whose last chunk still has its zero filled tail.
+     * Type codes are never 0 and records are written in order, so the records end at the first zero type byte,
+     * and only the last chunk can hold it.
+     *
+     * @param chunks the mapped records
+     * @param eventCount number of record slots in the file
+     * @return number of records written
+     */
+    private static long written(MappedByteBuffer[] chunks, long eventCount) {
+        if (chunks.length == 0) {
+            return 0;
+        }
+        MappedByteBuffer last = chunks[chunks.length - 1];
+        long first = (long) (chunks.length - 1) * GameJournal.CHUNK_RECORDS;
+        // binary search for the first empty slot of the last chunk
+        int low = 0;
+        int high = (int) (eventCount - first);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (last.get(mid * GameJournal.RECORD_SIZE) == 0) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return first + low;
+    }
+
+    /**
+     * @return number of events in the journal, without the empty slots an unclosed journal ends with
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * @return number of events the current table has been rebuilt from
+     */
+    public long getOffset() {
+        return applied;
+    }
+
+    /**
+     * Returns the type of one event
+     *
+     * @param event index of the event, from 0
+     * @return the event's type
+     * @throws IllegalArgumentException if there is no such event or its type is unknown
+     */
+    public GameJournal.EventType getEventType(long event) {
+        if (event < 0 || event >= eventCount) {
+            throw new IllegalArgumentException("No event at offset " + event + ", journal has " + eventCount);
+        }
+        GameJournal.EventType type = GameJournal.EventType.of(chunk(event).get(position(event)));
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown event type at offset " + event);
+        }
+        return type;
+    }
+
+    /**
+     * Rebuilds the table as it was after the given number of events, moving forward from the current
+     * table when possible and replaying from the start otherwise
+     *
+     * @param offset number of events to apply, from 0 to {@link #getEventCount()}
+     * @throws IllegalArgumentException if offset is out of range
+     * @throws IllegalStateException if the journal does not match its seed or is corrupted
+     */
+    public void seek(long offset) {
+        if (offset < 0 || offset > eventCount) {
+            throw new IllegalArgumentException("Offset " + offset + " out of range, journal has " + eventCount + " events");
+        }
+        if (offset < applied) {
+            restart();
+        }
+        while (applied < offset) {
+            apply(applied);
+            applied++;
+        }
+    }
+
+    /**
+     * @return the deck at the current offset, or null if no seed has been journaled yet
+     */
+    public Deck getDeck() {
+        return deck;
+    }
+
+    /**
+     * @param seat seat of the player, 0 or 1
+     * @return the player at that seat at the current offset
+     */
+    public Player getPlayer(int seat) {
+        return players[seat];
+    }
+
+    /**
+     * @return the discard pile at the current offset
+     */
+    public DiscardPile getDiscardPile() {
+        return discardPile;
+    }
+
+    /**
+     * @param seat seat of the player, 0 or 1
+     * @return the player's score at the current offset
+     */
+    public int getScore(int seat) {
+        return scores[seat];
+    }
+
+    /**
+     * @return the last round scored at the current offset, 0 before the first round of a game
+     */
+    public int getRound() {
+        return round;
+    }
+
+    /**
+     * Goes back to the empty table before the first event
+     */
+    private void restart() {
+        applied = 0;
+        deck = null;
+        players = new Player[]{new Player("Player 1", 1), new Player("Player 2", 1)};
+        discardPile = new DiscardPile();
+        scores = new int[2];
+        round = 0;
+    }
+
+    /**
+     * @return the mapped chunk holding an event
+     */
+    private MappedByteBuffer chunk(long event) {
+        return chunks[(int) (event / GameJournal.CHUNK_RECORDS)];
+    }
+
+    /**
+     * @return position of an event in its chunk
+     */
+    private static int position(long event) {
+        return (int) (event % GameJournal.CHUNK_RECORDS) * GameJournal.RECORD_SIZE;
+    }
+
+    /**
+     * Applies one event to the table
+     *
+     * @param event index of the event
+     * @throws IllegalStateException if the record is corrupted or does not match the table
+     */
+    private void apply(long event) {
+        MappedByteBuffer chunk = chunk(event);
+        int position = position(event);
+        long header = chunk.getLong(position);
+        long value = chunk.getLong(position + 8);
+        GameJournal.EventType type = GameJournal.EventType.of((int) (header >>> 56));
+        int seat = (byte) (header >>> 48);
+        int card = (int) header;
+        // only round and game over records may have no seat (-1, a tie), only draw and play records have a card
+        boolean cardRecord = type == GameJournal.EventType.DRAW || type == GameJournal.EventType.PLAY;
+        if (type == null || seat < -1 || seat > 1 || seat == -1 && cardRecord
+                || cardRecord && (card < 0 || card >= Card.STANDARD_DECK_SIZE)) {
+            throw new IllegalStateException("Corrupted journal record at offset " + event);
+        }
+
+        switch (type) {
+            case SEED:
+                deck = Deck.standard(ShuffleSource.xoroshiro(value));
+                deck.shuffle();
+                break;
+            case RESET:
+                if (deck != null) {
+                    deck.reset();
+                    deck.shuffle();
+                }
+                players[0].clearHand();
+                players[1].clearHand();
+                scores[0] = 0;
+                scores[1] = 0;
+                break;
+            case GAME_START:
+                discardPile = new DiscardPile();
+                round = 0;
+                break;
+            case DRAW:
+                Card drawn = Card.standard(card);
+                if (deck != null && deck.draw() != drawn) {
+                    throw new IllegalStateException("Card drawn at offset " + event + " does not match the journaled seed");
+                }
+                players[seat].addToHand(drawn);
+                break;
+            case PLAY:
+                if (!players[seat].discardCard(Card.standard(card), discardPile)) {
+                    throw new IllegalStateException("Card played at offset " + event + " is not in the player's hand");
+                }
+                break;
+            case ROUND:
+                round = (short) (header >>> 32);
+                scores[0] = (int) (value >>> 32);
+                scores[1] = (int) value;
+                break;
+            default:
+                scores[0] = (int) (value >>> 32);
+                scores[1] = (int) value;
+                break;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * A hand kept in an array list, cards stay in the order they were added.
+ * Works for any card, standard or not.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+class ListHand extends Hand {
+    private final ArrayList<Card> cards = new ArrayList<>();
+
+    @Override
+    void add(Card card) {
+        cards.add(card);
+    }
+
+    @Override
+    void addAll(Card[] cards, int offset, int step, int count) {
+        this.cards.ensureCapacity(this.cards.size() + count);
+        super.addAll(cards, offset, step, count);
+    }
+
+    @Override
+    boolean remove(Card card) {
+        int index = indexOf(card);
+        if (index == -1) {
+            return false;
+        }
+        cards.remove(index);
+        return true;
+    }
+
+    @Override
+    boolean contains(Card card) {
+        return indexOf(card) != -1;
+    }
+
+    /**
+     * Finds the first matching card, checking identity before calling equals
+     *
+     * @param card card to look for
+     * @return index of the card, or -1 if not found
+     */
+    private int indexOf(Card card) {
+        for (int i = 0; i < cards.size(); i++) {
+            Card current = cards.get(i);
+            if (current == card || current.equals(card)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    int size() {
+        return cards.size();
+    }
+
+    /**
+     * @return the first card with the highest value, or null if the hand is empty
+     */
+    @Override
+    Card highest() {
+        int index = indexOfHighest();
+        return index == -1 ? null : cards.get(index);
+    }
+
+    /**
+     * Finds the highest card in a single pass and removes it by index
+     */
+    @Override
+    Card pollHighest() {
+        int index = indexOfHighest();
+        return index == -1 ? null : cards.remove(index);
+    }
+
+    /**
+     * @return index of the first card with the highest value, or -1 if the hand is empty
+     */
+    private int indexOfHighest() {
+        if (cards.isEmpty()) {
+            return -1;
+        }
+        int highest = 0;
+        for (int i = 1; i < cards.size(); i++) {
+            if (cards.get(i).getValue() > cards.get(highest).getValue()) {
+                highest = i;
+            }
+        }
+        return highest;
+    }
+
+    /**
+     * @return the first card with the lowest value, or null if the hand is empty
+     */
+    @Override
+    Card lowest() {
+        if (cards.isEmpty()) {
+            return null;
+        }
+        Card lowest = cards.get(0);
+        for (Card card : cards) {
+            if (card.getValue() < lowest.getValue()) {
+                lowest = card;
+            }
+        }
+        return lowest;
+    }
+
+    @Override
+    Card[] cardsOfValue(int value) {
+        int count = 0;
+        for (Card card : cards) {
+            if (card.getValue() == value) {
+                count++;
+            }
+        }
+        Card[] result = new Card[count];
+        int i = 0;
+        for (Card card : cards) {
+            if (card.getValue() == value) {
+                result[i++] = card;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    void clear() {
+        cards.clear();
+    }
+
+    @Override
+    Card[] toArray() {
+        return cards.toArray(new Card[0]);
+    }
+
+    @Override
+    Card get(int index) {
+        return cards.get(index);
+    }
+
+    @Override
+    boolean isRandomAccess() {
+        return true;
+    }
+
+    @Override
+    void forEach(Consumer<? super Card> action) {
+        for (int i = 0; i < cards.size(); i++) {
+            action.accept(cards.get(i));
+        }
+    }
+}
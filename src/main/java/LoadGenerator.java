@@ -0,0 +1,357 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+/**
+ * Plays High Card games against a {@link GameServer} over many connections at once and reports how it went.
+ *
+ * Every connection joins a table, then draws and plays games back to back: it plays its highest card each trick
+ * and sends one request at a time, waiting for the answer. All connections are driven by one selector thread,
+ * so the generator needs no more threads than the server to keep it busy. Latency is measured per request,
+ * from sending it to reading the first frame of its answer, in a histogram with buckets about 6% wide.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public class LoadGenerator {
+    private static final long STALL_NANOS = 30_000_000_000L;
+    private static final int BUFFER_SIZE = 1024;
+
+    private final Selector selector;
+    private final Histogram latency = new Histogram();
+    private final long games;
+    private long started;
+    private long finished;
+    private long requests;
+
+    private LoadGenerator(long games) throws IOException {
+        this.selector = Selector.open();
+        this.games = games;
+    }
+
+    /**
+     * What a run measured
+     */
+    public static final class Report {
+        private final long games;
+        private final long requests;
+        private final long nanos;
+        private final long p50;
+        private final long p99;
+
+        private Report(long games, long requests, long nanos, long p50, long p99) {
+            this.games = games;
+            this.requests = requests;
+            this.nanos = nanos;
+            this.p50 = p50;
+            this.p99 = p99;
+        }
+
+        /**
+         * @return number of games played to the end
+         */
+        public long getGames() {
+            return games;
+        }
+
+        /**
+         * @return number of requests answered
+         */
+        public long getRequests() {
+            return requests;
+        }
+
+        /**
+         * @return how long the run took, in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return median request latency, in nanoseconds
+         */
+        public long getP50Nanos() {
+            return p50;
+        }
+
+        /**
+         * @return 99th percentile request latency, in nanoseconds
+         */
+        public long getP99Nanos() {
+            return p99;
+        }
+
+        /**
+         * @return games finished per second
+         */
+        public double getGamesPerSecond() {
+            return nanos == 0 ? 0 : games * 1e9 / nanos;
+        }
+
+        /**
+         * @return String in "{games} games, {requests} requests in {ms} ms: ..." format
+         */
+        @Override
+        public String toString() {
+            return String.format("%d games, %d requests in %.1f ms: %.0f games/s, %.0f requests/s, "
+                            + "latency p50 %.1f us, p99 %.1f us",
+                    games, requests, nanos / 1e6, getGamesPerSecond(), nanos == 0 ? 0 : requests * 1e9 / nanos,
+                    p50 / 1e3, p99 / 1e3);
+        }
+    }
+
+    /**
+     * Plays games against a server until the given number are finished
+     *
+     * @param address the server
+     * @param connections number of connections, each playing its own table
+     * @param games number of games to play over all connections
+     * @return what was measured
+     * @throws IOException if a connection fails
+     * @throws IllegalArgumentException if address is null, or connections or games is not positive
+     * @throws IllegalStateException if the server stops answering for 30 seconds, answers with an error
+     *                               or breaks the protocol
+     */
+    public static Report run(InetSocketAddress address, int connections, long games) throws IOException {
+        if (address == null) {
+            throw new IllegalArgumentException("Address cannot be null");
+        }
+        if (connections <= 0 || games <= 0) {
+            throw new IllegalArgumentException("Connections and games must be positive");
+        }
+        LoadGenerator generator = new LoadGenerator(games);
+        try {
+            return generator.run(address, connections);
+        } finally {
+            for (SelectionKey key : generator.selector.keys()) {
+                key.channel().close();
+            }
+            generator.selector.close();
+        }
+    }
+
+    private Report run(InetSocketAddress address, int connections) throws IOException {
+        for (int i = 0; i < connections; i++) {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.connect(address);
+            channel.register(selector, SelectionKey.OP_CONNECT, new Client(channel, i));
+        }
+
+        long start = System.nanoTime();
+        long lastProgress = start;
+        long lastCount = 0;
+        while (finished < games) {
+            selector.select(1000);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                Client client = (Client) key.attachment();
+                if (key.isConnectable()) {
+                    client.channel.finishConnect();
+                    key.interestOps(SelectionKey.OP_READ);
+                    GameProtocol.join(client.out, "Load " + client.id);
+                    client.send();
+                } else if (key.isReadable()) {
+                    client.receive(key);
+                }
+            }
+            long now = System.nanoTime();
+            if (requests != lastCount) {
+                lastCount = requests;
+                lastProgress = now;
+            } else if (now - lastProgress > STALL_NANOS) {
+                throw new IllegalStateException("No answers for 30 s after " + finished + " games");
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        return new Report(finished, requests, nanos, latency.percentile(0.5), latency.percentile(0.99));
+    }
+
+    /**
+     * One connection: its buffers, the cards in its hand and when the request on the way was sent
+     */
+    private final class Client {
+        private final SocketChannel channel;
+        private final int id;
+        private final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+        private final ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+        // bit set of card ordinals in hand
+        private long hand;
+        private long sentAt;
+        private boolean answered;
+        private boolean done;
+
+        private Client(SocketChannel channel, int id) {
+            this.channel = channel;
+            this.id = id;
+        }
+
+        /**
+         * Writes the request in the output buffer, a blocking-style loop is fine for a few bytes
+         * on a socket that is not backed up, since only one request is ever on the way
+         */
+        private void send() throws IOException {
+            out.flip();
+            sentAt = System.nanoTime();
+            answered = false;
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            out.clear();
+        }
+
+        private void receive(SelectionKey key) throws IOException {
+            if (channel.read(in) < 0) {
+                throw new IllegalStateException("Server closed connection " + id);
+            }
+            in.flip();
+            int size;
+            while ((size = GameProtocol.frameSize(in)) > 0) {
+                int end = in.position() + size;
+                in.position(in.position() + GameProtocol.LENGTH_SIZE);
+                if (!answered) {
+                    answered = true;
+                    requests++;
+                    latency.record(System.nanoTime() - sentAt);
+                }
+                handle(in.get());
+                in.position(end);
+            }
+            in.compact();
+            if (done) {
+                key.cancel();
+                channel.close();
+            } else if (out.position() > 0) {
+                send();
+            }
+        }
+
+        /**
+         * Reads the rest of an answer frame and writes the next request, if the answer calls for one
+         */
+        private void handle(byte type) {
+            if (type == GameProtocol.JOINED || type == GameProtocol.GAME_OVER) {
+                if (type == GameProtocol.GAME_OVER) {
+                    finished++;
+                }
+                if (started == games) {
+                    done = true;
+                    return;
+                }
+                started++;
+                GameProtocol.draw(out);
+            } else if (type == GameProtocol.HAND) {
+                int count = in.get();
+                hand = 0;
+                for (int i = 0; i < count; i++) {
+                    hand |= 1L << in.get();
+                }
+                playHighest();
+            } else if (type == GameProtocol.TRICK) {
+                // the last trick is followed by GAME_OVER, which asks for the next game
+                if (hand != 0) {
+                    playHighest();
+                }
+            } else if (type == GameProtocol.ERROR) {
+                int code = in.get();
+                throw new IllegalStateException("Server answered error " + code + ": " + GameProtocol.getString(in));
+            } else {
+                throw new IllegalStateException("Unexpected answer type " + (type & 0xFF));
+            }
+        }
+
+        private void playHighest() {
+            // ordinals grow with value, so the highest bit is the highest card
+            int ordinal = 63 - Long.numberOfLeadingZeros(hand);
+            hand &= ~(1L << ordinal);
+            GameProtocol.play(out, Card.standard(ordinal));
+        }
+    }
+
+    /**
+     * Latency histogram: 16 buckets for each power of two, so every bucket is within about 6% of its values
+     */
+    private static final class Histogram {
+        private static final int SUB_BITS = 4;
+        private final long[] counts = new long[64 << SUB_BITS];
+        private long total;
+
+        private void record(long nanos) {
+            counts[bucket(Math.max(1, nanos))]++;
+            total++;
+        }
+
+        private static int bucket(long value) {
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            if (exponent < SUB_BITS) {
+                return (int) value;
+            }
+            int sub = (int) (value >>> (exponent - SUB_BITS)) & ((1 << SUB_BITS) - 1);
+            return (exponent - SUB_BITS + 1) << SUB_BITS | sub;
+        }
+
+        /**
+         * @return the upper end of the bucket holding the value at quantile q
+         */
+        private long percentile(double q) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(q * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= Math.max(1, rank)) {
+                    return upper(i);
+                }
+            }
+            return upper(counts.length - 1);
+        }
+
+        private static long upper(int bucket) {
+            if (bucket < 1 << SUB_BITS) {
+                return bucket;
+            }
+            int exponent = (bucket >>> SUB_BITS) + SUB_BITS - 1;
+            long sub = bucket & ((1 << SUB_BITS) - 1);
+            long low = (1L << exponent) | sub << (exponent - SUB_BITS);
+            return low + (1L << (exponent - SUB_BITS)) - 1;
+        }
+    }
+
+    /**
+     * Runs the load generator, against a server of its own on the loopback address unless one is given
+     *
+     * @param args optional connections (default 256), games (default 100,000), host and port
+     * @throws IOException if a connection fails
+     */
+    public static void main(String[] args) throws IOException {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        long games = args.length > 1 ? Long.parseLong(args[1]) : 100_000L;
+        if (args.length > 3) {
+            System.out.println(run(new InetSocketAddress(args[2], Integer.parseInt(args[3])), connections, games));
+            return;
+        }
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        try (GameServer server = new GameServer(0, threads)) {
+            server.start();
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+            // a short warm-up so the numbers are not mostly the JIT
+            run(address, connections, Math.min(games, 20_000));
+            Report report = run(address, connections, games);
+            System.out.println(connections + " connections, " + threads + " server selector threads");
+            System.out.println(report);
+        }
+    }
+}
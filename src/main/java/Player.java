@@ -1,4 +1,7 @@
-import java.util.*;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * The class that represents a player in the card game
@@ -10,7 +13,27 @@ import java.util.*;
 public class Player {
     private String name;
     private int age;
-    private List<Card> hand;
+    private Hand hand;
+    private HandType handType;
+
+    /**
+     * The ways a player's hand can be stored
+     */
+    public enum HandType {
+        /**
+         * Array list in the order the cards were added, works for any card (default)
+         */
+        LIST,
+        /**
+         * 64-bit mask over standard card ordinals, O(1) add/remove and no allocation.
+         * Non-standard or duplicate cards fall back to a list.
+         */
+        BITSET,
+        /**
+         * Buckets by card value, O(1) highest/lowest and removal of the highest card, for big hands
+         */
+        VALUE_ORDERED
+    }
 
     /**
      * Constructs a player with name, age, and cards in hand
@@ -21,10 +44,27 @@ public class Player {
      * @throws IllegalArgumentException if name is null/empty, or age is invalid, or hand is null
      */
     public Player(String name, int age, Card[] hand) {
+        this(name, age, hand, HandType.LIST);
+    }
+
+    /**
+     * Constructs a player with name, age, cards in hand, and the way the hand is stored
+     *
+     * @param name Player's name
+     * @param age Player's age
+     * @param hand Array of cards on player's hand
+     * @param handType How the hand is stored
+     * @throws IllegalArgumentException if name is null/empty, or age is invalid, or hand or handType is null
+     */
+    public Player(String name, int age, Card[] hand, HandType handType) {
         validatePlayerParameters(name, age, hand);
+        if (handType == null) {
+            throw new IllegalArgumentException("Hand type cannot be null");
+        }
         this.name = name;
         this.age = age;
-        this.hand = new ArrayList<>();
+        this.hand = createHand(handType);
+        this.handType = handType;
         if (hand != null) {
             for (Card card : hand) {
                 if (card != null) {
@@ -42,17 +82,36 @@ public class Player {
      * @return the most valuable card in player's hand, return null when there is nothing left in player's hand
      */
     public Card getHighestValueCard() {
-        //sp case
-        if (hand.isEmpty()) {
-            return null;
-        }
-        Card highest = hand.get(0);
-        for (Card card : hand) {
-            if (card.getValue() > highest.getValue()) {
-                highest = card;
-            }
-        }
-        return highest;
+        return hand.highest();
+    }
+
+    /**
+     * Get the lowest valued card on player's hand
+     *
+     * @return the least valuable card in player's hand, return null when there is nothing left in player's hand
+     */
+    public Card getLowestValueCard() {
+        return hand.lowest();
+    }
+
+    /**
+     * Remove the highest valued card from player's hand and return it, the same card
+     * {@link #getHighestValueCard()} would return, but found only once
+     *
+     * @return the removed card, return null when there is nothing left in player's hand
+     */
+    public Card pollHighestValueCard() {
+        return hand.pollHighest();
+    }
+
+    /**
+     * Get all cards of one value on player's hand
+     *
+     * @param value the value to look for
+     * @return array of the cards with that value, empty if there is none
+     */
+    public Card[] getCardsOfValue(int value) {
+        return hand.cardsOfValue(value);
     }
 
     /**
@@ -76,6 +135,23 @@ public class Player {
         this(name, age, new Card[0]);
     }
 
+    /**
+     * Creates the empty storage for a hand
+     *
+     * @param handType How the hand is stored
+     * @return the empty hand
+     */
+    private static Hand createHand(HandType handType) {
+        switch (handType) {
+            case BITSET:
+                return new BitsetHand();
+            case VALUE_ORDERED:
+                return new ValueOrderedHand();
+            default:
+                return new ListHand();
+        }
+    }
+
     /**
      * Validates a player's params
      *
@@ -115,12 +191,69 @@ public class Player {
     }
 
     /**
-     * Returns player's hand as an array of cards
+     * Returns player's hand as an array of cards.
+     * A list hand keeps the order cards were added, a bitset hand lists standard cards from lowest to highest,
+     * a value ordered hand lists cards from lowest to highest value.
      *
      * @return Player's hand as an array of cards
      */
     public Card[] getHand() {
-        return hand.toArray(new Card[0]);
+        return hand.toArray();
+    }
+
+    /**
+     * Returns a read only view of player's hand. It is created once and always shows the current cards,
+     * in the same order as {@link #getHand()}, so reading it never copies anything.
+     *
+     * @return unmodifiable live list of the cards in hand
+     */
+    public List<Card> getHandView() {
+        return hand.view();
+    }
+
+    /**
+     * Calls the action for every card in hand, in the same order as {@link #getHand()}, without copying the hand
+     *
+     * @param action what to do with each card
+     * @throws IllegalArgumentException if action is null
+     */
+    public void forEachCard(Consumer<? super Card> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        hand.forEach(action);
+    }
+
+    /**
+     * Copies the cards in hand into an array the caller owns, so the same buffer can be reused
+     *
+     * @param dest array to copy into
+     * @param offset position in dest of the first card
+     * @return number of cards copied
+     * @throws IllegalArgumentException if dest is null or does not have room for the whole hand from offset
+     */
+    public int copyInto(Card[] dest, int offset) {
+        validateCopyTarget(dest, offset, hand.size());
+        hand.copyInto(dest, offset);
+        return hand.size();
+    }
+
+    /**
+     * Validates the array a hand is copied into
+     *
+     * @param dest array to copy into
+     * @param offset position in dest of the first card
+     * @param count number of cards that will be copied
+     * @throws IllegalArgumentException if dest is null or too small, message "Destination array cannot be null" or "Destination array too small"
+     */
+    private static void validateCopyTarget(Card[] dest, int offset, int count) {
+        if (dest == null) {
+            throw new IllegalArgumentException("Destination array cannot be null");
+        }
+        if (offset < 0 || offset > dest.length - count) {
+            throw new IllegalArgumentException("Destination array too small: need " + count + " slots from offset " + offset
+                    + ", length is " + dest.length);
+        }
     }
 
     /**
@@ -132,6 +265,39 @@ public class Player {
         return hand.size();
     }
 
+    /**
+     * Removes every card from player's hand, used when a game is reset
+     */
+    void clearHand() {
+        hand.clear();
+    }
+
+    /**
+     * Replaces player's hand with the given cards, used when a game is restored from a snapshot
+     *
+     * @param cards the new hand, none of them null
+     */
+    void restoreHand(Card[] cards) {
+        hand.clear();
+        hand.addAll(cards, 0, 1, cards.length);
+    }
+
+    /**
+     * Puts one card into player's hand, used when a game is replayed from a journal
+     *
+     * @param card the card, never null
+     */
+    void addToHand(Card card) {
+        hand.add(card);
+    }
+
+    /**
+     * @return how player's hand is stored
+     */
+    HandType getHandType() {
+        return handType;
+    }
+
     /**
      * Draw a card from card deck and add it to player's hand array
      *
@@ -148,6 +314,77 @@ public class Player {
         }
     }
 
+    /**
+     * Draws up to n cards from the deck into player's hand in one go
+     *
+     * @param deck The deck to draw cards from
+     * @param n Number of cards to draw
+     * @return number of cards drawn, less than n if the deck runs out
+     * @throws IllegalArgumentException if card deck is null or n is negative
+     */
+    public int draw(Deck deck, int n) {
+        if (deck == null) {
+            throw new IllegalArgumentException("Deck cannot be null");
+        }
+        Card[] drawn = deck.draw(n);
+        hand.addAll(drawn, 0, 1, drawn.length);
+        return drawn.length;
+    }
+
+    /**
+     * Deals cards one at a time to each player in turn, like a dealer around a table,
+     * until every player has cardsEach more cards or the deck runs out.
+     * All cards are taken from the deck in a single bulk draw.
+     *
+     * @param deck The deck to deal from
+     * @param players The players to deal to, in dealing order
+     * @param cardsEach Number of cards each player should get
+     * @return number of cards dealt
+     * @throws IllegalArgumentException if deck or players or any player is null, or cardsEach is negative
+     */
+    public static int deal(Deck deck, Player[] players, int cardsEach) {
+        if (players == null) {
+            throw new IllegalArgumentException("Players array cannot be null");
+        }
+        if (cardsEach < 0) {
+            throw new IllegalArgumentException("Number of cards cannot be negative");
+        }
+        return deal(deck, players, cardsEach, new Card[players.length * cardsEach]);
+    }
+
+    /**
+     * Deals like {@link #deal(Deck, Player[], int)} through a buffer the caller keeps, so repeated deals allocate nothing
+     *
+     * @param deck The deck to deal from
+     * @param players The players to deal to, in dealing order
+     * @param cardsEach Number of cards each player should get
+     * @param buffer scratch array with room for players.length * cardsEach cards
+     * @return number of cards dealt
+     * @throws IllegalArgumentException if deck or players or any player is null, or cardsEach is negative
+     */
+    static int deal(Deck deck, Player[] players, int cardsEach, Card[] buffer) {
+        if (deck == null) {
+            throw new IllegalArgumentException("Deck cannot be null");
+        }
+        if (players == null) {
+            throw new IllegalArgumentException("Players array cannot be null");
+        }
+        for (Player player : players) {
+            if (player == null) {
+                throw new IllegalArgumentException("Player cannot be null");
+            }
+        }
+
+        int seats = players.length;
+        int dealt = deck.drawInto(buffer, 0, seats * cardsEach);
+        for (int seat = 0; seat < seats && seat < dealt; seat++) {
+            // the seat gets every seats-th card starting from its own position
+            players[seat].hand.addAll(buffer, seat, seats, (dealt - seat + seats - 1) / seats);
+        }
+        Arrays.fill(buffer, 0, dealt, null);
+        return dealt;
+    }
+
     /**
      * Discard a card from hand array to discard pile array
      *
@@ -164,9 +401,11 @@ public class Player {
         if (discardPile == null) {
             throw new IllegalArgumentException("Discard pile cannot be null");
         }
+        long start = GameMetrics.start();
         boolean removed = hand.remove(card);
         if (removed) {
             discardPile.addCard(card);
+            GameMetrics.stop(GameMetrics.Operation.DISCARD, start);
         }
         return removed;
     }
@@ -186,9 +425,11 @@ public class Player {
         if (deck == null) {
             throw new IllegalArgumentException("Deck cannot be null");
         }
+        long start = GameMetrics.start();
         boolean removed = hand.remove(card);
         if (removed) {
             deck.addCard(card);
+            GameMetrics.stop(GameMetrics.Operation.RETURN, start);
         }
         return removed;
     }
@@ -201,22 +442,64 @@ public class Player {
      */
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
+        return appendTo(new StringBuilder(name.length() + 16 + hand.size() * 20)).toString();
+    }
+
+    /**
+     * Appends the player in the same format as {@link #toString()}, without creating any string
+     * or copying the hand, so a reused builder can render many players
+     *
+     * @param sb the builder to append to
+     * @return sb
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
         sb.append(name).append(", ").append(age).append(", ");
+        try {
+            appendHand(sb);
+        } catch (IOException e) {
+            throw new IllegalStateException("StringBuilder cannot fail", e);
+        }
+        return sb;
+    }
+
+    /**
+     * Appends the player in the same format as {@link #toString()}, straight to out
+     * without creating any string or copying the hand
+     *
+     * @param out where to append to
+     * @return out
+     * @throws IOException if out fails
+     */
+    public Appendable appendTo(Appendable out) throws IOException {
+        if (out instanceof StringBuilder) {
+            return appendTo((StringBuilder) out);
+        }
+        out.append(name).append(", ");
+        appendDigits(out, age);
+        out.append(", ");
+        appendHand(out);
+        return out;
+    }
 
+    /**
+     * Appends the hand and the full stop
+     */
+    private void appendHand(Appendable out) throws IOException {
         if (hand.isEmpty()) {
-            sb.append("Empty hand.");
-        } else {
-            for (int i = 0; i < hand.size(); i++) {
-                sb.append(hand.get(i).toString());
-                if (i < hand.size() - 1) {
-                    sb.append(", ");
-                } else {
-                    sb.append(".");
-                }
-            }
+            out.append("Empty hand.");
+            return;
         }
+        hand.appendTo(out);
+        out.append('.');
+    }
 
-        return sb.toString();
+    /**
+     * Appends a number that is not negative one digit at a time
+     */
+    private static void appendDigits(Appendable out, int n) throws IOException {
+        if (n >= 10) {
+            appendDigits(out, n / 10);
+        }
+        out.append((char) ('0' + n % 10));
     }
 }
@@ -0,0 +1,477 @@
+/**
+ * Ranks poker hands of 5 to 7 standard cards with precomputed lookup tables, in the style of Cactus Kev's evaluator.
+ *
+ * Every card ordinal is packed once into an int: a bit for its rank (bits 16 to 28), a bit for its suit (12 to 15)
+ * and a prime for its rank (bits 0 to 7). A 5 card hand is then ranked with a few ANDs and ORs and one table read:
+ * <ul>
+ *     <li>flushes: the OR of the rank bits indexes a table of 8192 entries</li>
+ *     <li>five different ranks (straights and high cards): the same index into a second table</li>
+ *     <li>everything else: the product of the primes, unique to the multiset of ranks, is looked up
+ *     in an open addressing table of the 4888 paired hand classes</li>
+ * </ul>
+ * 7 card hands get tables of their own instead of trying all 21 subsets of 5. When 5 or more cards share a suit
+ * no full house or four of a kind is possible, so the hand is the best flush in that suit's ranks, read from a table
+ * by rank bits. Otherwise suits do not matter and the rank counts, packed as a base 5 number, are looked up
+ * in a table of all 49205 multisets of 7 ranks. 6 card hands are ranked as the best of their 5 card subsets.
+ *
+ * Ranks go from 1 (7-5-4-3-2 of mixed suits) to 7462 (a royal flush), one for each class of equal hands,
+ * so a higher rank is always a better hand and equal ranks tie. Aces are high, and low in the 5-4-3-2-A straight.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public final class PokerHandEvaluator {
+    /**
+     * Number of different hand ranks, the rank of a royal flush
+     */
+    public static final int RANK_COUNT = 7462;
+
+    private static final int RANKS = 13;
+    private static final int[] PRIMES = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41};
+    // rank bits of 5-4-3-2-A
+    private static final int WHEEL = 0x100F;
+    private static final int PRODUCT_BITS = 14;
+    private static final int SEVEN_BITS = 17;
+
+    // packed card of each standard ordinal
+    private static final int[] CARDS = new int[Card.STANDARD_DECK_SIZE];
+    // hand rank by the OR of the rank bits, for flushes and for five different ranks
+    private static final short[] FLUSHES = new short[1 << RANKS];
+    private static final short[] UNIQUE5 = new short[1 << RANKS];
+    // prime product to hand rank, for hands with a repeated rank
+    private static final int[] PRODUCT_KEYS = new int[1 << PRODUCT_BITS];
+    private static final short[] PRODUCT_RANKS = new short[1 << PRODUCT_BITS];
+    // for 7 cards: a 4 bit counter per suit, and 5 to the power of the rank so counts add up as base 5 digits
+    private static final int[] SUIT_COUNTERS = new int[Card.STANDARD_DECK_SIZE];
+    private static final int[] QUINARY = new int[Card.STANDARD_DECK_SIZE];
+    // best flush by the rank bits of the cards in the flush suit, 5 to 7 of them
+    private static final short[] FLUSH7 = new short[1 << RANKS];
+    // base 5 rank counts to hand rank, for 7 cards without a flush
+    private static final int[] SEVEN_KEYS = new int[1 << SEVEN_BITS];
+    private static final short[] SEVEN_RANKS = new short[1 << SEVEN_BITS];
+
+    /**
+     * Kinds of poker hands, from worst to best
+     */
+    public enum Category {
+        HIGH_CARD(1277), PAIR(2860), TWO_PAIR(858), THREE_OF_A_KIND(858), STRAIGHT(10),
+        FLUSH(1277), FULL_HOUSE(156), FOUR_OF_A_KIND(156), STRAIGHT_FLUSH(10);
+
+        private final int classes;
+        private int best;
+
+        Category(int classes) {
+            this.classes = classes;
+        }
+
+        /**
+         * @return number of different ranks in this category
+         */
+        public int getClasses() {
+            return classes;
+        }
+
+        /**
+         * @return the best rank in this category
+         */
+        public int getBest() {
+            return best;
+        }
+    }
+
+    static {
+        int best = 0;
+        for (Category category : Category.values()) {
+            best += category.classes;
+            category.best = best;
+        }
+
+        for (int ordinal = 0; ordinal < Card.STANDARD_DECK_SIZE; ordinal++) {
+            int value = ordinal / 4 + 1;
+            int rank = value == 1 ? RANKS - 1 : value - 2;
+            CARDS[ordinal] = 1 << (16 + rank) | 1 << (12 + ordinal % 4) | PRIMES[rank];
+            SUIT_COUNTERS[ordinal] = 1 << (4 * (ordinal % 4));
+            QUINARY[ordinal] = pow5(rank);
+        }
+        buildTables();
+        buildFlushSevenTable();
+        buildSevenCardTable(new int[RANKS], 0, 7);
+    }
+
+    private PokerHandEvaluator() {
+    }
+
+    /**
+     * Fills the tables with every hand class from worst to best, so ranks come out in order
+     */
+    private static void buildTables() {
+        int[] straights = new int[10];
+        straights[0] = WHEEL;
+        for (int i = 1; i < straights.length; i++) {
+            straights[i] = 0x1F << (i - 1);
+        }
+
+        int rank = 1;
+        for (int mask = 0; mask < 1 << RANKS; mask++) {
+            if (Integer.bitCount(mask) == 5 && !isStraight(mask)) {
+                UNIQUE5[mask] = (short) rank++;
+            }
+        }
+        for (int pair = 0; pair < RANKS; pair++) {
+            for (int kickers = 0; kickers < 1 << RANKS; kickers++) {
+                if (Integer.bitCount(kickers) == 3 && (kickers & 1 << pair) == 0) {
+                    putProduct(PRIMES[pair] * PRIMES[pair] * product(kickers), rank++);
+                }
+            }
+        }
+        for (int high = 1; high < RANKS; high++) {
+            for (int low = 0; low < high; low++) {
+                for (int kicker = 0; kicker < RANKS; kicker++) {
+                    if (kicker != high && kicker != low) {
+                        putProduct(PRIMES[high] * PRIMES[high] * PRIMES[low] * PRIMES[low] * PRIMES[kicker], rank++);
+                    }
+                }
+            }
+        }
+        for (int trips = 0; trips < RANKS; trips++) {
+            for (int kickers = 0; kickers < 1 << RANKS; kickers++) {
+                if (Integer.bitCount(kickers) == 2 && (kickers & 1 << trips) == 0) {
+                    putProduct(PRIMES[trips] * PRIMES[trips] * PRIMES[trips] * product(kickers), rank++);
+                }
+            }
+        }
+        for (int straight : straights) {
+            UNIQUE5[straight] = (short) rank++;
+        }
+        for (int mask = 0; mask < 1 << RANKS; mask++) {
+            if (Integer.bitCount(mask) == 5 && !isStraight(mask)) {
+                FLUSHES[mask] = (short) rank++;
+            }
+        }
+        for (int trips = 0; trips < RANKS; trips++) {
+            for (int pair = 0; pair < RANKS; pair++) {
+                if (pair != trips) {
+                    putProduct(PRIMES[trips] * PRIMES[trips] * PRIMES[trips] * PRIMES[pair] * PRIMES[pair], rank++);
+                }
+            }
+        }
+        for (int quads = 0; quads < RANKS; quads++) {
+            for (int kicker = 0; kicker < RANKS; kicker++) {
+                if (kicker != quads) {
+                    int p = PRIMES[quads];
+                    putProduct(p * p * p * p * PRIMES[kicker], rank++);
+                }
+            }
+        }
+        for (int straight : straights) {
+            FLUSHES[straight] = (short) rank++;
+        }
+        if (rank - 1 != RANK_COUNT) {
+            throw new IllegalStateException("Built " + (rank - 1) + " hand ranks instead of " + RANK_COUNT);
+        }
+    }
+
+    /**
+     * Fills FLUSH7 with the best flush among the 5 card subsets of every rank mask of 5 to 7 bits
+     */
+    private static void buildFlushSevenTable() {
+        for (int mask = 0; mask < 1 << RANKS; mask++) {
+            int bits = Integer.bitCount(mask);
+            if (bits < 5 || bits > 7) {
+                continue;
+            }
+            int best = 0;
+            for (int sub = mask; sub != 0; sub = (sub - 1) & mask) {
+                if (Integer.bitCount(sub) == 5) {
+                    best = Math.max(best, FLUSHES[sub]);
+                }
+            }
+            FLUSH7[mask] = (short) best;
+        }
+    }
+
+    /**
+     * Walks every multiset of 7 ranks, counts[0] to counts[rank - 1] already chosen, to fill the table of hands without a flush
+     *
+     * @param counts cards of each rank chosen so far
+     * @param rank next rank to choose a count for
+     * @param left cards still to place
+     */
+    private static void buildSevenCardTable(int[] counts, int rank, int left) {
+        if (rank == RANKS) {
+            if (left == 0) {
+                putSeven(counts);
+            }
+            return;
+        }
+        for (int count = 0; count <= Math.min(4, left); count++) {
+            counts[rank] = count;
+            buildSevenCardTable(counts, rank + 1, left - count);
+        }
+        counts[rank] = 0;
+    }
+
+    /**
+     * Ranks one multiset of 7 ranks, dealing suits in turn so no suit gets more than 2 cards
+     */
+    private static void putSeven(int[] counts) {
+        int[] cards = new int[7];
+        int key = 0;
+        int k = 0;
+        for (int rank = 0; rank < RANKS; rank++) {
+            for (int c = 0; c < counts[rank]; c++, k++) {
+                cards[k] = 1 << (16 + rank) | 1 << (12 + k % 4) | PRIMES[rank];
+            }
+            key += counts[rank] * pow5(rank);
+        }
+        int i = sevenSlot(key);
+        while (SEVEN_KEYS[i] != 0) {
+            i = (i + 1) & (SEVEN_KEYS.length - 1);
+        }
+        SEVEN_KEYS[i] = key;
+        SEVEN_RANKS[i] = (short) best(cards, 7);
+    }
+
+    private static int pow5(int exponent) {
+        int power = 1;
+        for (int i = 0; i < exponent; i++) {
+            power *= 5;
+        }
+        return power;
+    }
+
+    private static int sevenSlot(int key) {
+        return (key * 0x9E3779B1) >>> (32 - SEVEN_BITS);
+    }
+
+    private static boolean isStraight(int mask) {
+        return mask == WHEEL || mask == 0x1F << Integer.numberOfTrailingZeros(mask);
+    }
+
+    private static int product(int mask) {
+        int product = 1;
+        for (int r = 0; r < RANKS; r++) {
+            if ((mask & 1 << r) != 0) {
+                product *= PRIMES[r];
+            }
+        }
+        return product;
+    }
+
+    private static int slot(int product) {
+        return (product * 0x9E3779B1) >>> (32 - PRODUCT_BITS);
+    }
+
+    private static void putProduct(int product, int rank) {
+        int i = slot(product);
+        while (PRODUCT_KEYS[i] != 0) {
+            i = (i + 1) & (PRODUCT_KEYS.length - 1);
+        }
+        PRODUCT_KEYS[i] = product;
+        PRODUCT_RANKS[i] = (short) rank;
+    }
+
+    /**
+     * Ranks 5 packed cards
+     */
+    private static int rank5(int a, int b, int c, int d, int e) {
+        int index = (a | b | c | d | e) >>> 16;
+        if ((a & b & c & d & e & 0xF000) != 0) {
+            return FLUSHES[index];
+        }
+        int unique = UNIQUE5[index];
+        if (unique != 0) {
+            return unique;
+        }
+        int product = (a & 0xFF) * (b & 0xFF) * (c & 0xFF) * (d & 0xFF) * (e & 0xFF);
+        int i = slot(product);
+        while (PRODUCT_KEYS[i] != product) {
+            i = (i + 1) & (PRODUCT_KEYS.length - 1);
+        }
+        return PRODUCT_RANKS[i];
+    }
+
+    /**
+     * Ranks 5 cards given by ordinal, with no checks: the fast path for enumerations and simulations
+     *
+     * @param c0 ordinal of a standard card, see {@link Card#getOrdinal()}
+     * @param c1 ordinal of a standard card
+     * @param c2 ordinal of a standard card
+     * @param c3 ordinal of a standard card
+     * @param c4 ordinal of a standard card
+     * @return the hand rank, from 1 to {@link #RANK_COUNT}, meaningless if the ordinals are not 5 different cards
+     */
+    public static int evaluate(int c0, int c1, int c2, int c3, int c4) {
+        return rank5(CARDS[c0], CARDS[c1], CARDS[c2], CARDS[c3], CARDS[c4]);
+    }
+
+    /**
+     * Ranks the best 5 of 7 cards given by ordinal, with no checks
+     *
+     * @param c0 ordinal of a standard card, see {@link Card#getOrdinal()}
+     * @param c1 ordinal of a standard card
+     * @param c2 ordinal of a standard card
+     * @param c3 ordinal of a standard card
+     * @param c4 ordinal of a standard card
+     * @param c5 ordinal of a standard card
+     * @param c6 ordinal of a standard card
+     * @return the rank of the best 5 card hand, meaningless if the ordinals are not 7 different cards
+     */
+    public static int evaluate(int c0, int c1, int c2, int c3, int c4, int c5, int c6) {
+        int suits = SUIT_COUNTERS[c0] + SUIT_COUNTERS[c1] + SUIT_COUNTERS[c2] + SUIT_COUNTERS[c3]
+                + SUIT_COUNTERS[c4] + SUIT_COUNTERS[c5] + SUIT_COUNTERS[c6];
+        // a counter of 5 or more carries into its top bit when 3 is added
+        int flush = (suits + 0x3333) & 0x8888;
+        if (flush != 0) {
+            int suitBit = 1 << (12 + (Integer.numberOfTrailingZeros(flush) >>> 2));
+            return FLUSH7[flushRanks(CARDS[c0], suitBit) | flushRanks(CARDS[c1], suitBit) | flushRanks(CARDS[c2], suitBit)
+                    | flushRanks(CARDS[c3], suitBit) | flushRanks(CARDS[c4], suitBit) | flushRanks(CARDS[c5], suitBit)
+                    | flushRanks(CARDS[c6], suitBit)];
+        }
+        int key = QUINARY[c0] + QUINARY[c1] + QUINARY[c2] + QUINARY[c3] + QUINARY[c4] + QUINARY[c5] + QUINARY[c6];
+        int i = sevenSlot(key);
+        while (SEVEN_KEYS[i] != key) {
+            i = (i + 1) & (SEVEN_KEYS.length - 1);
+        }
+        return SEVEN_RANKS[i];
+    }
+
+    /**
+     * @return the rank bit of a packed card if it has the given suit bit, otherwise 0
+     */
+    private static int flushRanks(int card, int suitBit) {
+        return (card & suitBit) != 0 ? card >>> 16 : 0;
+    }
+
+    /**
+     * Ranks the best 5 cards of a hand of 5 to 7 standard cards
+     *
+     * @param cards the hand
+     * @return the hand rank, from 1 to {@link #RANK_COUNT}
+     * @throws IllegalArgumentException if cards is null, does not hold 5 to 7 cards,
+     *                                  or a card is null, not standard or appears twice
+     */
+    public static int evaluate(Card[] cards) {
+        if (cards == null) {
+            throw new IllegalArgumentException("Cards array cannot be null");
+        }
+        if (cards.length < 5 || cards.length > 7) {
+            throw new IllegalArgumentException("A poker hand has 5 to 7 cards, got: " + cards.length);
+        }
+        int[] ordinals = new int[cards.length];
+        long seen = 0;
+        for (int i = 0; i < cards.length; i++) {
+            Card card = cards[i];
+            if (card == null || card.getOrdinal() < 0) {
+                throw new IllegalArgumentException("Poker hands need standard cards, got: " + card);
+            }
+            long bit = 1L << card.getOrdinal();
+            if ((seen & bit) != 0) {
+                throw new IllegalArgumentException("Card appears twice: " + card);
+            }
+            seen |= bit;
+            ordinals[i] = card.getOrdinal();
+        }
+        int[] o = ordinals;
+        if (o.length == 7) {
+            return evaluate(o[0], o[1], o[2], o[3], o[4], o[5], o[6]);
+        }
+        int[] packed = new int[o.length];
+        for (int i = 0; i < o.length; i++) {
+            packed[i] = CARDS[o[i]];
+        }
+        return best(packed, o.length);
+    }
+
+    /**
+     * Ranks the best 5 cards of a player's hand
+     *
+     * @param player a player holding 5 to 7 standard cards
+     * @return the hand rank, from 1 to {@link #RANK_COUNT}
+     * @throws IllegalArgumentException if player is null or the hand is not a valid poker hand
+     */
+    public static int evaluate(Player player) {
+        if (player == null) {
+            throw new IllegalArgumentException("Player cannot be null");
+        }
+        return evaluate(player.getHand());
+    }
+
+    /**
+     * @param cards packed cards
+     * @param count number of cards, 5 to 7
+     * @return the best rank of any 5 of them, by trying every subset
+     */
+    private static int best(int[] cards, int count) {
+        if (count == 5) {
+            return rank5(cards[0], cards[1], cards[2], cards[3], cards[4]);
+        }
+        int best = 0;
+        for (int a = 0; a < count - 4; a++) {
+            for (int b = a + 1; b < count - 3; b++) {
+                for (int c = b + 1; c < count - 2; c++) {
+                    for (int d = c + 1; d < count - 1; d++) {
+                        for (int e = d + 1; e < count; e++) {
+                            best = Math.max(best, rank5(cards[a], cards[b], cards[c], cards[d], cards[e]));
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param rank a hand rank
+     * @return the kind of hand
+     * @throws IllegalArgumentException if rank is not from 1 to {@link #RANK_COUNT}
+     */
+    public static Category category(int rank) {
+        if (rank < 1 || rank > RANK_COUNT) {
+            throw new IllegalArgumentException("Hand rank must be from 1 to " + RANK_COUNT + ", entered value: " + rank);
+        }
+        for (Category category : Category.values()) {
+            if (rank <= category.best) {
+                return category;
+            }
+        }
+        throw new IllegalStateException("No category for rank " + rank);
+    }
+
+    /**
+     * Ranks every 5 card hand from a standard deck and reports how many there are of each kind and how fast it went
+     *
+     * @param args optional number of passes over all 2,598,960 hands (default 10)
+     */
+    public static void main(String[] args) {
+        int passes = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        long[] counts = new long[RANK_COUNT + 1];
+        long start = System.nanoTime();
+        for (int pass = 0; pass < passes; pass++) {
+            for (int a = 0; a < 48; a++) {
+                for (int b = a + 1; b < 49; b++) {
+                    for (int c = b + 1; c < 50; c++) {
+                        for (int d = c + 1; d < 51; d++) {
+                            for (int e = d + 1; e < 52; e++) {
+                                counts[evaluate(a, b, c, d, e)]++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        long nanos = System.nanoTime() - start;
+
+        long hands = 0;
+        for (Category category : Category.values()) {
+            long count = 0;
+            for (int rank = category.best - category.classes + 1; rank <= category.best; rank++) {
+                count += counts[rank];
+            }
+            hands += count;
+            System.out.printf("%-16s %9d%n", category, count / passes);
+        }
+        System.out.printf("%d hands in %.1f ms, %.0f million hands/s%n", hands, nanos / 1e6, hands * 1e3 / nanos);
+    }
+}
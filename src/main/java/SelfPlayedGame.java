@@ -4,6 +4,9 @@ import java.util.Scanner;
  * Represents a self-played card game where two players compete by playing
  * their highest value cards over 5 rounds, only username is inputted by the user
  *
+ * The game is {@link HighCardRules} played by a {@link GameEngine} on a two seat {@link TableState},
+ * with every step reported to a {@link GameListener}.
+ *
  * @author Shaoyang Chen
  * @version 114.514
  * @since 1919.8.10
@@ -12,23 +15,87 @@ public class SelfPlayedGame {
     private Deck deck;
     private Player player1;
     private Player player2;
-    private int player1Score;
-    private int player2Score;
+    private TableState table;
+    private GameEngine engine;
+    private Card player1Card;
+    private Card player2Card;
+    private GameListener listener;
 
     /**
      * Constructs a new SelfPlayedGame with two players.
      * Initializes a deck, and shuffles it, and then creates players with default age (1), and sets initial scores to zero.
+     * The game is printed to the console.
      *
      * @param player1Name the name of the first player
      * @param player2Name the name of the second player
      */
     public SelfPlayedGame(String player1Name, String player2Name) {
-        deck = new Deck();
+        this(player1Name, player2Name, ShuffleSource.random());
+    }
+
+    /**
+     * Constructs a new SelfPlayedGame with two players, shuffling with the given random source.
+     *
+     * @param player1Name the name of the first player
+     * @param player2Name the name of the second player
+     * @param random where the deck gets its random numbers from
+     */
+    public SelfPlayedGame(String player1Name, String player2Name, ShuffleSource random) {
+        this(player1Name, player2Name, random, new ConsoleGameListener());
+    }
+
+    /**
+     * Constructs a new SelfPlayedGame with two players, shuffling with the given random source
+     * and reporting the game to the given listener instead of the console.
+     *
+     * @param player1Name the name of the first player
+     * @param player2Name the name of the second player
+     * @param random where the deck gets its random numbers from
+     * @param listener receives the game's events, use {@link GameListener#NONE} for no output
+     * @throws IllegalArgumentException if listener is null
+     */
+    public SelfPlayedGame(String player1Name, String player2Name, ShuffleSource random, GameListener listener) {
+        setGameListener(listener);
+        deck = Deck.standard(random);
         deck.shuffle();
         player1 = new Player(player1Name, 1);
         player2 = new Player(player2Name, 1);
-        player1Score = 0;
-        player2Score = 0;
+        table = new TableState(deck, new Player[]{player1, player2});
+        engine = new GameEngine(new HighCardRules(), table);
+    }
+
+    /**
+     * Changes who receives the game's events
+     *
+     * @param listener receives the game's events, use {@link GameListener#NONE} for no output
+     * @throws IllegalArgumentException if listener is null
+     */
+    public void setGameListener(GameListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Game listener cannot be null");
+        }
+        this.listener = listener;
+    }
+
+    /**
+     * Makes every later shuffle of the game's deck lazy, see {@link Deck#setLazyShuffle(boolean)}.
+     * A game deals only 10 of the 52 cards, so only those are shuffled into place.
+     * The same seed then deals different games than with eager shuffles, and draws made outside
+     * {@link #playGame()} change later shuffles, so games recorded by a {@link GameJournal} should stay eager.
+     *
+     * @param lazyShuffle true to shuffle as cards are dealt
+     */
+    public void setLazyShuffle(boolean lazyShuffle) {
+        deck.setLazyShuffle(lazyShuffle);
+    }
+
+    /**
+     * Gets the game ready to be played again without creating anything new.
+     * The same deck is reset to all 52 cards and shuffled, both hands are emptied and scores go back to zero.
+     */
+    public void reset() {
+        table.reset();
+        listener.onGameReset();
     }
 
     /**
@@ -36,10 +103,7 @@ public class SelfPlayedGame {
      * If the deck doesn't have enough cards, the remaining draws will be null cards, and won't be added to players' hands.
      */
     public void drawCards() {
-        for (int i = 0; i < 5; i++) {
-            player1.draw(deck);
-            player2.draw(deck);
-        }
+        engine.getRules().deal(table);
     }
 
     /**
@@ -50,54 +114,110 @@ public class SelfPlayedGame {
      * @param round the current round number (for display purposes)
      */
     public void playRound(int round) {
-        System.out.println("\n--- Round " + round + " ---");
-        Card player1Card = player1.getHighestValueCard();
-        player1.removeCardFromHand(player1Card);
-        Card player2Card = player2.getHighestValueCard();
-        player2.removeCardFromHand(player2Card);
-        System.out.println(player1.getName() + " plays: " + player1Card + " (Value: " + player1Card.getValue() + ")");
-        System.out.println(player2.getName() + " plays: " + player2Card + " (Value: " + player2Card.getValue() + ")");
-        if (player1Card.getValue() > player2Card.getValue()) {
-            player1Score++;
-            System.out.println(player1.getName() + " wins this round!");
-        } else if (player2Card.getValue() > player1Card.getValue()) {
-            player2Score++;
-            System.out.println(player2.getName() + " wins this round!");
-        } else {
-            System.out.println("It's a tie! No points awarded.");
+        long start = GameMetrics.start();
+        listener.onRoundStarted(round);
+        int winner = resolveRound();
+        listener.onCardPlayed(player1, player1Card);
+        listener.onCardPlayed(player2, player2Card);
+        listener.onRoundWon(round, winner == 1 ? player1 : winner == 2 ? player2 : null,
+                player1, getPlayer1Score(), player2, getPlayer2Score());
+        GameMetrics.stop(GameMetrics.Operation.ROUND, start);
+    }
+
+    /**
+     * Both players play their highest value card and the round is scored, without printing anything.
+     * The engine puts the played cards on the discard pile, so a snapshot between rounds holds them.
+     *
+     * @return 1 if player 1 won the round, 2 if player 2 won, 0 for a tie
+     */
+    private int resolveRound() {
+        int winner = engine.playTrick();
+        player1Card = table.getPlayed(0);
+        player2Card = table.getPlayed(1);
+        return winner + 1;
+    }
+
+    /**
+     * Runs the complete card game without reporting any events, not even to the listener, for simulations.
+     * Call {@link #reset()} before playing the same game object again.
+     */
+    public void playSilently() {
+        engine.play();
+    }
+
+    /**
+     * Returns the first player's score
+     *
+     * @return number of rounds won by player 1
+     */
+    public int getPlayer1Score() {
+        return table.getScore(0);
+    }
+
+    /**
+     * Returns the second player's score
+     *
+     * @return number of rounds won by player 2
+     */
+    public int getPlayer2Score() {
+        return table.getScore(1);
+    }
+
+    /**
+     * Captures the deck order, the discard pile, both players and the scores, to be saved or sent
+     * with {@link TableSnapshot#write}.
+     * If the deck shuffles lazily this finishes its shuffle, taking the rest of its random numbers at once.
+     *
+     * @return snapshot of the game
+     */
+    public TableSnapshot snapshot() {
+        return TableSnapshot.of(deck, table.getDiscardPile(), table.players(), new int[]{getPlayer1Score(), getPlayer2Score()});
+    }
+
+    /**
+     * Puts the game back into the state of a snapshot: deck order, discard pile, hands and scores.
+     * Player names and ages stay as they are.
+     *
+     * @param snapshot snapshot taken from a game of two players
+     * @throws IllegalArgumentException if snapshot is null or does not hold exactly two players
+     */
+    public void restore(TableSnapshot snapshot) {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Snapshot cannot be null");
+        }
+        if (snapshot.getPlayerCount() != table.getPlayerCount()) {
+            throw new IllegalArgumentException("Snapshot holds " + snapshot.getPlayerCount() + " players, the game has " + table.getPlayerCount());
+        }
+        deck.restoreOrder(snapshot.getDeckCards());
+        DiscardPile discardPile = table.getDiscardPile();
+        discardPile.clear();
+        for (Card card : snapshot.getDiscardPileCards()) {
+            discardPile.addCard(card);
+        }
+        for (int i = 0; i < table.getPlayerCount(); i++) {
+            table.getPlayer(i).restoreHand(snapshot.getHand(i));
+            table.setScore(i, snapshot.getScore(i));
         }
-        System.out.println("Current Score: " + player1.getName() + " " + player1Score + " - " +
-                player2.getName() + " " + player2Score);
     }
 
     /**
-     * Displays the final results for scores on both sides.
+     * Displays the final results for scores on both sides, by passing them to the listener.
      * Shows each player's total score and displays the winner's name or a tie.
      */
     public void displayResults() {
-        System.out.println("\n****** FINAL RESULTS ******");
-        System.out.println(player1.getName() + ": " + player1Score + " points");
-        System.out.println(player2.getName() + ": " + player2Score + " points");
-        if (player1Score > player2Score) {
-            System.out.println(player1.getName() + " WINS THE GAME!");
-        } else if (player2Score > player1Score) {
-            System.out.println(player2.getName() + " WINS THE GAME!");
-        } else {
-            System.out.println("THE GAME IS A TIE!");
-        }
+        int seat = engine.getRules().winner(table);
+        Player winner = seat == GameRules.TIE ? null : table.getPlayer(seat);
+        listener.onGameOver(player1, getPlayer1Score(), player2, getPlayer2Score(), winner);
     }
 
     /**
      * Runs the complete card game.
-     * Draw cards, plays 5 rounds, and displays the final results.
+     * Draw cards, plays 5 rounds, and displays the final results, reporting every step to the listener.
      */
     public void playGame() {
-        System.out.println("Starting High Card Game!");
-        System.out.println("Players: " + player1.getName() + " vs " + player2.getName());
+        listener.onGameStarted(player1, player2);
         drawCards();
-        System.out.println("\nCards have been dealt:");
-        System.out.println(player1.getName() + "'s hand: " + player1);
-        System.out.println(player2.getName() + "'s hand: " + player2);
+        listener.onCardsDealt(player1, player2);
         for (int round = 1; round <= 5; round++) {
             playRound(round);
         }
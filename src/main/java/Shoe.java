@@ -0,0 +1,137 @@
+/**
+ * A dealing shoe made of several standard decks, with a cut card.
+ *
+ * The cut card is placed when the shoe is shuffled, so that the given fraction of the cards (the penetration)
+ * is dealt before it comes out. Once {@link #isCutCardReached()} is true the round can finish,
+ * and the shoe is refilled from the discard pile with {@link #refill(DiscardPile)}.
+ *
+ * All cards are the shared canonical instances, so an eight-deck shoe is a single array of 416 references
+ * to 52 card objects and nothing is allocated per card.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public class Shoe extends Deck {
+    private final int deckCount;
+    private final double penetration;
+    // the cut card is reached when this many cards or fewer are left
+    private int cutCardRemaining;
+
+    /**
+     * Creates a shuffled shoe
+     *
+     * @param deckCount number of standard decks in the shoe
+     * @param penetration fraction of the shoe dealt before the cut card, more than 0 and at most 1
+     * @throws IllegalArgumentException if deckCount is not positive or penetration is out of range
+     */
+    public Shoe(int deckCount, double penetration) {
+        this(deckCount, penetration, ShuffleSource.random());
+    }
+
+    /**
+     * Creates a shuffled shoe using the given random source
+     *
+     * @param deckCount number of standard decks in the shoe
+     * @param penetration fraction of the shoe dealt before the cut card, more than 0 and at most 1
+     * @param random Where shuffles get their random numbers from
+     * @throws IllegalArgumentException if deckCount is not positive, penetration is out of range or random is null
+     */
+    public Shoe(int deckCount, double penetration, ShuffleSource random) {
+        super(createCards(deckCount), random);
+        if (!(penetration > 0 && penetration <= 1)) {
+            throw new IllegalArgumentException("Penetration must be more than 0 and at most 1, entered value: " + penetration);
+        }
+        this.deckCount = deckCount;
+        this.penetration = penetration;
+        shuffle();
+    }
+
+    /**
+     * Lays out the cards of several standard decks one after another
+     *
+     * @param deckCount number of standard decks
+     * @return the cards
+     * @throws IllegalArgumentException if deckCount is not positive
+     */
+    private static Card[] createCards(int deckCount) {
+        if (deckCount <= 0) {
+            throw new IllegalArgumentException("Deck count must be positive, entered value: " + deckCount);
+        }
+        Card[] cards = new Card[deckCount * Card.STANDARD_DECK_SIZE];
+        for (int i = 0; i < deckCount; i++) {
+            System.arraycopy(Deck.STANDARD_ORDER, 0, cards, i * Card.STANDARD_DECK_SIZE, Card.STANDARD_DECK_SIZE);
+        }
+        return cards;
+    }
+
+    /**
+     * @return number of standard decks in the shoe
+     */
+    public int getDeckCount() {
+        return deckCount;
+    }
+
+    /**
+     * @return fraction of the shoe dealt before the cut card
+     */
+    public double getPenetration() {
+        return penetration;
+    }
+
+    /**
+     * @return true once the cut card has come out, meaning the shoe should be refilled after this round
+     */
+    public boolean isCutCardReached() {
+        return size() <= cutCardRemaining;
+    }
+
+    /**
+     * Shuffles the shoe and places the cut card again
+     *
+     * @param random Where this shuffle gets its random numbers from
+     */
+    @Override
+    public void shuffle(ShuffleSource random) {
+        super.shuffle(random);
+        placeCutCard();
+    }
+
+    /**
+     * Puts every card back in the shoe in its original order and places the cut card again for the full shoe
+     */
+    @Override
+    public void reset() {
+        super.reset();
+        placeCutCard();
+    }
+
+    /**
+     * Moves every card from the discard pile back into the shoe at random positions,
+     * see {@link #recycleFrom(DiscardPile)}, then places the cut card again. The pile is left empty.
+     *
+     * @param pile the discard pile to take the cards from
+     * @return number of cards moved back into the shoe
+     * @throws IllegalArgumentException if pile is null
+     */
+    public int refill(DiscardPile pile) {
+        int moved = recycleFrom(pile);
+        placeCutCard();
+        return moved;
+    }
+
+    /**
+     * Places the cut card for the cards now in the shoe
+     */
+    private void placeCutCard() {
+        cutCardRemaining = size() - (int) (size() * penetration);
+    }
+
+    /**
+     * @return String in "Shoe of {deckCount} decks with {size} cards" format
+     */
+    @Override
+    public String toString() {
+        return "Shoe of " + deckCount + " decks with " + size() + " cards";
+    }
+}
@@ -0,0 +1,349 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Checks that {@link Deck#shuffle()} with a given {@link ShuffleSource} is fair, and measures how fast it is,
+ * so a faster random source or shuffle can only be adopted with proof that it is still uniform.
+ *
+ * Three chi-square tests are run over many shuffles, split over a fork/join pool:
+ * <ul>
+ *     <li>position: how often each card of a standard deck ends up at each position, expected shuffles / 52 each</li>
+ *     <li>adjacency: how often each card directly follows each other card, expected shuffles / 52 for every ordered pair</li>
+ *     <li>permutation: how often each of the 120 orders of a 5 card deck comes up, expected shuffles / 120 each</li>
+ * </ul>
+ * Each statistic is turned into a z-score with the Wilson-Hilferty approximation. A fair shuffle stays within
+ * a few units of 0, a biased one grows without bound as the number of shuffles goes up.
+ * Throughput is measured separately, on shuffles that record nothing. Every shuffle there is followed by drawing
+ * the whole deck, so eager and lazy shuffles ({@link Deck#setLazyShuffle(boolean)}) are timed doing the same work.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public class ShuffleQuality {
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int DECK = Card.STANDARD_DECK_SIZE;
+    private static final int SMALL_DECK = 5;
+    private static final int PERMUTATIONS = 120;
+    // every card lands somewhere in every shuffle, so each of the 52 cards' rows is its own 51 df test:
+    // the position statistic averages 52 * 51, not the (52 - 1)^2 of an independent contingency table
+    private static final int POSITION_DF = DECK * (DECK - 1);
+    // a card is followed by 51 others and 51 of the 52 are followed in a shuffle: each of the 52 * 51 pairs
+    // counts with chance 1 / 52 per shuffle, so the statistic averages 52 * 51 * 51 / 52 = 51 * 51
+    private static final int ADJACENCY_DF = (DECK - 1) * (DECK - 1);
+
+    private ShuffleQuality() {
+    }
+
+    /**
+     * Statistics and throughput of one run
+     */
+    public static final class Result {
+        private long shuffles;
+        // positions[card * DECK + position]
+        private final long[] positions = new long[DECK * DECK];
+        // follows[card * DECK + next card]
+        private final long[] follows = new long[DECK * DECK];
+        private final long[] permutations = new long[PERMUTATIONS];
+        private long throughputNanos;
+
+        private Result merge(Result other) {
+            shuffles += other.shuffles;
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] += other.positions[i];
+                follows[i] += other.follows[i];
+            }
+            for (int i = 0; i < PERMUTATIONS; i++) {
+                permutations[i] += other.permutations[i];
+            }
+            return this;
+        }
+
+        /**
+         * @return number of shuffles behind each test
+         */
+        public long getShuffles() {
+            return shuffles;
+        }
+
+        /**
+         * @return chi-square statistic of card positions, 52 * 51 degrees of freedom
+         *         (52 cards, each spread over 52 positions)
+         */
+        public double getPositionChiSquare() {
+            double expected = (double) shuffles / DECK;
+            return chiSquare(positions, expected, -1);
+        }
+
+        /**
+         * @return chi-square statistic of adjacent pairs, 51 * 51 degrees of freedom
+         */
+        public double getAdjacencyChiSquare() {
+            double expected = (double) shuffles / DECK;
+            return chiSquare(follows, expected, DECK + 1);
+        }
+
+        /**
+         * @return chi-square statistic of the orders of a 5 card deck, 119 degrees of freedom
+         */
+        public double getPermutationChiSquare() {
+            return chiSquare(permutations, (double) shuffles / PERMUTATIONS, -1);
+        }
+
+        /**
+         * @return z-score of the position test
+         */
+        public double getPositionZ() {
+            return zScore(getPositionChiSquare(), POSITION_DF);
+        }
+
+        /**
+         * @return z-score of the adjacency test
+         */
+        public double getAdjacencyZ() {
+            return zScore(getAdjacencyChiSquare(), ADJACENCY_DF);
+        }
+
+        /**
+         * @return z-score of the permutation test
+         */
+        public double getPermutationZ() {
+            return zScore(getPermutationChiSquare(), PERMUTATIONS - 1);
+        }
+
+        /**
+         * @param maxZ largest z-score still accepted, 5 lets a fair shuffle fail about once in a few million runs
+         * @return true if every test is within maxZ
+         */
+        public boolean isFair(double maxZ) {
+            return Math.abs(getPositionZ()) <= maxZ && Math.abs(getAdjacencyZ()) <= maxZ && Math.abs(getPermutationZ()) <= maxZ;
+        }
+
+        /**
+         * @return shuffles of a standard deck per second, over all threads
+         */
+        public double getShufflesPerSecond() {
+            return throughputNanos == 0 ? 0 : shuffles * 1e9 / throughputNanos;
+        }
+
+        /**
+         * @return all statistics and the throughput
+         */
+        @Override
+        public String toString() {
+            return String.format("Shuffles: %d%n"
+                            + "Position    chi2 %12.1f  df %5d  z %7.2f%n"
+                            + "Adjacency   chi2 %12.1f  df %5d  z %7.2f%n"
+                            + "Permutation chi2 %12.1f  df %5d  z %7.2f%n"
+                            + "Throughput: %.0f shuffles/s",
+                    shuffles,
+                    getPositionChiSquare(), POSITION_DF, getPositionZ(),
+                    getAdjacencyChiSquare(), ADJACENCY_DF, getAdjacencyZ(),
+                    getPermutationChiSquare(), PERMUTATIONS - 1, getPermutationZ(),
+                    getShufflesPerSecond());
+        }
+    }
+
+    /**
+     * Sum of (observed - expected)^2 / expected
+     *
+     * @param observed the counts
+     * @param expected expected count of every cell
+     * @param skipEvery skip every cell whose index is a multiple of this (the diagonal of a square table), -1 for none
+     * @return the statistic
+     */
+    private static double chiSquare(long[] observed, double expected, int skipEvery) {
+        if (expected == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < observed.length; i++) {
+            if (skipEvery > 0 && i % skipEvery == 0) {
+                continue;
+            }
+            double d = observed[i] - expected;
+            sum += d * d / expected;
+        }
+        return sum;
+    }
+
+    /**
+     * Wilson-Hilferty: (chi2 / df)^(1/3) is close to normal with mean 1 - 2 / (9 df) and variance 2 / (9 df)
+     *
+     * @param chiSquare the statistic
+     * @param df degrees of freedom
+     * @return the z-score
+     */
+    static double zScore(double chiSquare, int df) {
+        double v = 2.0 / (9 * df);
+        return (Math.cbrt(chiSquare / df) - (1 - v)) / Math.sqrt(v);
+    }
+
+    /**
+     * Runs every test on all available cores
+     *
+     * @param sources creates the source under test from a seed
+     * @param shuffles number of shuffles for each test
+     * @param seed seed of the first chunk, the same seed and thread count give the same statistics
+     * @return the statistics and throughput
+     */
+    public static Result run(LongFunction<ShuffleSource> sources, long shuffles, long seed) {
+        return run(sources, shuffles, Runtime.getRuntime().availableProcessors(), seed);
+    }
+
+    /**
+     * Runs every test on the given number of threads
+     *
+     * @param sources creates the source under test from a seed
+     * @param shuffles number of shuffles for each test
+     * @param threads number of worker threads
+     * @param seed seed of the first chunk, the same seed and thread count give the same statistics
+     * @return the statistics and throughput
+     * @throws IllegalArgumentException if sources is null, shuffles is negative or threads is not positive
+     */
+    public static Result run(LongFunction<ShuffleSource> sources, long shuffles, int threads, long seed) {
+        return run(sources, shuffles, threads, seed, false);
+    }
+
+    /**
+     * Runs every test on the given number of threads, with eager or lazy shuffles
+     *
+     * @param sources creates the source under test from a seed
+     * @param shuffles number of shuffles for each test
+     * @param threads number of worker threads
+     * @param seed seed of the first chunk, the same seed and thread count give the same statistics
+     * @param lazyShuffle true to test decks that shuffle as cards are drawn
+     * @return the statistics and throughput
+     * @throws IllegalArgumentException if sources is null, shuffles is negative or threads is not positive
+     */
+    public static Result run(LongFunction<ShuffleSource> sources, long shuffles, int threads, long seed, boolean lazyShuffle) {
+        if (sources == null) {
+            throw new IllegalArgumentException("Shuffle source factory cannot be null");
+        }
+        if (shuffles < 0) {
+            throw new IllegalArgumentException("Number of shuffles cannot be negative");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+
+        int chunks = threads * CHUNKS_PER_THREAD;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long start = System.nanoTime();
+            pool.submit(() -> IntStream.range(0, chunks).parallel()
+                    .forEach(chunk -> shuffleOnly(sources.apply(seed + chunk), share(shuffles, chunks, chunk), lazyShuffle))).get();
+            long throughputNanos = System.nanoTime() - start;
+
+            Result result = pool.submit(() -> IntStream.range(0, chunks)
+                    .parallel()
+                    .mapToObj(chunk -> runChunk(sources.apply(seed + chunk), share(shuffles, chunks, chunk), lazyShuffle))
+                    .reduce(Result::merge)
+                    .orElseGet(Result::new)).get();
+            result.throughputNanos = throughputNanos;
+            return result;
+        } catch (Exception e) {
+            throw new IllegalStateException("Shuffle quality run failed", e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static long share(long shuffles, int chunks, int chunk) {
+        return shuffles / chunks + (chunk < shuffles % chunks ? 1 : 0);
+    }
+
+    /**
+     * Shuffles and draws a standard deck over and over, recording nothing
+     */
+    private static void shuffleOnly(ShuffleSource random, long shuffles, boolean lazyShuffle) {
+        Deck deck = Deck.standard(random);
+        deck.setLazyShuffle(lazyShuffle);
+        Card[] order = new Card[DECK];
+        for (long i = 0; i < shuffles; i++) {
+            deck.reset();
+            deck.shuffle();
+            deck.drawInto(order, 0, DECK);
+        }
+    }
+
+    /**
+     * Runs all three tests on a chunk of shuffles
+     */
+    private static Result runChunk(ShuffleSource random, long shuffles, boolean lazyShuffle) {
+        Result result = new Result();
+        result.shuffles = shuffles;
+
+        Deck deck = Deck.standard(random);
+        deck.setLazyShuffle(lazyShuffle);
+        Card[] order = new Card[DECK];
+        for (long i = 0; i < shuffles; i++) {
+            deck.reset();
+            deck.shuffle();
+            deck.drawInto(order, 0, DECK);
+            int previous = -1;
+            for (int position = 0; position < DECK; position++) {
+                int card = order[position].getOrdinal();
+                result.positions[card * DECK + position]++;
+                if (previous >= 0) {
+                    result.follows[previous * DECK + card]++;
+                }
+                previous = card;
+            }
+        }
+
+        Card[] small = new Card[SMALL_DECK];
+        for (int i = 0; i < SMALL_DECK; i++) {
+            small[i] = Card.standard(i);
+        }
+        Deck smallDeck = new Deck(small, random);
+        smallDeck.setLazyShuffle(lazyShuffle);
+        Card[] smallOrder = new Card[SMALL_DECK];
+        for (long i = 0; i < shuffles; i++) {
+            smallDeck.reset();
+            smallDeck.shuffle();
+            smallDeck.drawInto(smallOrder, 0, SMALL_DECK);
+            result.permutations[rank(smallOrder)]++;
+        }
+        return result;
+    }
+
+    /**
+     * Lehmer code of an order of the cards with ordinals 0 to 4
+     *
+     * @param order the cards
+     * @return a number from 0 to 119, different for every order
+     */
+    private static int rank(Card[] order) {
+        int rank = 0;
+        for (int i = 0; i < SMALL_DECK; i++) {
+            int smaller = 0;
+            for (int j = i + 1; j < SMALL_DECK; j++) {
+                if (order[j].getOrdinal() < order[i].getOrdinal()) {
+                    smaller++;
+                }
+            }
+            rank = rank * (SMALL_DECK - i) + smaller;
+        }
+        return rank;
+    }
+
+    /**
+     * Tests the built-in sources from the command line
+     *
+     * @param args optional number of shuffles (default 1,000,000), threads (default all cores) and seed
+     */
+    public static void main(String[] args) {
+        long shuffles = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        System.out.println("SplittableRandom (seeded):");
+        System.out.println(run(ShuffleSource::seeded, shuffles, threads, seed));
+        System.out.println("\nxoroshiro128++:");
+        System.out.println(run(ShuffleSource::xoroshiro, shuffles, threads, seed));
+        System.out.println("\nxoroshiro128++, lazy shuffle:");
+        System.out.println(run(ShuffleSource::xoroshiro, shuffles, threads, seed, true));
+    }
+}
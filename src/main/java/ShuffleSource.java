@@ -0,0 +1,73 @@
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Where a deck gets its random numbers from when shuffling.
+ * Pick a fast source for throughput, or a seeded one when a shuffle has to be repeated exactly (tests, replays).
+ *
+ * Sources other than {@link #threadLocal()} are not thread safe, give each thread its own.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public interface ShuffleSource {
+
+    /**
+     * Returns a uniformly random number from 0 (inclusive) to bound (exclusive)
+     *
+     * @param bound upper bound, must be positive
+     * @return random number in [0, bound)
+     */
+    int nextInt(int bound);
+
+    /**
+     * @return a source backed by a new java.util.Random, the same as a deck used before sources existed
+     */
+    static ShuffleSource random() {
+        Random random = new Random();
+        return random::nextInt;
+    }
+
+    /**
+     * @return a source backed by a new SplittableRandom, faster than Random since it has no atomic seed update
+     */
+    static ShuffleSource splittable() {
+        SplittableRandom random = new SplittableRandom();
+        return random::nextInt;
+    }
+
+    /**
+     * @return a source using the calling thread's ThreadLocalRandom, safe to share between threads
+     */
+    static ShuffleSource threadLocal() {
+        return bound -> ThreadLocalRandom.current().nextInt(bound);
+    }
+
+    /**
+     * @return a xoroshiro128++ source with a random seed, the fastest option
+     */
+    static ShuffleSource xoroshiro() {
+        return new XoroshiroShuffleSource(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * @param seed the seed, the same seed always gives the same numbers
+     * @return a xoroshiro128++ source with the given seed
+     */
+    static ShuffleSource xoroshiro(long seed) {
+        return new XoroshiroShuffleSource(seed);
+    }
+
+    /**
+     * Deterministic source, the same seed always gives the same shuffles on every JVM
+     *
+     * @param seed the seed
+     * @return a source backed by a SplittableRandom with the given seed
+     */
+    static ShuffleSource seeded(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        return random::nextInt;
+    }
+}
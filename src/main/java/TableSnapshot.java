@@ -0,0 +1,630 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable copy of everything on a table: the deck order, the discard pile, every player's name, age and hand,
+ * and the scores. It can be written to and read from a compact binary format, so tables can be checkpointed
+ * or moved between processes.
+ *
+ * Format, version 1, all numbers big-endian:
+ * <pre>
+ * int     magic "TBLS"
+ * byte    version
+ * ushort  number of custom cards, then for each: string name, string suit, int value
+ * int     deck size, then the deck cards from the bottom to the top card
+ * int     discard pile size, then the cards in the order they were discarded
+ * ushort  number of players, then for each: string name, int age, byte hand type, int score,
+ *         int hand size, then the hand cards
+ * </pre>
+ * A card is one byte: its ordinal (0 to 51) for a standard card, or 0xFF followed by a ushort index into
+ * the custom card list. A string is a ushort byte length followed by UTF-8 bytes.
+ *
+ * Snapshots are written back to back and a file of them is mapped a window at a time, so it can hold millions
+ * of tables and grow past 2 GB, see {@link #writeAll(Path, List)}. {@link #index(Path)} only walks the file
+ * to note where each table starts, creating no cards, and decodes a table when it is asked for.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public final class TableSnapshot {
+    // "TBLS"
+    private static final int MAGIC = 0x54424C53;
+    /**
+     * Version of the format written by this class
+     */
+    public static final byte VERSION = 1;
+    // card byte that is followed by an index into the custom card list
+    private static final int CUSTOM_CARD = 0xFF;
+    private static final int MAX_COUNT = 0xFFFF;
+    private static final Player.HandType[] HAND_TYPES = Player.HandType.values();
+    // bytes of a file mapped at a time, a window grows only for a table bigger than this
+    private static final int WINDOW_SIZE = 64 << 20;
+
+    private final Card[] deck;
+    private final Card[] discardPile;
+    private final String[] names;
+    private final int[] ages;
+    private final Player.HandType[] handTypes;
+    private final int[] scores;
+    private final Card[][] hands;
+    // custom cards in the order they are written, and their index
+    private final Map<Card, Integer> catalog = new LinkedHashMap<>();
+    private int encodedSize = -1;
+
+    private TableSnapshot(Card[] deck, Card[] discardPile, String[] names, int[] ages,
+                          Player.HandType[] handTypes, int[] scores, Card[][] hands) {
+        this.deck = deck;
+        this.discardPile = discardPile;
+        this.names = names;
+        this.ages = ages;
+        this.handTypes = handTypes;
+        this.scores = scores;
+        this.hands = hands;
+
+        if (names.length > MAX_COUNT) {
+            throw new IllegalArgumentException("Too many players for a snapshot: " + names.length);
+        }
+        addToCatalog(deck);
+        addToCatalog(discardPile);
+        for (Card[] hand : hands) {
+            addToCatalog(hand);
+        }
+    }
+
+    /**
+     * Captures the state of a table
+     *
+     * @param deck the deck
+     * @param discardPile the discard pile
+     * @param players the players, in seating order
+     * @param scores the score of each player, same order as players
+     * @return snapshot of the table
+     * @throws IllegalArgumentException if any argument or player is null, or there is not one score per player
+     */
+    public static TableSnapshot of(Deck deck, DiscardPile discardPile, Player[] players, int[] scores) {
+        if (deck == null) {
+            throw new IllegalArgumentException("Deck cannot be null");
+        }
+        if (discardPile == null) {
+            throw new IllegalArgumentException("Discard pile cannot be null");
+        }
+        if (players == null) {
+            throw new IllegalArgumentException("Players array cannot be null");
+        }
+        if (scores == null || scores.length != players.length) {
+            throw new IllegalArgumentException("There must be one score per player");
+        }
+
+        int count = players.length;
+        String[] names = new String[count];
+        int[] ages = new int[count];
+        Player.HandType[] handTypes = new Player.HandType[count];
+        Card[][] hands = new Card[count][];
+        for (int i = 0; i < count; i++) {
+            Player player = players[i];
+            if (player == null) {
+                throw new IllegalArgumentException("Player cannot be null");
+            }
+            names[i] = player.getName();
+            ages[i] = player.getAge();
+            handTypes[i] = player.getHandType();
+            hands[i] = player.getHand();
+        }
+        return new TableSnapshot(deck.toArray(), discardPile.getDiscardPile(), names, ages, handTypes, scores.clone(), hands);
+    }
+
+    /**
+     * Gives every custom card that is not in the catalog yet the next index
+     *
+     * @param cards cards to look through
+     */
+    private void addToCatalog(Card[] cards) {
+        for (Card card : cards) {
+            if (card.getOrdinal() < 0 && !catalog.containsKey(card)) {
+                if (catalog.size() == MAX_COUNT) {
+                    throw new IllegalArgumentException("Too many custom cards for a snapshot");
+                }
+                catalog.put(card, catalog.size());
+            }
+        }
+    }
+
+    /**
+     * @return a new array holding the deck cards from the bottom to the top card
+     */
+    public Card[] getDeckCards() {
+        return deck.clone();
+    }
+
+    /**
+     * @return a new array holding the discard pile in the order the cards were discarded
+     */
+    public Card[] getDiscardPileCards() {
+        return discardPile.clone();
+    }
+
+    /**
+     * @return number of players at the table
+     */
+    public int getPlayerCount() {
+        return names.length;
+    }
+
+    /**
+     * @param player seat of the player, from 0
+     * @return the player's name
+     */
+    public String getName(int player) {
+        return names[player];
+    }
+
+    /**
+     * @param player seat of the player, from 0
+     * @return the player's age
+     */
+    public int getAge(int player) {
+        return ages[player];
+    }
+
+    /**
+     * @param player seat of the player, from 0
+     * @return the player's score
+     */
+    public int getScore(int player) {
+        return scores[player];
+    }
+
+    /**
+     * @param player seat of the player, from 0
+     * @return a new array holding the player's hand
+     */
+    public Card[] getHand(int player) {
+        return hands[player].clone();
+    }
+
+    /**
+     * Creates a deck holding the snapshot's deck cards in the same order
+     *
+     * @param random Where shuffles of the new deck get their random numbers from
+     * @return the new deck
+     * @throws IllegalArgumentException if random source is null
+     */
+    public Deck restoreDeck(ShuffleSource random) {
+        return new Deck(deck, random);
+    }
+
+    /**
+     * @return a new discard pile holding the snapshot's discarded cards in the same order
+     */
+    public DiscardPile restoreDiscardPile() {
+        return new DiscardPile(discardPile);
+    }
+
+    /**
+     * Creates a player with the name, age, hand and hand storage of one player in the snapshot
+     *
+     * @param player seat of the player, from 0
+     * @return the new player
+     */
+    public Player restorePlayer(int player) {
+        return new Player(names[player], ages[player], hands[player], handTypes[player]);
+    }
+
+    /**
+     * @return number of bytes {@link #write(ByteBuffer)} puts into the buffer
+     */
+    public int encodedSize() {
+        if (encodedSize >= 0) {
+            return encodedSize;
+        }
+        int bytes = 4 + 1 + 2;
+        for (Card card : catalog.keySet()) {
+            bytes += stringSize(card.getName()) + stringSize(card.getSuit()) + 4;
+        }
+        bytes += 4 + cardsSize(deck) + 4 + cardsSize(discardPile) + 2;
+        for (int i = 0; i < names.length; i++) {
+            bytes += stringSize(names[i]) + 4 + 1 + 4 + 4 + cardsSize(hands[i]);
+        }
+        encodedSize = bytes;
+        return bytes;
+    }
+
+    /**
+     * Writes the snapshot at the buffer's position and moves the position past it
+     *
+     * @param buffer buffer with at least {@link #encodedSize()} bytes remaining
+     * @throws IllegalArgumentException if buffer is null or does not have enough room
+     */
+    public void write(ByteBuffer buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("Buffer cannot be null");
+        }
+        if (buffer.remaining() < encodedSize()) {
+            throw new IllegalArgumentException("Buffer too small: need " + encodedSize() + " bytes, " + buffer.remaining() + " remaining");
+        }
+
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.putShort((short) catalog.size());
+        for (Card card : catalog.keySet()) {
+            putString(buffer, card.getName());
+            putString(buffer, card.getSuit());
+            buffer.putInt(card.getValue());
+        }
+        putCards(buffer, deck);
+        putCards(buffer, discardPile);
+        buffer.putShort((short) names.length);
+        for (int i = 0; i < names.length; i++) {
+            putString(buffer, names[i]);
+            buffer.putInt(ages[i]);
+            buffer.put((byte) handTypes[i].ordinal());
+            buffer.putInt(scores[i]);
+            putCards(buffer, hands[i]);
+        }
+    }
+
+    /**
+     * Reads one snapshot at the buffer's position and moves the position past it
+     *
+     * @param buffer buffer holding a snapshot written by {@link #write(ByteBuffer)}
+     * @return the snapshot
+     * @throws IllegalArgumentException if buffer is null, or does not hold a valid snapshot of a known version
+     */
+    public static TableSnapshot read(ByteBuffer buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("Buffer cannot be null");
+        }
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a table snapshot");
+            }
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported table snapshot version: " + version);
+            }
+
+            Card[] custom = new Card[buffer.getShort() & 0xFFFF];
+            for (int i = 0; i < custom.length; i++) {
+                custom[i] = Card.of(getString(buffer), getString(buffer), buffer.getInt());
+            }
+            Card[] deck = getCards(buffer, custom);
+            Card[] discardPile = getCards(buffer, custom);
+
+            int count = buffer.getShort() & 0xFFFF;
+            String[] names = new String[count];
+            int[] ages = new int[count];
+            Player.HandType[] handTypes = new Player.HandType[count];
+            int[] scores = new int[count];
+            Card[][] hands = new Card[count][];
+            for (int i = 0; i < count; i++) {
+                names[i] = getString(buffer);
+                ages[i] = buffer.getInt();
+                int handType = buffer.get();
+                if (handType < 0 || handType >= HAND_TYPES.length) {
+                    throw new IllegalArgumentException("Unknown hand type: " + handType);
+                }
+                handTypes[i] = HAND_TYPES[handType];
+                scores[i] = buffer.getInt();
+                hands[i] = getCards(buffer, custom);
+            }
+            return new TableSnapshot(deck, discardPile, names, ages, handTypes, scores, hands);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated table snapshot", e);
+        }
+    }
+
+    /**
+     * Writes snapshots back to back into a file through memory mappings, replacing the file
+     *
+     * @param file the file to write
+     * @param snapshots the snapshots to write
+     * @throws IllegalArgumentException if file or snapshots is null
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeAll(Path file, List<TableSnapshot> snapshots) throws IOException {
+        writeAll(file, snapshots, WINDOW_SIZE);
+    }
+
+    /**
+     * Writes snapshots mapping at most windowSize bytes at a time, unless one snapshot is bigger.
+     * A snapshot never straddles two windows.
+     */
+    static void writeAll(Path file, List<TableSnapshot> snapshots, int windowSize) throws IOException {
+        if (file == null || snapshots == null) {
+            throw new IllegalArgumentException("File and snapshots cannot be null");
+        }
+        long total = 0;
+        for (TableSnapshot snapshot : snapshots) {
+            total += snapshot.encodedSize();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long windowStart = 0;
+            MappedByteBuffer window = null;
+            for (TableSnapshot snapshot : snapshots) {
+                int size = snapshot.encodedSize();
+                if (window == null || window.remaining() < size) {
+                    if (window != null) {
+                        window.force();
+                        windowStart += window.position();
+                    }
+                    long length = Math.max(size, Math.min(windowSize, total - windowStart));
+                    window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, length);
+                }
+                snapshot.write(window);
+            }
+            if (window != null) {
+                window.force();
+            }
+        }
+    }
+
+    /**
+     * Reads every snapshot in a file written by {@link #writeAll(Path, List)}.
+     * Use {@link #index(Path)} instead to decode only the tables needed.
+     *
+     * @param file the file to read
+     * @return the snapshots in the order they were written
+     * @throws IllegalArgumentException if file is null or does not hold valid snapshots
+     * @throws IOException if the file cannot be read
+     */
+    public static List<TableSnapshot> readAll(Path file) throws IOException {
+        Index index = index(file);
+        List<TableSnapshot> snapshots = new ArrayList<>(index.size());
+        for (int i = 0; i < index.size(); i++) {
+            snapshots.add(index.get(i));
+        }
+        return snapshots;
+    }
+
+    /**
+     * Maps a file written by {@link #writeAll(Path, List)} read only and notes where each snapshot starts,
+     * checking the layout of every snapshot without creating any cards, players or strings
+     *
+     * @param file the file to read
+     * @return index of the file's snapshots
+     * @throws IllegalArgumentException if file is null or does not hold valid snapshots
+     * @throws IOException if the file cannot be read
+     */
+    public static Index index(Path file) throws IOException {
+        return index(file, WINDOW_SIZE);
+    }
+
+    /**
+     * Indexes a file mapping windowSize bytes at a time, and more for a snapshot that does not fit
+     */
+    static Index index(Path file, int windowSize) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Index index = new Index();
+            long size = channel.size();
+            long windowStart = 0;
+            MappedByteBuffer window = null;
+            while (windowStart < size) {
+                if (window == null) {
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(windowSize, size - windowStart));
+                    index.windows.add(window);
+                }
+                int start = window.position();
+                try {
+                    skip(window);
+                } catch (BufferUnderflowException e) {
+                    long windowEnd = windowStart + window.capacity();
+                    if (windowEnd == size) {
+                        throw new IllegalArgumentException("Truncated table snapshot", e);
+                    }
+                    if (start == 0 && window.capacity() == Integer.MAX_VALUE) {
+                        throw new IllegalArgumentException("Table snapshot bigger than 2 GB", e);
+                    }
+                    // map again from this snapshot on, twice as much if the snapshot alone was too big
+                    windowStart += start;
+                    long length = Math.max(windowSize, start == 0 ? 2L * window.capacity() : windowEnd - windowStart);
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+                            Math.min(Math.min(length, Integer.MAX_VALUE), size - windowStart));
+                    index.windows.add(window);
+                    continue;
+                }
+                index.add(index.windows.size() - 1, start);
+                if (!window.hasRemaining()) {
+                    windowStart += window.capacity();
+                    window = null;
+                }
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Where each snapshot of a file starts. Snapshots are decoded one at a time when they are asked for,
+     * from the file's read only mapping, so the index itself costs two ints per table.
+     */
+    public static final class Index {
+        private final List<MappedByteBuffer> windows = new ArrayList<>();
+        // window and position in the window of each snapshot
+        private int[] window = new int[16];
+        private int[] position = new int[16];
+        private int size;
+
+        private Index() {
+        }
+
+        private void add(int windowIndex, int start) {
+            if (size == window.length) {
+                window = Arrays.copyOf(window, size * 2);
+                position = Arrays.copyOf(position, size * 2);
+            }
+            window[size] = windowIndex;
+            position[size] = start;
+            size++;
+        }
+
+        /**
+         * @return number of snapshots in the file
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Decodes one snapshot
+         *
+         * @param table index of the snapshot, from 0 in the order they were written
+         * @return the snapshot
+         * @throws IllegalArgumentException if there is no such snapshot
+         */
+        public TableSnapshot get(int table) {
+            if (table < 0 || table >= size) {
+                throw new IllegalArgumentException("No table snapshot " + table + ", file has " + size);
+            }
+            ByteBuffer buffer = windows.get(window[table]).duplicate();
+            buffer.position(position[table]);
+            return read(buffer);
+        }
+    }
+
+    /**
+     * Moves the buffer's position past one snapshot, checking its layout without decoding it
+     *
+     * @throws IllegalArgumentException if the snapshot is not valid
+     * @throws BufferUnderflowException if the buffer ends inside the snapshot
+     */
+    private static void skip(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a table snapshot");
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported table snapshot version: " + version);
+        }
+        int custom = buffer.getShort() & 0xFFFF;
+        for (int i = 0; i < custom; i++) {
+            skipString(buffer);
+            skipString(buffer);
+            buffer.getInt();
+        }
+        skipCards(buffer, custom);
+        skipCards(buffer, custom);
+        int count = buffer.getShort() & 0xFFFF;
+        for (int i = 0; i < count; i++) {
+            skipString(buffer);
+            buffer.getInt();
+            int handType = buffer.get();
+            if (handType < 0 || handType >= HAND_TYPES.length) {
+                throw new IllegalArgumentException("Unknown hand type: " + handType);
+            }
+            buffer.getInt();
+            skipCards(buffer, custom);
+        }
+    }
+
+    private static void skipCards(ByteBuffer buffer, int custom) {
+        int count = buffer.getInt();
+        if (count < 0) {
+            throw new IllegalArgumentException("Invalid card count: " + count);
+        }
+        for (int i = 0; i < count; i++) {
+            int code = buffer.get() & 0xFF;
+            if (code == CUSTOM_CARD) {
+                int index = buffer.getShort() & 0xFFFF;
+                if (index >= custom) {
+                    throw new IllegalArgumentException("Invalid custom card index: " + index);
+                }
+            } else if (code >= Card.STANDARD_DECK_SIZE) {
+                throw new IllegalArgumentException("Invalid card code: " + code);
+            }
+        }
+    }
+
+    private static void skipString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        buffer.position(buffer.position() + length);
+    }
+
+    /**
+     * @param cards cards to measure
+     * @return number of bytes the cards take, without the count in front of them
+     */
+    private static int cardsSize(Card[] cards) {
+        int bytes = 0;
+        for (Card card : cards) {
+            bytes += card.getOrdinal() >= 0 ? 1 : 3;
+        }
+        return bytes;
+    }
+
+    private void putCards(ByteBuffer buffer, Card[] cards) {
+        buffer.putInt(cards.length);
+        for (Card card : cards) {
+            int ordinal = card.getOrdinal();
+            if (ordinal >= 0) {
+                buffer.put((byte) ordinal);
+            } else {
+                buffer.put((byte) CUSTOM_CARD);
+                buffer.putShort((short) catalog.get(card).intValue());
+            }
+        }
+    }
+
+    private static Card[] getCards(ByteBuffer buffer, Card[] custom) {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid card count: " + count);
+        }
+        Card[] cards = new Card[count];
+        for (int i = 0; i < count; i++) {
+            int code = buffer.get() & 0xFF;
+            if (code < Card.STANDARD_DECK_SIZE) {
+                cards[i] = Card.standard(code);
+            } else if (code == CUSTOM_CARD) {
+                int index = buffer.getShort() & 0xFFFF;
+                if (index >= custom.length) {
+                    throw new IllegalArgumentException("Invalid custom card index: " + index);
+                }
+                cards[i] = custom[index];
+            } else {
+                throw new IllegalArgumentException("Invalid card code: " + code);
+            }
+        }
+        return cards;
+    }
+
+    /**
+     * @param s string to measure
+     * @return number of bytes the string takes, length included
+     */
+    private static int stringSize(String s) {
+        return 2 + s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void putString(ByteBuffer buffer, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_COUNT) {
+            throw new IllegalArgumentException("String too long for a snapshot: " + bytes.length + " bytes");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
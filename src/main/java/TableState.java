@@ -0,0 +1,180 @@
+import java.util.Arrays;
+
+/**
+ * Everything on the table of one game: the deck, the players in their seats, their scores, the cards of
+ * the current trick and a discard pile. It is built once and {@link #reset()} between games,
+ * so a {@link GameEngine} can play game after game on it without allocating.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public class TableState {
+    private final Deck deck;
+    private final Player[] players;
+    private final int[] scores;
+    // played[seat] is the card the seat played in the current trick, null until it plays
+    private final Card[] played;
+    private final DiscardPile discardPile = new DiscardPile();
+    private Card[] dealBuffer = new Card[0];
+    private int tricks;
+
+    /**
+     * Seats the players at a table with the given deck
+     *
+     * @param deck the deck to play with
+     * @param players the players, in seat order
+     * @throws IllegalArgumentException if deck is null, there are no players or a player is null
+     */
+    public TableState(Deck deck, Player[] players) {
+        if (deck == null) {
+            throw new IllegalArgumentException("Deck cannot be null");
+        }
+        if (players == null || players.length == 0) {
+            throw new IllegalArgumentException("A table needs at least one player");
+        }
+        for (Player player : players) {
+            if (player == null) {
+                throw new IllegalArgumentException("Player cannot be null");
+            }
+        }
+        this.deck = deck;
+        this.players = players.clone();
+        this.scores = new int[players.length];
+        this.played = new Card[players.length];
+    }
+
+    /**
+     * Gets the table ready for a new game: the deck is reset and shuffled, hands, scores,
+     * the current trick and the discard pile are emptied, and nothing is allocated
+     */
+    public void reset() {
+        deck.reset();
+        deck.shuffle();
+        for (Player player : players) {
+            player.clearHand();
+        }
+        Arrays.fill(scores, 0);
+        Arrays.fill(played, null);
+        discardPile.clear();
+        tricks = 0;
+    }
+
+    /**
+     * @return the deck
+     */
+    public Deck getDeck() {
+        return deck;
+    }
+
+    /**
+     * @return the discard pile, where the engine puts the cards of every trick
+     */
+    public DiscardPile getDiscardPile() {
+        return discardPile;
+    }
+
+    /**
+     * @return number of seats
+     */
+    public int getPlayerCount() {
+        return players.length;
+    }
+
+    /**
+     * @param seat a seat
+     * @return the player in that seat
+     */
+    public Player getPlayer(int seat) {
+        return players[seat];
+    }
+
+    /**
+     * @return the players in seat order, the table's own array
+     */
+    Player[] players() {
+        return players;
+    }
+
+    /**
+     * @param seat a seat
+     * @return the seat's score
+     */
+    public int getScore(int seat) {
+        return scores[seat];
+    }
+
+    /**
+     * Adds points to a seat's score
+     *
+     * @param seat a seat
+     * @param points points to add, may be negative
+     */
+    public void addScore(int seat, int points) {
+        scores[seat] += points;
+    }
+
+    /**
+     * Sets a seat's score, used when a game is restored
+     *
+     * @param seat a seat
+     * @param score the score
+     */
+    void setScore(int seat, int score) {
+        scores[seat] = score;
+    }
+
+    /**
+     * @param seat a seat
+     * @return the card the seat played in the current trick, or null if it has not played yet
+     */
+    public Card getPlayed(int seat) {
+        return played[seat];
+    }
+
+    /**
+     * Puts a seat's card for the current trick on the table
+     *
+     * @param seat a seat
+     * @param card the card played
+     */
+    void setPlayed(int seat, Card card) {
+        played[seat] = card;
+    }
+
+    /**
+     * @return number of tricks resolved since the last reset
+     */
+    public int getTricks() {
+        return tricks;
+    }
+
+    /**
+     * Ends the current trick, the played cards stay readable until the seats play again
+     */
+    void endTrick() {
+        tricks++;
+    }
+
+    /**
+     * Returns a buffer for dealing that belongs to the table, so deals do not allocate.
+     * It only grows the first time a bigger deal is asked for.
+     *
+     * @param size number of cards to deal
+     * @return an array of at least size slots
+     */
+    Card[] dealBuffer(int size) {
+        if (dealBuffer.length < size) {
+            dealBuffer = new Card[size];
+        }
+        return dealBuffer;
+    }
+
+    /**
+     * @return String in "Table of {n} players, trick {t}" format
+     */
+    @Override
+    public String toString() {
+        return "Table of " + players.length + " players, trick " + tricks;
+    }
+}
@@ -0,0 +1,347 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * A round-robin league of High Card games (the game in {@link SelfPlayedGame}) where every pair of players
+ * meets the same number of times.
+ *
+ * Pairings are scheduled with the circle method, so each schedule round seats every player at most once
+ * (one player sits out per round when the count is odd). The rounds are spread over a fork/join pool that
+ * steals work between threads. Every worker keeps one game, with its deck and players, and accumulators
+ * for the whole league, so playing a match allocates nothing. Virtual threads would need a newer Java than this
+ * project builds for, and each match is a short computation that never blocks, so a work-stealing pool suits it better anyway.
+ *
+ * Each schedule round reseeds the worker's shuffle source from the tournament seed and the round number,
+ * so the same seed gives the same standings on any number of threads.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public class Tournament {
+    private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+
+    private final String[] playerNames;
+    private final int matchesPerPair;
+
+    /**
+     * Creates a league
+     *
+     * @param playerNames names of the players, at least two
+     * @param matchesPerPair how many times every pair of players meets
+     * @throws IllegalArgumentException if there are fewer than two players, any name is null or empty,
+     *                                  or matchesPerPair is not positive
+     */
+    public Tournament(String[] playerNames, int matchesPerPair) {
+        if (playerNames == null || playerNames.length < 2) {
+            throw new IllegalArgumentException("A tournament needs at least two players");
+        }
+        for (String name : playerNames) {
+            if (name == null || name.trim().isEmpty()) {
+                throw new IllegalArgumentException("Player name cannot be null or empty");
+            }
+        }
+        if (matchesPerPair <= 0) {
+            throw new IllegalArgumentException("Matches per pair must be positive");
+        }
+        this.playerNames = playerNames.clone();
+        this.matchesPerPair = matchesPerPair;
+    }
+
+    /**
+     * @return number of schedule rounds, every player meets every other player once over all rounds
+     */
+    public int getRounds() {
+        return seats() - 1;
+    }
+
+    /**
+     * @return total number of matches the league plays
+     */
+    public long getMatchCount() {
+        long n = playerNames.length;
+        return n * (n - 1) / 2 * matchesPerPair;
+    }
+
+    /**
+     * @return number of seats in the circle, the player count rounded up to even, the extra seat is a bye
+     */
+    private int seats() {
+        return playerNames.length + (playerNames.length & 1);
+    }
+
+    /**
+     * Fills in the pairings of one schedule round with the circle method: the last seat stays put
+     * and the others rotate one place each round. A pairing with the bye seat (index playerNames.length) is left out.
+     *
+     * @param round the schedule round, from 0 to {@link #getRounds()} - 1
+     * @param pairs array of at least seats() slots, filled with player indexes two at a time
+     * @return number of pairings filled in
+     */
+    int pairings(int round, int[] pairs) {
+        int seats = seats();
+        int rotating = seats - 1;
+        int count = 0;
+        for (int i = 0; i < seats / 2; i++) {
+            int home = i == 0 ? rotating : (round + i) % rotating;
+            int away = (round - i + rotating) % rotating;
+            if (home < playerNames.length && away < playerNames.length) {
+                pairs[count * 2] = home;
+                pairs[count * 2 + 1] = away;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Plays the league on all available cores
+     *
+     * @param seed seed for the shuffles, the same seed always gives the same standings
+     * @return the final standings
+     */
+    public Standings run(long seed) {
+        return run(Runtime.getRuntime().availableProcessors(), seed);
+    }
+
+    /**
+     * Plays the league on the given number of threads
+     *
+     * @param threads number of worker threads
+     * @param seed seed for the shuffles, the same seed always gives the same standings
+     * @return the final standings
+     * @throws IllegalArgumentException if threads is not positive
+     */
+    public Standings run(int threads, long seed) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Worker total = pool.submit(() -> IntStream.range(0, getRounds())
+                    .parallel()
+                    .collect(Worker::new, (worker, round) -> worker.playRound(round, seed), Worker::merge)).get();
+            return new Standings(playerNames, total, System.nanoTime() - start);
+        } catch (Exception e) {
+            throw new IllegalStateException("Tournament failed", e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * One worker's game and its tally of the league, reused for every schedule round the worker plays
+     */
+    private final class Worker {
+        private final XoroshiroShuffleSource random = new XoroshiroShuffleSource(0);
+        private final SelfPlayedGame game = newGame();
+        private final int[] pairs = new int[seats()];
+        private final long[] wins = new long[playerNames.length];
+        private final long[] losses = new long[playerNames.length];
+        private final long[] ties = new long[playerNames.length];
+        private final long[] roundsWon = new long[playerNames.length];
+        private long matches;
+
+        private SelfPlayedGame newGame() {
+            SelfPlayedGame game = new SelfPlayedGame("Home", "Away", random, GameListener.NONE);
+            game.setLazyShuffle(true);
+            return game;
+        }
+
+        /**
+         * Plays every match of one schedule round
+         *
+         * @param round the schedule round
+         * @param seed the tournament seed
+         */
+        private void playRound(int round, long seed) {
+            random.reseed(seed + round * SEED_STEP);
+            int count = pairings(round, pairs);
+            for (int p = 0; p < count; p++) {
+                int home = pairs[p * 2];
+                int away = pairs[p * 2 + 1];
+                for (int m = 0; m < matchesPerPair; m++) {
+                    game.reset();
+                    game.playSilently();
+                    record(home, game.getPlayer1Score(), away, game.getPlayer2Score());
+                }
+            }
+        }
+
+        private void record(int home, int homeScore, int away, int awayScore) {
+            matches++;
+            roundsWon[home] += homeScore;
+            roundsWon[away] += awayScore;
+            if (homeScore > awayScore) {
+                wins[home]++;
+                losses[away]++;
+            } else if (awayScore > homeScore) {
+                wins[away]++;
+                losses[home]++;
+            } else {
+                ties[home]++;
+                ties[away]++;
+            }
+        }
+
+        private void merge(Worker other) {
+            matches += other.matches;
+            for (int i = 0; i < wins.length; i++) {
+                wins[i] += other.wins[i];
+                losses[i] += other.losses[i];
+                ties[i] += other.ties[i];
+                roundsWon[i] += other.roundsWon[i];
+            }
+        }
+    }
+
+    /**
+     * One player's line in the standings
+     */
+    public static final class Standing {
+        private final String name;
+        private final long wins;
+        private final long losses;
+        private final long ties;
+        private final long roundsWon;
+
+        private Standing(String name, long wins, long losses, long ties, long roundsWon) {
+            this.name = name;
+            this.wins = wins;
+            this.losses = losses;
+            this.ties = ties;
+            this.roundsWon = roundsWon;
+        }
+
+        /**
+         * @return the player's name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return matches won
+         */
+        public long getWins() {
+            return wins;
+        }
+
+        /**
+         * @return matches lost
+         */
+        public long getLosses() {
+            return losses;
+        }
+
+        /**
+         * @return matches tied
+         */
+        public long getTies() {
+            return ties;
+        }
+
+        /**
+         * @return rounds won over all matches, used to break ties in points
+         */
+        public long getRoundsWon() {
+            return roundsWon;
+        }
+
+        /**
+         * @return league points, 2 for a win and 1 for a tie
+         */
+        public long getPoints() {
+            return 2 * wins + ties;
+        }
+    }
+
+    /**
+     * Final standings of a league, best player first
+     */
+    public static final class Standings {
+        private final List<Standing> table;
+        private final long matches;
+        private final long nanos;
+
+        private Standings(String[] names, Worker total, long nanos) {
+            List<Standing> table = new ArrayList<>(names.length);
+            for (int i = 0; i < names.length; i++) {
+                table.add(new Standing(names[i], total.wins[i], total.losses[i], total.ties[i], total.roundsWon[i]));
+            }
+            table.sort((a, b) -> a.getPoints() != b.getPoints() ? Long.compare(b.getPoints(), a.getPoints())
+                    : Long.compare(b.roundsWon, a.roundsWon));
+            this.table = Collections.unmodifiableList(table);
+            this.matches = total.matches;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return every player's line, best player first
+         */
+        public List<Standing> getTable() {
+            return table;
+        }
+
+        /**
+         * @return number of matches played
+         */
+        public long getMatches() {
+            return matches;
+        }
+
+        /**
+         * @return wall clock time of the run in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return matches played per second
+         */
+        public double getMatchesPerSecond() {
+            return nanos == 0 ? 0 : matches * 1e9 / nanos;
+        }
+
+        /**
+         * @return the standings table and throughput
+         */
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(64 * (table.size() + 2));
+            sb.append("Pos  Player               W       T       L     Pts\n");
+            int position = 1;
+            for (Standing s : table) {
+                sb.append(String.format("%3d  %-16s %7d %7d %7d %7d\n", position++, s.name, s.wins, s.ties, s.losses, s.getPoints()));
+            }
+            sb.append(String.format("Matches: %d, throughput: %.0f matches/s", matches, getMatchesPerSecond()));
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Runs a league of bots from the command line
+     *
+     * @param args optional number of players (default 100), matches per pair (default 10), threads (default all cores) and seed
+     */
+    public static void main(String[] args) {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int matches = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        String[] names = new String[players];
+        for (int i = 0; i < players; i++) {
+            names[i] = "Bot " + (i + 1);
+        }
+        Tournament tournament = new Tournament(names, matches);
+        System.out.println("Playing " + tournament.getMatchCount() + " matches between " + players + " players on " + threads + " threads");
+        System.out.println(tournament.run(threads, seed));
+    }
+}
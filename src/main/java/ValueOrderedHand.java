@@ -0,0 +1,320 @@
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * A hand kept in buckets by card value, for big hands where the highest card is looked up every turn.
+ * Values below 64 (every normal game) get one bucket each, with a long marking which buckets are not empty,
+ * so highest, lowest and poll highest are O(1). Bigger values go to a sorted map and cost O(log n).
+ * Inside a bucket cards keep the order they were added, so ties are broken the same way as a list hand.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+class ValueOrderedHand extends Hand {
+    private static final int BUCKETS = 64;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final ArrayDeque<Card>[] buckets = new ArrayDeque[BUCKETS];
+    // bit v is set when bucket v holds at least one card
+    private long occupied;
+    private TreeMap<Integer, ArrayDeque<Card>> large;
+    private int size;
+
+    @Override
+    void add(Card card) {
+        bucketFor(card.getValue()).addLast(card);
+        if (card.getValue() < BUCKETS) {
+            occupied |= 1L << card.getValue();
+        }
+        size++;
+    }
+
+    /**
+     * Finds or creates the bucket for a value
+     *
+     * @param value card value
+     * @return the bucket holding cards of that value
+     */
+    private ArrayDeque<Card> bucketFor(int value) {
+        ArrayDeque<Card> bucket;
+        if (value < BUCKETS) {
+            bucket = buckets[value];
+            if (bucket == null) {
+                bucket = new ArrayDeque<>(4);
+                buckets[value] = bucket;
+            }
+        } else {
+            if (large == null) {
+                large = new TreeMap<>();
+            }
+            bucket = large.get(value);
+            if (bucket == null) {
+                bucket = new ArrayDeque<>(4);
+                large.put(value, bucket);
+            }
+        }
+        return bucket;
+    }
+
+    /**
+     * @param value card value
+     * @return the bucket holding cards of that value, or null if there is none
+     */
+    private ArrayDeque<Card> existingBucket(int value) {
+        if (value < BUCKETS) {
+            return buckets[value];
+        }
+        return large == null ? null : large.get(value);
+    }
+
+    @Override
+    boolean remove(Card card) {
+        if (card == null) {
+            return false;
+        }
+        ArrayDeque<Card> bucket = existingBucket(card.getValue());
+        if (bucket == null || !bucket.removeFirstOccurrence(card)) {
+            return false;
+        }
+        removed(card.getValue(), bucket);
+        return true;
+    }
+
+    /**
+     * Updates the bookkeeping after a card left a bucket
+     *
+     * @param value value of the bucket
+     * @param bucket the bucket a card was removed from
+     */
+    private void removed(int value, ArrayDeque<Card> bucket) {
+        size--;
+        if (bucket.isEmpty()) {
+            if (value < BUCKETS) {
+                occupied &= ~(1L << value);
+            } else {
+                large.remove(value);
+            }
+        }
+    }
+
+    @Override
+    boolean contains(Card card) {
+        if (card == null) {
+            return false;
+        }
+        ArrayDeque<Card> bucket = existingBucket(card.getValue());
+        return bucket != null && bucket.contains(card);
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the bucket with the highest value, or null if the hand is empty
+     */
+    private ArrayDeque<Card> highestBucket() {
+        if (large != null && !large.isEmpty()) {
+            return large.lastEntry().getValue();
+        }
+        return occupied == 0 ? null : buckets[63 - Long.numberOfLeadingZeros(occupied)];
+    }
+
+    /**
+     * @return the first added card with the highest value, or null if the hand is empty
+     */
+    @Override
+    Card highest() {
+        ArrayDeque<Card> bucket = highestBucket();
+        return bucket == null ? null : bucket.peekFirst();
+    }
+
+    @Override
+    Card pollHighest() {
+        ArrayDeque<Card> bucket = highestBucket();
+        if (bucket == null) {
+            return null;
+        }
+        Card card = bucket.pollFirst();
+        removed(card.getValue(), bucket);
+        return card;
+    }
+
+    /**
+     * @return the first added card with the lowest value, or null if the hand is empty
+     */
+    @Override
+    Card lowest() {
+        if (occupied != 0) {
+            return buckets[Long.numberOfTrailingZeros(occupied)].peekFirst();
+        }
+        if (large != null && !large.isEmpty()) {
+            return large.firstEntry().getValue().peekFirst();
+        }
+        return null;
+    }
+
+    @Override
+    Card[] cardsOfValue(int value) {
+        ArrayDeque<Card> bucket = value < 0 ? null : existingBucket(value);
+        return bucket == null ? new Card[0] : bucket.toArray(new Card[0]);
+    }
+
+    @Override
+    void clear() {
+        for (long bits = occupied; bits != 0; bits &= bits - 1) {
+            buckets[Long.numberOfTrailingZeros(bits)].clear();
+        }
+        occupied = 0;
+        if (large != null) {
+            large.clear();
+        }
+        size = 0;
+    }
+
+    /**
+     * Cards come from lowest to highest value, cards of the same value in the order they were added.
+     *
+     * @return a new array holding every card in hand
+     */
+    @Override
+    Card[] toArray() {
+        Card[] result = new Card[size];
+        copyInto(result, 0);
+        return result;
+    }
+
+    @Override
+    void copyInto(Card[] dest, int offset) {
+        int i = offset;
+        for (long bits = occupied; bits != 0; bits &= bits - 1) {
+            for (Card card : buckets[Long.numberOfTrailingZeros(bits)]) {
+                dest[i++] = card;
+            }
+        }
+        if (large != null) {
+            for (Map.Entry<Integer, ArrayDeque<Card>> entry : large.entrySet()) {
+                for (Card card : entry.getValue()) {
+                    dest[i++] = card;
+                }
+            }
+        }
+    }
+
+    /**
+     * Walks the buckets to the position, O(number of values), prefer {@link #forEach} for going through the hand.
+     */
+    @Override
+    Card get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        for (long bits = occupied; bits != 0; bits &= bits - 1) {
+            ArrayDeque<Card> bucket = buckets[Long.numberOfTrailingZeros(bits)];
+            if (index < bucket.size()) {
+                return nth(bucket, index);
+            }
+            index -= bucket.size();
+        }
+        for (ArrayDeque<Card> bucket : large.values()) {
+            if (index < bucket.size()) {
+                return nth(bucket, index);
+            }
+            index -= bucket.size();
+        }
+        throw new IndexOutOfBoundsException("Index out of hand");
+    }
+
+    /**
+     * @param bucket a bucket
+     * @param index position in the bucket
+     * @return the card at that position
+     */
+    private static Card nth(ArrayDeque<Card> bucket, int index) {
+        for (Card card : bucket) {
+            if (index-- == 0) {
+                return card;
+            }
+        }
+        throw new IndexOutOfBoundsException("Index out of bucket");
+    }
+
+    /**
+     * Walks bucket by bucket, so going through the hand is O(size) rather than O(size * values) by get
+     */
+    @Override
+    Iterator<Card> iterator() {
+        return new Iterator<Card>() {
+            private long bits = occupied;
+            private Iterator<ArrayDeque<Card>> rest = large == null
+                    ? Collections.<ArrayDeque<Card>>emptyIterator() : large.values().iterator();
+            private Iterator<Card> bucket = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!bucket.hasNext()) {
+                    if (bits != 0) {
+                        bucket = buckets[Long.numberOfTrailingZeros(bits)].iterator();
+                        bits &= bits - 1;
+                    } else if (rest.hasNext()) {
+                        bucket = rest.next().iterator();
+                    } else {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public Card next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return bucket.next();
+            }
+        };
+    }
+
+    @Override
+    void appendTo(Appendable out) throws IOException {
+        String separator = "";
+        for (long bits = occupied; bits != 0; bits &= bits - 1) {
+            for (Card card : buckets[Long.numberOfTrailingZeros(bits)]) {
+                card.appendTo(out.append(separator));
+                separator = ", ";
+            }
+        }
+        if (large != null) {
+            for (ArrayDeque<Card> bucket : large.values()) {
+                for (Card card : bucket) {
+                    card.appendTo(out.append(separator));
+                    separator = ", ";
+                }
+            }
+        }
+    }
+
+    @Override
+    void forEach(Consumer<? super Card> action) {
+        for (long bits = occupied; bits != 0; bits &= bits - 1) {
+            for (Card card : buckets[Long.numberOfTrailingZeros(bits)]) {
+                action.accept(card);
+            }
+        }
+        if (large != null) {
+            for (ArrayDeque<Card> bucket : large.values()) {
+                for (Card card : bucket) {
+                    action.accept(card);
+                }
+            }
+        }
+    }
+}
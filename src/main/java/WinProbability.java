@@ -0,0 +1,353 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Exact chances of winning a High Card game (the rules of {@link SelfPlayedGame}) from the middle of a game.
+ *
+ * The opponent holds as many cards as the player, drawn from the cards the player has not seen:
+ * a standard deck without the player's hand and the discard pile. Only values matter in High Card,
+ * so instead of every set of unseen cards the calculator goes through every multiset of values,
+ * weighted by the number of ways to pick it (the product of C(unseen of value, taken) over all values).
+ * A 5 card hand has at most 6188 of those instead of about a million card sets. Big enumerations are split
+ * over the cores, and answers are memoized on the player's values, the unseen values and the score difference.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+public class WinProbability {
+    private static final int VALUES = 13;
+    // each value count is kept in 4 bits of the memo key
+    private static final int MAX_COUNT = 15;
+    private static final int PARALLEL_THRESHOLD = 20_000;
+    private static final int CACHE_LIMIT = 1 << 16;
+    private static final double[][] CHOOSE = choose(MAX_COUNT);
+
+    private final Map<Key, Odds> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Chances of winning, tying and losing the game
+     */
+    public static final class Odds {
+        private final double win;
+        private final double tie;
+        private final double loss;
+        private final double hands;
+
+        private Odds(double win, double tie, double loss) {
+            this.hands = win + tie + loss;
+            this.win = hands == 0 ? 0 : win / hands;
+            this.tie = hands == 0 ? 0 : tie / hands;
+            this.loss = hands == 0 ? 0 : loss / hands;
+        }
+
+        /**
+         * @return chance of winning the game, from 0 to 1
+         */
+        public double getWin() {
+            return win;
+        }
+
+        /**
+         * @return chance of a tied game, from 0 to 1
+         */
+        public double getTie() {
+            return tie;
+        }
+
+        /**
+         * @return chance of losing the game, from 0 to 1
+         */
+        public double getLoss() {
+            return loss;
+        }
+
+        /**
+         * @return number of hands the opponent could be holding
+         */
+        public double getHands() {
+            return hands;
+        }
+
+        /**
+         * @return String in "Win {w}%, tie {t}%, loss {l}%" format
+         */
+        @Override
+        public String toString() {
+            return String.format("Win %.2f%%, tie %.2f%%, loss %.2f%%", win * 100, tie * 100, loss * 100);
+        }
+    }
+
+    /**
+     * Chances of a player who has seen the cards in a discard pile
+     *
+     * @param player the player, whose hand holds the cards for the rounds left
+     * @param seen discard pile of the cards both players have played
+     * @param playerScore the player's score so far
+     * @param opponentScore the opponent's score so far
+     * @return the odds
+     * @throws IllegalArgumentException if player or seen is null, or a card is not from a standard deck
+     */
+    public Odds calculate(Player player, DiscardPile seen, int playerScore, int opponentScore) {
+        if (player == null) {
+            throw new IllegalArgumentException("Player cannot be null");
+        }
+        if (seen == null) {
+            throw new IllegalArgumentException("Discard pile cannot be null");
+        }
+        return calculate(player.getHand(), seen.getDiscardPile(), playerScore, opponentScore);
+    }
+
+    /**
+     * Chances of a player holding a hand who has seen some cards, all from one standard deck
+     *
+     * @param hand the player's hand, the cards for the rounds left
+     * @param seen cards already played by either player
+     * @param playerScore the player's score so far
+     * @param opponentScore the opponent's score so far
+     * @return the odds
+     * @throws IllegalArgumentException if hand or seen is null, a card is not from a standard deck or appears twice,
+     *                                  or there are not enough unseen cards for the opponent's hand
+     */
+    public Odds calculate(Card[] hand, Card[] seen, int playerScore, int opponentScore) {
+        if (hand == null || seen == null) {
+            throw new IllegalArgumentException("Cards array cannot be null");
+        }
+        int[] handCounts = new int[VALUES];
+        int[] unseenCounts = new int[VALUES];
+        Arrays.fill(unseenCounts, Card.STANDARD_SUITS.length);
+        long known = 0;
+        for (Card card : hand) {
+            known = markKnown(known, card);
+            handCounts[card.getValue() - 1]++;
+            unseenCounts[card.getValue() - 1]--;
+        }
+        for (Card card : seen) {
+            known = markKnown(known, card);
+            unseenCounts[card.getValue() - 1]--;
+        }
+        return calculate(handCounts, unseenCounts, playerScore - opponentScore);
+    }
+
+    /**
+     * Chances from value counts: the player holds handCounts[v - 1] cards of value v,
+     * and the opponent's hand of the same size comes from the unseen cards
+     *
+     * @param handCounts the player's cards by value, 1 to 13
+     * @param unseenCounts unseen cards by value, 1 to 13
+     * @param lead the player's score minus the opponent's score
+     * @return the odds
+     * @throws IllegalArgumentException if a count is out of range or there are not enough unseen cards
+     */
+    Odds calculate(int[] handCounts, int[] unseenCounts, int lead) {
+        Key key = new Key(handCounts, unseenCounts, lead);
+        Odds odds = cache.get(key);
+        if (odds == null) {
+            odds = enumerate(handCounts, unseenCounts, lead);
+            if (cache.size() >= CACHE_LIMIT) {
+                cache.clear();
+            }
+            cache.put(key, odds);
+        }
+        return odds;
+    }
+
+    /**
+     * Adds a card to the set of cards the player knows about
+     *
+     * @param known bit set of known card ordinals
+     * @param card a card
+     * @return known with the card added
+     * @throws IllegalArgumentException if the card is not from a standard deck or is known already
+     */
+    private static long markKnown(long known, Card card) {
+        if (card == null || card.getOrdinal() < 0) {
+            throw new IllegalArgumentException("Win probability needs standard cards, got: " + card);
+        }
+        long bit = 1L << card.getOrdinal();
+        if ((known & bit) != 0) {
+            throw new IllegalArgumentException("Card appears twice: " + card);
+        }
+        return known | bit;
+    }
+
+    /**
+     * Goes through every value multiset the opponent could hold
+     */
+    private static Odds enumerate(int[] handCounts, int[] unseenCounts, int lead) {
+        // the player's cards from highest to lowest, the order they are played in
+        int size = 0;
+        for (int count : handCounts) {
+            size += count;
+        }
+        int[] mine = new int[size];
+        for (int v = VALUES - 1, i = 0; v >= 0; v--) {
+            for (int c = 0; c < handCounts[v]; c++) {
+                mine[i++] = v;
+            }
+        }
+        int unseen = 0;
+        for (int count : unseenCounts) {
+            unseen += count;
+        }
+        if (unseen < size) {
+            throw new IllegalArgumentException("Only " + unseen + " unseen cards for an opponent hand of " + size);
+        }
+
+        Search search = new Search(mine, unseenCounts);
+        int topTake = Math.min(unseenCounts[VALUES - 1], size);
+        if (countHands(unseenCounts, size) < PARALLEL_THRESHOLD || topTake == 0) {
+            search.run(VALUES - 1, 0, 1, lead);
+            return new Odds(search.win, search.tie, search.loss);
+        }
+        // one task for each number of the highest value the opponent could hold
+        return IntStream.rangeClosed(0, topTake).parallel()
+                .mapToObj(take -> {
+                    Search part = new Search(mine, unseenCounts);
+                    part.runFrom(VALUES - 1, take, lead);
+                    return part;
+                })
+                .reduce((a, b) -> {
+                    a.win += b.win;
+                    a.tie += b.tie;
+                    a.loss += b.loss;
+                    return a;
+                })
+                .map(s -> new Odds(s.win, s.tie, s.loss))
+                .get();
+    }
+
+    /**
+     * @return number of value multisets of the given size that the unseen cards allow
+     */
+    private static long countHands(int[] unseenCounts, int size) {
+        long[] ways = new long[size + 1];
+        ways[0] = 1;
+        for (int count : unseenCounts) {
+            for (int filled = size; filled > 0; filled--) {
+                for (int take = 1; take <= Math.min(count, filled); take++) {
+                    ways[filled] += ways[filled - take];
+                }
+            }
+        }
+        return ways[size];
+    }
+
+    /**
+     * Depth first walk over the opponent's values from the highest down, scoring rounds as cards are placed
+     */
+    private static final class Search {
+        private final int[] mine;
+        private final int[] unseen;
+        private double win;
+        private double tie;
+        private double loss;
+
+        private Search(int[] mine, int[] unseen) {
+            this.mine = mine;
+            this.unseen = unseen;
+        }
+
+        /**
+         * Places take cards of one value first, then walks the lower values
+         */
+        private void runFrom(int value, int take, int lead) {
+            run(value - 1, take, CHOOSE[unseen[value]][take], lead + score(value, 0, take));
+        }
+
+        /**
+         * @param value highest value still to decide
+         * @param placed opponent cards placed so far, all higher than value
+         * @param weight number of card sets behind the values placed so far
+         * @param lead the player's lead including the rounds decided so far
+         */
+        private void run(int value, int placed, double weight, int lead) {
+            if (placed == mine.length) {
+                if (lead > 0) {
+                    win += weight;
+                } else if (lead < 0) {
+                    loss += weight;
+                } else {
+                    tie += weight;
+                }
+                return;
+            }
+            if (value < 0) {
+                return;
+            }
+            int most = Math.min(unseen[value], mine.length - placed);
+            for (int take = 0; take <= most; take++) {
+                run(value - 1, placed + take, weight * CHOOSE[unseen[value]][take], lead + score(value, placed, take));
+            }
+        }
+
+        /**
+         * @return the player's rounds minus the opponent's rounds at the positions the opponent plays value
+         */
+        private int score(int value, int from, int take) {
+            int lead = 0;
+            for (int i = from; i < from + take; i++) {
+                lead += Integer.compare(mine[i], value);
+            }
+            return lead;
+        }
+    }
+
+    /**
+     * @return table of binomial coefficients up to n
+     */
+    private static double[][] choose(int n) {
+        double[][] c = new double[n + 1][n + 1];
+        for (int i = 0; i <= n; i++) {
+            c[i][0] = 1;
+            for (int j = 1; j <= i; j++) {
+                c[i][j] = c[i - 1][j - 1] + c[i - 1][j];
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Memo key: both count arrays packed 4 bits per value, and the lead
+     */
+    private static final class Key {
+        private final long hand;
+        private final long unseen;
+        private final int lead;
+
+        private Key(int[] handCounts, int[] unseenCounts, int lead) {
+            if (handCounts.length != VALUES || unseenCounts.length != VALUES) {
+                throw new IllegalArgumentException("Counts are needed for all " + VALUES + " values");
+            }
+            this.hand = pack(handCounts);
+            this.unseen = pack(unseenCounts);
+            this.lead = lead;
+        }
+
+        private static long pack(int[] counts) {
+            long packed = 0;
+            for (int count : counts) {
+                if (count < 0 || count > MAX_COUNT) {
+                    throw new IllegalArgumentException("Count out of range: " + count);
+                }
+                packed = packed << 4 | count;
+            }
+            return packed;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return hand == key.hand && unseen == key.unseen && lead == key.lead;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (31 * (31 * (hand ^ hand >>> 32) + (unseen ^ unseen >>> 32)) + lead);
+        }
+    }
+}
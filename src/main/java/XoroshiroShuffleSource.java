@@ -0,0 +1,74 @@
+/**
+ * A xoroshiro128++ generator, small and very fast but not suitable for anything that must be unpredictable.
+ * Bounded numbers use Lemire's multiply-and-reject method, so they stay exactly uniform.
+ *
+ * @author Shaoyang Chen
+ * @version 114.514
+ * @since 1919.8.10
+ */
+class XoroshiroShuffleSource implements ShuffleSource {
+    private long s0;
+    private long s1;
+
+    /**
+     * Creates the generator, expanding the seed with splitmix64 so that similar seeds give unrelated states
+     *
+     * @param seed the seed
+     */
+    XoroshiroShuffleSource(long seed) {
+        reseed(seed);
+    }
+
+    /**
+     * Starts the generator over from a new seed, as if it had just been created with it
+     *
+     * @param seed the seed
+     */
+    void reseed(long seed) {
+        s0 = splitMix(seed += 0x9E3779B97F4A7C15L);
+        s1 = splitMix(seed + 0x9E3779B97F4A7C15L);
+        if ((s0 | s1) == 0) {
+            s1 = 1;
+        }
+    }
+
+    /**
+     * @param z value to mix
+     * @return the splitmix64 output for z
+     */
+    private static long splitMix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return the next 64 random bits
+     */
+    long nextLong() {
+        long s0 = this.s0;
+        long s1 = this.s1;
+        long result = Long.rotateLeft(s0 + s1, 17) + s0;
+        s1 ^= s0;
+        this.s0 = Long.rotateLeft(s0, 49) ^ s1 ^ (s1 << 21);
+        this.s1 = Long.rotateLeft(s1, 28);
+        return result;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        long product = (nextLong() >>> 32) * bound;
+        long low = product & 0xFFFFFFFFL;
+        if (low < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while (low < threshold) {
+                product = (nextLong() >>> 32) * bound;
+                low = product & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+}
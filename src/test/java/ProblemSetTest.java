@@ -98,6 +98,27 @@ public class ProblemSetTest {
             assertTrue(exception.getMessage().contains("Illegal input for value"));
         }
 
+        @Test
+        @DisplayName("of method returns canonical instances")
+        public void testCardOfCanonical() {
+            assertSame(Card.of("King", "Spades", 13), Card.of("King", "Spades", 13));
+            // only the standard cards are interned, others are equal but not shared
+            assertNotSame(Card.of("Joker", "Red", 0), Card.of("Joker", "Red", 0));
+            assertEquals(Card.of("Joker", "Red", 0), Card.of("Joker", "Red", 0));
+            assertEquals(new Card("King", "Spades", 13), Card.of("King", "Spades", 13));
+        }
+
+        @Test
+        @DisplayName("hashCode consistent with equals")
+        public void testCardHashCode() {
+            Card card1 = new Card("Queen", "Hearts", 12);
+            Card card2 = Card.of("Queen", "Hearts", 12);
+            assertEquals(card1.hashCode(), card2.hashCode());
+            assertEquals(card1.getOrdinal(), card2.getOrdinal());
+            assertEquals(-1, new Card("Ace", "Spades", 14).getOrdinal());
+            assertNotEquals(new Card("Ace", "Spades", 14), Card.of("Ace", "Spades", 1));
+        }
+
         @Nested
         @DisplayName("Card Exception Handling Tests")
         class CardExceptionTests {
@@ -246,6 +267,162 @@ public class ProblemSetTest {
             assertTrue(exception.getMessage().contains("Cards array cannot be null"));
         }
 
+        @Test
+        @DisplayName("reset restores original cards")
+        public void testDeckReset() {
+            Deck deck = new Deck();
+            Card top = new Deck().draw();
+            deck.shuffle();
+            for (int i = 0; i < 10; i++) {
+                deck.draw();
+            }
+            deck.addCard(new Card("Joker", "Red", 0));
+
+            deck.reset();
+            assertEquals(52, deck.size());
+            assertEquals(top, deck.draw());
+
+            Deck custom = new Deck(new Card[]{new Card("Ace", "Hearts", 1), null});
+            custom.draw();
+            custom.reset();
+            assertEquals(1, custom.size());
+        }
+
+        @Test
+        @DisplayName("seeded shuffle sources repeat the same order")
+        public void testDeckSeededShuffle() {
+            ShuffleSource[][] sources = {
+                    {ShuffleSource.seeded(42), ShuffleSource.seeded(42)},
+                    {ShuffleSource.xoroshiro(42), ShuffleSource.xoroshiro(42)}
+            };
+            for (ShuffleSource[] pair : sources) {
+                Deck deck1 = Deck.standard(pair[0]);
+                Deck deck2 = Deck.standard(pair[1]);
+                deck1.shuffle();
+                deck2.shuffle();
+                for (int i = 0; i < 52; i++) {
+                    assertSame(deck1.draw(), deck2.draw());
+                }
+            }
+
+            Deck deck = new Deck();
+            deck.shuffle(ShuffleSource.threadLocal());
+            deck.shuffle(ShuffleSource.splittable());
+            assertEquals(52, deck.size());
+            assertThrows(IllegalArgumentException.class, () -> deck.shuffle(null));
+        }
+
+        @Test
+        @DisplayName("bulk draw matches drawing one at a time")
+        public void testDeckBulkDraw() {
+            for (Deck deck : new Deck[]{Deck.standard(ShuffleSource.seeded(3)), new ConcurrentDeck(Deck.STANDARD_ORDER, ShuffleSource.seeded(3))}) {
+                Deck single = Deck.standard(ShuffleSource.seeded(3));
+                deck.shuffle();
+                single.shuffle();
+
+                Card[] drawn = deck.draw(5);
+                assertEquals(5, drawn.length);
+                for (Card card : drawn) {
+                    assertSame(single.draw(), card);
+                }
+
+                Card[] buffer = new Card[50];
+                assertEquals(47, deck.drawInto(buffer, 2, 48));
+                for (int i = 0; i < 47; i++) {
+                    assertSame(single.draw(), buffer[2 + i]);
+                }
+                assertEquals(0, deck.size());
+                assertEquals(0, deck.draw(3).length);
+                assertThrows(IllegalArgumentException.class, () -> deck.draw(-1));
+                assertThrows(IllegalArgumentException.class, () -> deck.drawInto(new Card[2], 1, 2));
+                assertThrows(IllegalArgumentException.class, () -> deck.drawInto(null, 0, 1));
+            }
+        }
+
+        @Test
+        @DisplayName("recycleFrom moves the pile into the deck at random positions")
+        public void testDeckRecycleFrom() {
+            for (Deck deck : new Deck[]{Deck.standard(ShuffleSource.seeded(8)), new ConcurrentDeck(Deck.STANDARD_ORDER, ShuffleSource.seeded(8))}) {
+                deck.shuffle();
+                DiscardPile pile = new DiscardPile();
+                for (int i = 0; i < 20; i++) {
+                    pile.addCard(deck.draw());
+                }
+                assertEquals(20, deck.recycleFrom(pile));
+                assertEquals(0, pile.size());
+                assertEquals(52, deck.size());
+
+                java.util.Set<Card> seen = new java.util.HashSet<>();
+                for (Card card : deck.draw(52)) {
+                    assertTrue(seen.add(card));
+                }
+                assertEquals(52, seen.size());
+                assertEquals(0, deck.recycleFrom(new DiscardPile()));
+                assertThrows(IllegalArgumentException.class, () -> deck.recycleFrom(null));
+            }
+
+            // a single recycled card must be able to land anywhere in the deck
+            int[] positions = new int[11];
+            Deck deck = new Deck(new Card[10], ShuffleSource.seeded(1));
+            Card marker = new Card("Joker", "Red", 99);
+            for (int i = 0; i < 11000; i++) {
+                deck.reset();
+                for (int c = 0; c < 10; c++) {
+                    deck.addCard(Card.standard(c));
+                }
+                DiscardPile pile = new DiscardPile();
+                pile.addCard(marker);
+                deck.recycleFrom(pile);
+                Card[] order = deck.draw(11);
+                for (int p = 0; p < order.length; p++) {
+                    if (order[p] == marker) {
+                        positions[p]++;
+                    }
+                }
+            }
+            for (int count : positions) {
+                assertTrue(count > 800 && count < 1200, java.util.Arrays.toString(positions));
+            }
+        }
+
+        @Test
+        @DisplayName("lazy shuffle deals what an eager shuffle deals")
+        public void testDeckLazyShuffle() {
+            Deck eager = Deck.standard(ShuffleSource.seeded(5));
+            Deck lazy = Deck.standard(ShuffleSource.seeded(5));
+            lazy.setLazyShuffle(true);
+            assertTrue(lazy.isLazyShuffle());
+            eager.shuffle();
+            lazy.shuffle();
+            assertArrayEquals(eager.draw(10), lazy.draw(10));
+            // exposing the order finishes the shuffle the same way
+            assertArrayEquals(eager.toArray(), lazy.toArray());
+            assertArrayEquals(eager.draw(42), lazy.draw(42));
+
+            // cards added after a shuffle stay on top, reshuffle mixes everything
+            lazy.reset();
+            lazy.shuffle();
+            Card marker = new Card("Joker", "Red", 99);
+            lazy.addCard(marker);
+            assertSame(marker, lazy.draw());
+            lazy.reshuffle(new Card[]{marker});
+            java.util.Set<Card> seen = new java.util.HashSet<>(java.util.Arrays.asList(lazy.draw(53)));
+            assertEquals(53, seen.size());
+            assertTrue(seen.contains(marker));
+
+            // recycling into a lazily shuffled deck keeps every card
+            lazy.reset();
+            lazy.shuffle();
+            DiscardPile pile = new DiscardPile();
+            for (Card card : lazy.draw(20)) {
+                pile.addCard(card);
+            }
+            assertEquals(20, lazy.recycleFrom(pile));
+            assertEquals(52, new java.util.HashSet<>(java.util.Arrays.asList(lazy.draw(52))).size());
+
+            assertThrows(UnsupportedOperationException.class, () -> new ConcurrentDeck().setLazyShuffle(true));
+        }
+
         @Nested
         @DisplayName("Deck Exception Handling Tests")
         class DeckExceptionTests {
@@ -389,6 +566,68 @@ public class ProblemSetTest {
             assertTrue(result.contains("King of Spades"));
         }
 
+        @Test
+        @DisplayName("removeCard with duplicates keeps order")
+        public void testDiscardPileRemoveDuplicates() {
+            DiscardPile pile = new DiscardPile();
+            for (int deck = 0; deck < 40; deck++) {
+                Deck standard = new Deck();
+                while (standard.size() > 0) {
+                    pile.addCard(standard.draw());
+                }
+            }
+            Card joker = new Card("Joker", "Red", 0);
+            pile.addCard(joker);
+            assertEquals(2081, pile.size());
+
+            for (int i = 0; i < 39; i++) {
+                assertNotNull(pile.removeCard(new Card("Ace", "Hearts", 1)));
+            }
+            assertSame(joker, pile.removeCard(new Card("Joker", "Red", 0)));
+            assertNull(pile.removeCard(joker));
+            assertEquals(2041, pile.size());
+
+            Card[] cards = pile.getDiscardPile();
+            assertEquals(2041, cards.length);
+            assertEquals(new Card("King", "Spades", 13), cards[0]);
+            assertEquals(new Card("Ace", "Hearts", 1), cards[cards.length - 1]);
+
+            for (Card card : cards) {
+                assertNotNull(pile.removeCard(card));
+            }
+            assertEquals(0, pile.size());
+            assertEquals("Empty discard pile", pile.toString());
+        }
+
+        @Test
+        @DisplayName("live view, forEachCard and copyInto")
+        public void testDiscardPileViews() {
+            DiscardPile pile = new DiscardPile(new Card[]{Card.standard(0), Card.standard(1), Card.standard(2)});
+            List<Card> view = pile.getDiscardPileView();
+            pile.removeCard(Card.standard(1));
+            assertEquals(2, view.size());
+            assertSame(Card.standard(2), view.get(1));
+            assertThrows(UnsupportedOperationException.class, () -> view.add(Card.standard(3)));
+
+            Card[] buffer = new Card[4];
+            assertEquals(2, pile.copyInto(buffer, 2));
+            assertSame(Card.standard(0), buffer[2]);
+            assertThrows(IllegalArgumentException.class, () -> pile.copyInto(buffer, 3));
+
+            List<Card> seen = new ArrayList<>();
+            pile.forEachCard(seen::add);
+            assertEquals(view, seen);
+
+            // reads skip the empty slots, a hole at the front included
+            pile.addCard(Card.standard(3));
+            pile.removeCard(Card.standard(0));
+            assertEquals(java.util.Arrays.asList(Card.standard(2), Card.standard(3)), new ArrayList<>(view));
+            assertArrayEquals(new Card[]{Card.standard(2), Card.standard(3)}, pile.getDiscardPile());
+            assertSame(Card.standard(3), view.get(1));
+            assertSame(Card.standard(2), pile.removeCard(Card.standard(2)));
+            assertEquals(java.util.Collections.singletonList(Card.standard(3)), view);
+        }
+
         @Test
         @DisplayName("toString empty discard pile")
         public void testDiscardPileToStringEmpty() {
@@ -577,6 +816,178 @@ public class ProblemSetTest {
             assertTrue(result.contains("King of Spades"));
         }
 
+        @Test
+        @DisplayName("Bitset hand behaves like list hand")
+        public void testPlayerBitsetHand() {
+            Player player = new Player("Olga", 22, new Card[0], Player.HandType.BITSET);
+            Deck deck = new Deck();
+            for (int i = 0; i < 10; i++) {
+                player.draw(deck);
+            }
+            player.draw(new Deck(new Card[]{new Card("Joker", "Red", 0), new Card("King", "Spades", 13)}));
+            player.draw(new Deck(new Card[]{new Card("Joker", "Red", 0)}));
+            assertEquals(12, player.size());
+
+            Card highest = player.getHighestValueCard();
+            assertEquals(13, highest.getValue());
+            assertTrue(player.removeCardFromHand(new Card("King", "Spades", 13)));
+            assertTrue(player.removeCardFromHand(new Card("Joker", "Red", 0)));
+            assertFalse(player.removeCardFromHand(new Card("Ace", "Spades", 14)));
+            assertEquals(10, player.size());
+            assertEquals(10, player.getHand().length);
+            assertTrue(player.toString().contains("King of Spades"));
+        }
+
+        @Test
+        @DisplayName("Every hand type orders cards by value the same way")
+        public void testPlayerHandTypesAgree() {
+            Card[] cards = new Card[60];
+            for (int i = 0; i < 52; i++) {
+                cards[i] = Card.standard((i * 7) % 52);
+            }
+            for (int i = 52; i < 60; i++) {
+                cards[i] = new Card("Big", "Custom", 60 + (i % 3) * 10);
+            }
+            for (Player.HandType type : Player.HandType.values()) {
+                Player player = new Player("Paul", 19, cards, type);
+                assertEquals(4, player.getCardsOfValue(7).length, type.name());
+                assertEquals(3, player.getCardsOfValue(70).length, type.name());
+                assertEquals(1, player.getLowestValueCard().getValue(), type.name());
+
+                int previous = Integer.MAX_VALUE;
+                for (int i = 0; i < 60; i++) {
+                    Card highest = player.getHighestValueCard();
+                    Card polled = player.pollHighestValueCard();
+                    assertSame(highest, polled, type.name());
+                    assertTrue(polled.getValue() <= previous, type.name());
+                    previous = polled.getValue();
+                }
+                assertNull(player.pollHighestValueCard());
+                assertEquals(0, player.size());
+            }
+        }
+
+        @Test
+        @DisplayName("hand get checks its bounds before any lazily created storage")
+        public void testHandGetBounds() {
+            Hand[] hands = {new BitsetHand(), new ValueOrderedHand()};
+            for (Hand hand : hands) {
+                // nothing beyond the mask or the small buckets has been created yet
+                hand.add(Card.standard(5));
+                assertEquals(Card.standard(5), hand.get(0));
+                assertThrows(IndexOutOfBoundsException.class, () -> hand.get(1));
+                assertThrows(IndexOutOfBoundsException.class, () -> hand.get(-1));
+            }
+        }
+
+        @Test
+        @DisplayName("live hand view, forEachCard and copyInto")
+        public void testPlayerViews() {
+            for (Player.HandType type : Player.HandType.values()) {
+                Player player = new Player("Quinn", 21, new Card[0], type);
+                List<Card> view = player.getHandView();
+                Deck deck = new Deck();
+                deck.addCard(new Card("Joker", "Red", 99));
+                for (int i = 0; i < 6; i++) {
+                    player.draw(deck);
+                }
+                assertEquals(6, view.size(), type.name());
+                assertEquals(java.util.Arrays.asList(player.getHand()), view, type.name());
+
+                Card[] buffer = new Card[8];
+                assertEquals(6, player.copyInto(buffer, 1));
+                assertEquals(view, java.util.Arrays.asList(buffer).subList(1, 7), type.name());
+
+                List<Card> seen = new ArrayList<>();
+                player.forEachCard(seen::add);
+                assertEquals(view, seen, type.name());
+                assertThrows(UnsupportedOperationException.class, () -> view.remove(0));
+
+                // iterators walk the storage: mask, second copies, big values
+                Player mixed = new Player("Rory", 30, new Card[]{Card.standard(40), new Card("Joker", "Red", 99),
+                        Card.standard(3), Card.standard(40), new Card("Joker", "Black", 70)}, type);
+                List<Card> iterated = new ArrayList<>();
+                java.util.Iterator<Card> iterator = mixed.getHandView().iterator();
+                while (iterator.hasNext()) {
+                    iterated.add(iterator.next());
+                }
+                assertEquals(java.util.Arrays.asList(mixed.getHand()), iterated, type.name());
+                assertThrows(java.util.NoSuchElementException.class, iterator::next);
+                assertEquals(type == Player.HandType.LIST, view instanceof java.util.RandomAccess, type.name());
+            }
+        }
+
+        @Test
+        @DisplayName("bulk draw and round-robin deal")
+        public void testPlayerBulkDrawAndDeal() {
+            for (Player.HandType type : Player.HandType.values()) {
+                Deck deck = new Deck();
+                Deck expected = new Deck();
+                Player[] players = {
+                        new Player("A", 20, new Card[0], type),
+                        new Player("B", 21, new Card[0], type),
+                        new Player("C", 22, new Card[0], type)
+                };
+                Player[] sequential = {new Player("A", 20), new Player("B", 21), new Player("C", 22)};
+
+                assertEquals(12, Player.deal(deck, players, 4));
+                for (int i = 0; i < 4; i++) {
+                    for (Player player : sequential) {
+                        player.draw(expected);
+                    }
+                }
+                for (int p = 0; p < players.length; p++) {
+                    assertEquals(4, players[p].size(), type.name());
+                    for (Card card : sequential[p].getHand()) {
+                        assertTrue(players[p].removeCardFromHand(card), type.name());
+                    }
+                }
+
+                assertEquals(40, players[0].draw(deck, 45));
+                assertEquals(40, players[0].size());
+                assertEquals(0, Player.deal(deck, players, 2));
+            }
+            assertThrows(IllegalArgumentException.class, () -> Player.deal(null, new Player[0], 1));
+            assertThrows(IllegalArgumentException.class, () -> Player.deal(new Deck(), new Player[]{null}, 1));
+            assertThrows(IllegalArgumentException.class, () -> Player.deal(new Deck(), new Player[0], -1));
+            assertThrows(IllegalArgumentException.class, () -> new Player("A", 20).draw(null, 1));
+        }
+
+        @Test
+        @DisplayName("appendTo renders the same text as toString")
+        public void testAppendTo() throws Exception {
+            Card joker = new Card("Joker", "Red", 99);
+            assertEquals("Joker of Red", joker.appendTo(new StringBuilder()).toString());
+            assertSame(Card.standard(0).toString(), new Card("Ace", "Hearts", 1).toString());
+
+            StringBuilder sb = new StringBuilder();
+            for (Player.HandType type : Player.HandType.values()) {
+                Player player = new Player("Quinn", 21, new Card[0], type);
+                sb.setLength(0);
+                assertEquals(player.toString(), player.appendTo(sb).toString());
+                assertEquals("Quinn, 21, Empty hand.", sb.toString());
+                java.io.StringWriter empty = new java.io.StringWriter();
+                player.appendTo((Appendable) empty);
+                assertEquals("Quinn, 21, Empty hand.", empty.toString());
+
+                player.draw(Deck.standard(ShuffleSource.seeded(2)), 7);
+                player.draw(new Deck(new Card[]{joker}));
+                sb.setLength(0);
+                assertEquals(player.toString(), player.appendTo(sb).toString(), type.name());
+                java.io.StringWriter writer = new java.io.StringWriter();
+                player.appendTo((Appendable) writer);
+                assertEquals(player.toString(), writer.toString(), type.name());
+            }
+
+            DiscardPile pile = new DiscardPile(new Card[]{Card.standard(3), joker, Card.standard(7)});
+            pile.removeCard(joker);
+            java.io.StringWriter writer = new java.io.StringWriter();
+            pile.appendTo((Appendable) writer);
+            assertEquals("Ace of Spades, 2 of Spades.", writer.toString());
+            assertEquals(pile.toString(), pile.appendTo(new StringBuilder()).toString());
+            assertEquals("Empty discard pile", new DiscardPile().appendTo(new StringBuilder()).toString());
+        }
+
         @Nested
         @DisplayName("Player Exception Handling Tests")
         class PlayerExceptionTests {
@@ -645,6 +1056,1182 @@ public class ProblemSetTest {
                 fail("drawCards method invocation failed: " + e.getMessage());
             }
         }
+
+        @Test
+        @DisplayName("listener receives events and NONE prints nothing")
+        public void testSelfPlayedGameListener() {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            PrintStream originalOut = System.out;
+            System.setOut(new PrintStream(outputStream));
+            int[] events = new int[3];
+            try {
+                SelfPlayedGame quiet = new SelfPlayedGame("P1", "P2", ShuffleSource.seeded(1), GameListener.NONE);
+                quiet.playGame();
+
+                SelfPlayedGame counted = new SelfPlayedGame("P1", "P2", ShuffleSource.seeded(1), new GameListener() {
+                    @Override
+                    public void onCardPlayed(Player player, Card card) {
+                        events[0]++;
+                    }
+
+                    @Override
+                    public void onRoundWon(int round, Player winner, Player player1, int player1Score,
+                                           Player player2, int player2Score) {
+                        events[1]++;
+                    }
+
+                    @Override
+                    public void onGameOver(Player player1, int player1Score, Player player2, int player2Score,
+                                           Player winner) {
+                        events[2]++;
+                    }
+                });
+                counted.playGame();
+                assertEquals(quiet.getPlayer1Score(), counted.getPlayer1Score());
+            } finally {
+                System.setOut(originalOut);
+            }
+            assertEquals("", outputStream.toString());
+            assertArrayEquals(new int[]{10, 5, 1}, events);
+        }
+
+        @Test
+        @DisplayName("reset lets a game be played again")
+        public void testSelfPlayedGameReset() {
+            PrintStream originalOut = System.out;
+            System.setOut(new PrintStream(new ByteArrayOutputStream()));
+            try {
+                SelfPlayedGame game = new SelfPlayedGame("P1", "P2");
+                game.playGame();
+                game.reset();
+                game.playGame();
+            } finally {
+                System.setOut(originalOut);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Shoe Class Tests")
+    class ShoeExecuteTests {
+
+        @Test
+        @DisplayName("cut card and refill")
+        public void testShoeCutCardAndRefill() {
+            Shoe shoe = new Shoe(6, 0.75, ShuffleSource.seeded(5));
+            assertEquals(312, shoe.size());
+            DiscardPile pile = new DiscardPile();
+
+            int dealt = 0;
+            while (!shoe.isCutCardReached()) {
+                pile.addCard(shoe.draw());
+                dealt++;
+            }
+            assertEquals(234, dealt);
+
+            assertEquals(234, shoe.refill(pile));
+            assertEquals(312, shoe.size());
+            assertEquals(0, pile.size());
+            assertFalse(shoe.isCutCardReached());
+        }
+
+        @Test
+        @DisplayName("invalid configuration")
+        public void testShoeInvalid() {
+            assertThrows(IllegalArgumentException.class, () -> new Shoe(0, 0.5));
+            assertThrows(IllegalArgumentException.class, () -> new Shoe(6, 0));
+            assertThrows(IllegalArgumentException.class, () -> new Shoe(6, 1.5));
+            assertThrows(IllegalArgumentException.class, () -> new Shoe(6, 0.5).refill(null));
+        }
+    }
+
+    @Nested
+    @DisplayName("TableSnapshot Class Tests")
+    class TableSnapshotExecuteTests {
+
+        @Test
+        @DisplayName("round trip through a buffer")
+        public void testSnapshotRoundTrip() {
+            Deck deck = Deck.standard(ShuffleSource.seeded(4));
+            deck.shuffle();
+            Card joker = new Card("Joker", "Red", 99);
+            deck.addCard(joker);
+            DiscardPile pile = new DiscardPile(new Card[]{deck.draw(), deck.draw()});
+            Player[] players = {
+                    new Player("Alice", 30, new Card[0], Player.HandType.BITSET),
+                    new Player("Bob", 41)
+            };
+            Player.deal(deck, players, 3);
+            players[1].draw(new Deck(new Card[]{joker}));
+            TableSnapshot snapshot = TableSnapshot.of(deck, pile, players, new int[]{2, 1});
+
+            java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocate(snapshot.encodedSize());
+            snapshot.write(buffer);
+            assertFalse(buffer.hasRemaining());
+            buffer.flip();
+            TableSnapshot read = TableSnapshot.read(buffer);
+
+            Deck restored = read.restoreDeck(ShuffleSource.seeded(0));
+            assertEquals(deck.size(), restored.size());
+            while (deck.size() > 0) {
+                assertEquals(deck.draw(), restored.draw());
+            }
+            assertArrayEquals(pile.getDiscardPile(), read.restoreDiscardPile().getDiscardPile());
+            assertEquals(2, read.getPlayerCount());
+            for (int i = 0; i < 2; i++) {
+                Player player = read.restorePlayer(i);
+                assertEquals(players[i].getName(), player.getName());
+                assertEquals(players[i].getAge(), player.getAge());
+                assertArrayEquals(players[i].getHand(), player.getHand());
+            }
+            assertEquals(2, read.getScore(0));
+            assertEquals(1, read.getScore(1));
+            assertEquals(joker, read.getHand(1)[3]);
+
+            buffer.flip();
+            buffer.put(4, (byte) 99);
+            assertThrows(IllegalArgumentException.class, () -> TableSnapshot.read(buffer));
+            assertThrows(IllegalArgumentException.class, () -> TableSnapshot.read(java.nio.ByteBuffer.allocate(3)));
+        }
+
+        @Test
+        @DisplayName("game snapshots through a mapped file")
+        public void testSnapshotFile() throws Exception {
+            SelfPlayedGame game = new SelfPlayedGame("A", "B", ShuffleSource.seeded(6), GameListener.NONE);
+            game.drawCards();
+            List<TableSnapshot> snapshots = new ArrayList<>();
+            snapshots.add(game.snapshot());
+            game.playRound(1);
+            snapshots.add(game.snapshot());
+            int score1 = game.getPlayer1Score();
+            int score2 = game.getPlayer2Score();
+
+            java.nio.file.Path file = java.nio.file.Files.createTempFile("tables", ".bin");
+            try {
+                TableSnapshot.writeAll(file, snapshots);
+                List<TableSnapshot> read = TableSnapshot.readAll(file);
+                assertEquals(2, read.size());
+
+                game.restore(read.get(0));
+                assertEquals(0, game.getPlayer1Score() + game.getPlayer2Score());
+                assertEquals(42, game.snapshot().getDeckCards().length);
+                game.playRound(1);
+                assertEquals(score1, game.getPlayer1Score());
+                assertEquals(score2, game.getPlayer2Score());
+
+                assertEquals(2, game.snapshot().getDiscardPileCards().length);
+
+                game.restore(read.get(1));
+                assertEquals(score1, game.getPlayer1Score());
+                assertEquals(4, game.snapshot().getHand(0).length);
+                assertArrayEquals(read.get(1).getDiscardPileCards(), game.snapshot().getDiscardPileCards());
+                assertEquals(2, read.get(1).getDiscardPileCards().length);
+                game.restore(read.get(0));
+                assertEquals(0, game.snapshot().getDiscardPileCards().length);
+                assertThrows(IllegalArgumentException.class, () -> game.restore(null));
+            } finally {
+                java.nio.file.Files.delete(file);
+            }
+        }
+
+        @Test
+        @DisplayName("indexes a file mapped a window at a time and decodes tables on demand")
+        public void testSnapshotIndex() throws Exception {
+            List<TableSnapshot> snapshots = new ArrayList<>();
+            SelfPlayedGame game = new SelfPlayedGame("A", "B", ShuffleSource.seeded(8), GameListener.NONE);
+            for (int i = 0; i < 40; i++) {
+                game.reset();
+                game.drawCards();
+                for (int round = 1; round <= i % 6; round++) {
+                    game.playRound(round);
+                }
+                snapshots.add(game.snapshot());
+            }
+            // one table far bigger than the windows
+            Card[] cards = new Card[2000];
+            for (int i = 0; i < cards.length; i++) {
+                cards[i] = i % 2 == 0 ? Card.standard(i % 52) : new Card("Custom" + i % 300, "Test", i % 300);
+            }
+            Deck big = new Deck(cards, ShuffleSource.seeded(1));
+            snapshots.add(20, TableSnapshot.of(big, new DiscardPile(), new Player[]{new Player("C", 5)}, new int[]{7}));
+
+            java.nio.file.Path file = java.nio.file.Files.createTempFile("tables", ".bin");
+            try {
+                TableSnapshot.writeAll(file, snapshots, 300);
+                for (int windowSize : new int[]{64, 300, 1 << 20}) {
+                    TableSnapshot.Index index = TableSnapshot.index(file, windowSize);
+                    assertEquals(snapshots.size(), index.size());
+                    for (int i = index.size() - 1; i >= 0; i--) {
+                        TableSnapshot expected = snapshots.get(i);
+                        TableSnapshot read = index.get(i);
+                        assertArrayEquals(expected.getDeckCards(), read.getDeckCards());
+                        assertArrayEquals(expected.getDiscardPileCards(), read.getDiscardPileCards());
+                        assertEquals(expected.getPlayerCount(), read.getPlayerCount());
+                        for (int seat = 0; seat < read.getPlayerCount(); seat++) {
+                            assertArrayEquals(expected.getHand(seat), read.getHand(seat));
+                            assertEquals(expected.getScore(seat), read.getScore(seat));
+                        }
+                    }
+                    assertThrows(IllegalArgumentException.class, () -> index.get(index.size()));
+                }
+                assertEquals(snapshots.size(), TableSnapshot.readAll(file).size());
+
+                try (java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(file,
+                        java.nio.file.StandardOpenOption.WRITE)) {
+                    channel.truncate(channel.size() - 1);
+                }
+                assertThrows(IllegalArgumentException.class, () -> TableSnapshot.index(file, 300));
+            } finally {
+                java.nio.file.Files.delete(file);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("GameJournal Class Tests")
+    class GameJournalExecuteTests {
+
+        @Test
+        @DisplayName("journal two games and replay them at any offset")
+        public void testJournalReplay() throws Exception {
+            java.nio.file.Path file = java.nio.file.Files.createTempFile("games", ".journal");
+            try {
+                int[] scores = new int[4];
+                try (GameJournal journal = new GameJournal(file, GameListener.NONE, 8)) {
+                    SelfPlayedGame game = new SelfPlayedGame("A", "B", journal.seededSource(9), journal);
+                    // cards drawn before a reset are not part of any game
+                    game.drawCards();
+                    game.reset();
+                    game.playGame();
+                    scores[0] = game.getPlayer1Score();
+                    scores[1] = game.getPlayer2Score();
+                    game.reset();
+                    game.playGame();
+                    scores[2] = game.getPlayer1Score();
+                    scores[3] = game.getPlayer2Score();
+                }
+
+                JournalReplayer replayer = JournalReplayer.open(file);
+                assertEquals(57, replayer.getEventCount());
+                assertEquals(GameJournal.EventType.SEED, replayer.getEventType(0));
+                assertEquals(GameJournal.EventType.RESET, replayer.getEventType(1));
+                assertEquals(GameJournal.EventType.GAME_OVER, replayer.getEventType(56));
+
+                replayer.seek(13);
+                assertEquals(5, replayer.getPlayer(0).size());
+                assertEquals(5, replayer.getPlayer(1).size());
+                assertEquals(42, replayer.getDeck().size());
+
+                replayer.seek(29);
+                assertEquals(scores[0], replayer.getScore(0));
+                assertEquals(scores[1], replayer.getScore(1));
+                assertEquals(5, replayer.getRound());
+                assertEquals(10, replayer.getDiscardPile().size());
+                assertEquals(0, replayer.getPlayer(0).size());
+
+                replayer.seek(57);
+                assertEquals(scores[2], replayer.getScore(0));
+                assertEquals(scores[3], replayer.getScore(1));
+
+                // going back replays from the start
+                replayer.seek(1);
+                assertEquals(52, replayer.getDeck().size());
+                assertEquals(0, replayer.getScore(0));
+                assertThrows(IllegalArgumentException.class, () -> replayer.seek(58));
+            } finally {
+                java.nio.file.Files.delete(file);
+            }
+        }
+
+        @Test
+        @DisplayName("only journals the players of the game, with hands in deal order")
+        public void testJournalPlayers() throws Exception {
+            java.nio.file.Path file = java.nio.file.Files.createTempFile("games", ".journal");
+            try (GameJournal journal = new GameJournal(file, GameListener.NONE)) {
+                Player a = new Player("A", 1);
+                Player b = new Player("B", 1);
+                Player sorted = new Player("S", 1, new Card[0], Player.HandType.VALUE_ORDERED);
+                assertThrows(IllegalArgumentException.class, () -> journal.onGameStarted(a, sorted));
+                journal.onGameStarted(a, b);
+                assertThrows(IllegalArgumentException.class, () -> journal.onCardsDealt(b, a));
+                assertThrows(IllegalArgumentException.class,
+                        () -> journal.onCardPlayed(new Player("C", 1), new Card("Ace", "Hearts", 1)));
+            } finally {
+                java.nio.file.Files.delete(file);
+            }
+        }
+
+        @Test
+        @DisplayName("replays across mapped chunks and reports corrupted records")
+        public void testJournalChunksAndCorruption() throws Exception {
+            java.nio.file.Path file = java.nio.file.Files.createTempFile("games", ".journal");
+            try {
+                int games = 0;
+                try (GameJournal journal = new GameJournal(file, GameListener.NONE)) {
+                    SelfPlayedGame game = new SelfPlayedGame("A", "B", journal.seededSource(5), journal);
+                    // more records than one mapped chunk holds
+                    for (; games * 28L <= GameJournal.CHUNK_RECORDS; games++) {
+                        game.reset();
+                        game.playGame();
+                    }
+                }
+                JournalReplayer replayer = JournalReplayer.open(file);
+                assertEquals(1 + games * 28L, replayer.getEventCount());
+                assertEquals(GameJournal.EventType.GAME_OVER, replayer.getEventType(replayer.getEventCount() - 1));
+                replayer.seek(replayer.getEventCount());
+                assertEquals(5, replayer.getRound());
+
+                // a play from seat -1, then also a draw of card ordinal 60
+                try (java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(file,
+                        java.nio.file.StandardOpenOption.WRITE)) {
+                    long play = GameJournal.HEADER_SIZE + 13L * GameJournal.RECORD_SIZE;
+                    channel.write(java.nio.ByteBuffer.wrap(new byte[]{(byte) -1}), play + 1);
+                }
+                JournalReplayer badPlay = JournalReplayer.open(file);
+                assertEquals(GameJournal.EventType.PLAY, badPlay.getEventType(13));
+                badPlay.seek(13);
+                IllegalStateException e = assertThrows(IllegalStateException.class, () -> badPlay.seek(14));
+                assertEquals("Corrupted journal record at offset 13", e.getMessage());
+
+                try (java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(file,
+                        java.nio.file.StandardOpenOption.WRITE)) {
+                    long draw = GameJournal.HEADER_SIZE + 3L * GameJournal.RECORD_SIZE;
+                    channel.write(java.nio.ByteBuffer.wrap(new byte[]{0, 0, 0, 60}), draw + 4);
+                }
+                JournalReplayer badDraw = JournalReplayer.open(file);
+                e = assertThrows(IllegalStateException.class, () -> badDraw.seek(4));
+                assertEquals("Corrupted journal record at offset 3", e.getMessage());
+            } finally {
+                java.nio.file.Files.delete(file);
+            }
+        }
+
+        @Test
+        @DisplayName("replays a flushed journal that was not closed")
+        public void testJournalReplayUnclosed() throws Exception {
+            java.nio.file.Path file = java.nio.file.Files.createTempFile("games", ".journal");
+            GameJournal journal = new GameJournal(file, GameListener.NONE);
+            try {
+                SelfPlayedGame game = new SelfPlayedGame("A", "B", journal.seededSource(3), journal);
+                game.reset();
+                game.playGame();
+                journal.flush();
+
+                // the file still holds the whole zero filled chunk
+                JournalReplayer replayer = JournalReplayer.open(file);
+                assertEquals(29, replayer.getEventCount());
+                assertEquals(GameJournal.EventType.GAME_OVER, replayer.getEventType(28));
+                replayer.seek(29);
+                assertEquals(game.getPlayer1Score(), replayer.getScore(0));
+                assertEquals(game.getPlayer2Score(), replayer.getScore(1));
+            } finally {
+                journal.close();
+                java.nio.file.Files.delete(file);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("ConcurrentDeck Class Tests")
+    class ConcurrentDeckExecuteTests {
+
+        @Test
+        @DisplayName("behaves like a deck on one thread")
+        public void testConcurrentDeckSingleThread() {
+            ConcurrentDeck deck = new ConcurrentDeck();
+            assertEquals(52, deck.size());
+            assertEquals(new Deck().draw(), deck.draw());
+            deck.shuffle();
+            deck.addCard(new Card("Joker", "Red", 0));
+            assertEquals(52, deck.size());
+            assertEquals(new Card("Joker", "Red", 0), deck.draw());
+            deck.reset();
+            assertEquals(52, deck.size());
+
+            ConcurrentDeck empty = new ConcurrentDeck(new Card[0], ShuffleSource.seeded(3));
+            assertNull(empty.draw());
+            assertThrows(IllegalStateException.class, empty::shuffle);
+            assertThrows(IllegalArgumentException.class, () -> empty.addCard(null));
+        }
+
+        @Test
+        @DisplayName("every card is drawn exactly once across threads")
+        public void testConcurrentDeckDraws() throws Exception {
+            int initial = 20_000;
+            int added = 5_000;
+            Card[] cards = new Card[initial];
+            for (int i = 0; i < initial; i++) {
+                cards[i] = new Card("Card" + i, "Test", i);
+            }
+            ConcurrentDeck deck = new ConcurrentDeck(cards, ShuffleSource.seeded(11));
+
+            int threads = 4;
+            java.util.Set<Card> drawn = java.util.Collections.newSetFromMap(new java.util.concurrent.ConcurrentHashMap<>());
+            java.util.concurrent.atomic.AtomicInteger duplicates = new java.util.concurrent.atomic.AtomicInteger();
+            java.util.concurrent.CountDownLatch addsDone = new java.util.concurrent.CountDownLatch(1);
+            Thread writer = new Thread(() -> {
+                Card[] batch = new Card[100];
+                for (int i = 0; i < added; i += batch.length) {
+                    for (int j = 0; j < batch.length; j++) {
+                        batch[j] = new Card("Added" + (i + j), "Test", i + j);
+                    }
+                    deck.reshuffle(batch);
+                }
+                addsDone.countDown();
+            });
+            Thread[] dealers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                dealers[t] = new Thread(() -> {
+                    while (true) {
+                        Card card = deck.draw();
+                        if (card == null) {
+                            if (addsDone.getCount() == 0 && deck.size() == 0) {
+                                return;
+                            }
+                            continue;
+                        }
+                        if (!drawn.add(card)) {
+                            duplicates.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            writer.start();
+            for (Thread dealer : dealers) {
+                dealer.start();
+            }
+            writer.join();
+            for (Thread dealer : dealers) {
+                dealer.join();
+            }
+            assertEquals(0, duplicates.get());
+            assertEquals(initial + added, drawn.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("HighCardSimulation Class Tests")
+    class HighCardSimulationExecuteTests {
+
+        @Test
+        @DisplayName("run adds up and repeats with the same seed")
+        public void testSimulationRun() {
+            HighCardSimulation.Result result = HighCardSimulation.run(20_000, 2, 7);
+            assertEquals(20_000, result.getGames());
+            assertEquals(result.getGames(), result.getPlayer1Wins() + result.getPlayer2Wins() + result.getTies());
+
+            long total = 0;
+            for (int i = 0; i <= 5; i++) {
+                for (int j = 0; j <= 5; j++) {
+                    total += result.getScoreCount(i, j);
+                }
+            }
+            assertEquals(result.getGames(), total);
+
+            HighCardSimulation.Result again = HighCardSimulation.run(20_000, 2, 7);
+            assertEquals(result.getPlayer1Wins(), again.getPlayer1Wins());
+            assertEquals(result.getTies(), again.getTies());
+        }
+    }
+
+    @Nested
+    @DisplayName("GameMetrics Class Tests")
+    class GameMetricsExecuteTests {
+
+        @Test
+        @DisplayName("counts only while enabled, readable through JMX")
+        public void testGameMetrics() throws Exception {
+            GameMetrics metrics = GameMetrics.get();
+            metrics.reset();
+            metrics.setEnabled(false);
+            try {
+                Deck deck = Deck.standard(ShuffleSource.seeded(1));
+                deck.shuffle();
+                deck.draw();
+                assertEquals(0, metrics.getShuffleCount() + metrics.getDrawCount());
+
+                metrics.setEnabled(true);
+                deck.shuffle();
+                deck.draw();
+                deck.draw(3);
+                deck.reshuffle(new Card[]{Card.standard(0)});
+                Player player = new Player("Quinn", 21);
+                player.draw(deck, 3);
+                DiscardPile pile = new DiscardPile();
+                Card[] hand = player.getHand();
+                player.discardCard(hand[0], pile);
+                player.returnCard(hand[1], deck);
+                pile.removeCard(hand[0]);
+                pile.removeCard(hand[0]);
+                SelfPlayedGame game = new SelfPlayedGame("A", "B", ShuffleSource.seeded(2), GameListener.NONE);
+                game.drawCards();
+                game.playRound(1);
+
+                assertEquals(3, metrics.getShuffleCount());
+                assertEquals(1 + 3 + 3 + 10, metrics.getDrawCount());
+                assertEquals(1, metrics.getReshuffleCount());
+                assertEquals(1, metrics.getDiscardCount());
+                assertEquals(1, metrics.getReturnCount());
+                assertEquals(1, metrics.getPileRemoveCount());
+                assertEquals(1, metrics.getRoundCount());
+                assertTrue(metrics.getMeanNanos("SHUFFLE") > 0);
+                assertTrue(metrics.getPercentileNanos("SHUFFLE", 99) >= metrics.getPercentileNanos("SHUFFLE", 50));
+                assertThrows(IllegalArgumentException.class, () -> metrics.getCount("NOPE"));
+
+                GameMetrics.register();
+                GameMetrics.register();
+                javax.management.MBeanServer server = java.lang.management.ManagementFactory.getPlatformMBeanServer();
+                javax.management.ObjectName name = new javax.management.ObjectName(GameMetrics.OBJECT_NAME);
+                assertEquals(1L, server.getAttribute(name, "RoundCount"));
+                server.setAttribute(name, new javax.management.Attribute("Enabled", false));
+                assertFalse(metrics.isEnabled());
+            } finally {
+                metrics.setEnabled(false);
+                metrics.reset();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("WinProbability Class Tests")
+    class WinProbabilityExecuteTests {
+
+        @Test
+        @DisplayName("matches brute force over every opponent hand")
+        public void testWinProbabilityBruteForce() {
+            Deck deck = Deck.standard(ShuffleSource.seeded(12));
+            deck.shuffle();
+            Card[] hand = deck.draw(3);
+            Card[] seen = deck.draw(30);
+            Card[] unseen = deck.draw(19);
+
+            int[] mine = new int[3];
+            for (int i = 0; i < 3; i++) {
+                mine[i] = hand[i].getValue();
+            }
+            java.util.Arrays.sort(mine);
+            double win = 0;
+            double tie = 0;
+            double total = 0;
+            for (int a = 0; a < unseen.length; a++) {
+                for (int b = a + 1; b < unseen.length; b++) {
+                    for (int c = b + 1; c < unseen.length; c++) {
+                        int[] theirs = {unseen[a].getValue(), unseen[b].getValue(), unseen[c].getValue()};
+                        java.util.Arrays.sort(theirs);
+                        int lead = 1;
+                        for (int i = 0; i < 3; i++) {
+                            lead += Integer.compare(mine[i], theirs[i]);
+                        }
+                        total++;
+                        if (lead > 0) {
+                            win++;
+                        } else if (lead == 0) {
+                            tie++;
+                        }
+                    }
+                }
+            }
+
+            WinProbability calculator = new WinProbability();
+            WinProbability.Odds odds = calculator.calculate(hand, seen, 2, 1);
+            assertEquals(total, odds.getHands(), 1e-9);
+            assertEquals(win / total, odds.getWin(), 1e-12);
+            assertEquals(tie / total, odds.getTie(), 1e-12);
+            assertEquals(1.0, odds.getWin() + odds.getTie() + odds.getLoss(), 1e-12);
+            assertSame(odds, calculator.calculate(hand, seen, 3, 2));
+        }
+
+        @Test
+        @DisplayName("large hands and invalid input")
+        public void testWinProbabilityLargeHand() {
+            WinProbability calculator = new WinProbability();
+            Deck deck = Deck.standard(ShuffleSource.seeded(13));
+            Card[] hand = deck.draw(13);
+            WinProbability.Odds odds = calculator.calculate(hand, new Card[0], 0, 0);
+            assertEquals(1.0, odds.getWin() + odds.getTie() + odds.getLoss(), 1e-9);
+            // the top 13 cards of an unshuffled deck are all of one suit, every value once, a fair position
+            assertEquals(odds.getWin(), odds.getLoss(), 1e-9);
+
+            Player player = new Player("Quinn", 21, new Card[]{Card.standard(51)});
+            // a lone king can only tie with another king
+            WinProbability.Odds king = calculator.calculate(player, new DiscardPile(), 0, 0);
+            assertEquals(0.0, king.getLoss(), 1e-12);
+            assertEquals(3.0 / 51, king.getTie(), 1e-12);
+            assertThrows(IllegalArgumentException.class,
+                    () -> calculator.calculate(new Card[]{new Card("Joker", "Red", 99)}, new Card[0], 0, 0));
+            assertThrows(IllegalArgumentException.class,
+                    () -> calculator.calculate(new Card[]{Card.standard(0)}, new Card[]{Card.standard(0)}, 0, 0));
+        }
+    }
+
+    @Nested
+    @DisplayName("Tournament Class Tests")
+    class TournamentExecuteTests {
+
+        @Test
+        @DisplayName("circle method pairs everyone exactly once")
+        public void testTournamentPairings() {
+            for (int n : new int[]{2, 5, 6, 9}) {
+                String[] names = new String[n];
+                for (int i = 0; i < n; i++) {
+                    names[i] = "P" + i;
+                }
+                Tournament tournament = new Tournament(names, 1);
+                int[][] met = new int[n][n];
+                int[] pairs = new int[n + 1];
+                for (int round = 0; round < tournament.getRounds(); round++) {
+                    boolean[] seated = new boolean[n];
+                    int count = tournament.pairings(round, pairs);
+                    for (int p = 0; p < count; p++) {
+                        int a = pairs[p * 2];
+                        int b = pairs[p * 2 + 1];
+                        assertFalse(seated[a] || seated[b]);
+                        seated[a] = seated[b] = true;
+                        met[a][b]++;
+                        met[b][a]++;
+                    }
+                }
+                for (int a = 0; a < n; a++) {
+                    for (int b = 0; b < n; b++) {
+                        assertEquals(a == b ? 0 : 1, met[a][b], n + " players");
+                    }
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("standings add up and do not depend on thread count")
+        public void testTournamentStandings() {
+            Tournament tournament = new Tournament(new String[]{"A", "B", "C", "D", "E"}, 20);
+            Tournament.Standings one = tournament.run(1, 99);
+            Tournament.Standings three = tournament.run(3, 99);
+            assertEquals(200, one.getMatches());
+            assertEquals(tournament.getMatchCount(), three.getMatches());
+
+            long wins = 0;
+            long losses = 0;
+            long played = 0;
+            for (int i = 0; i < 5; i++) {
+                Tournament.Standing a = one.getTable().get(i);
+                Tournament.Standing b = three.getTable().get(i);
+                assertEquals(a.getName(), b.getName());
+                assertEquals(a.getPoints(), b.getPoints());
+                assertEquals(a.getRoundsWon(), b.getRoundsWon());
+                wins += a.getWins();
+                losses += a.getLosses();
+                played += a.getWins() + a.getLosses() + a.getTies();
+                if (i > 0) {
+                    assertTrue(one.getTable().get(i - 1).getPoints() >= a.getPoints());
+                }
+            }
+            assertEquals(wins, losses);
+            assertEquals(400, played);
+            assertThrows(IllegalArgumentException.class, () -> new Tournament(new String[]{"A"}, 1));
+            assertThrows(IllegalArgumentException.class, () -> new Tournament(new String[]{"A", "B"}, 0));
+        }
+    }
+
+    @Nested
+    @DisplayName("ShuffleQuality Class Tests")
+    class ShuffleQualityExecuteTests {
+
+        @Test
+        @DisplayName("seeded run passes every test and repeats exactly")
+        public void testShuffleQualityFair() {
+            ShuffleQuality.Result result = ShuffleQuality.run(ShuffleSource::xoroshiro, 60_000, 2, 42);
+            assertEquals(60_000, result.getShuffles());
+            assertTrue(result.isFair(5), result.toString());
+            assertTrue(result.getShufflesPerSecond() > 0);
+
+            ShuffleQuality.Result again = ShuffleQuality.run(ShuffleSource::xoroshiro, 60_000, 2, 42);
+            assertEquals(result.getPositionChiSquare(), again.getPositionChiSquare());
+            assertEquals(result.getAdjacencyChiSquare(), again.getAdjacencyChiSquare());
+            assertEquals(result.getPermutationChiSquare(), again.getPermutationChiSquare());
+
+            assertTrue(ShuffleQuality.run(ShuffleSource::xoroshiro, 60_000, 2, 42, true).isFair(5));
+        }
+
+        @Test
+        @DisplayName("position statistic of a fair shuffle centres on 52 * 51")
+        public void testShuffleQualityPositionDf() {
+            int runs = 20;
+            double chiSquare = 0;
+            double z = 0;
+            for (int run = 0; run < runs; run++) {
+                ShuffleQuality.Result result = ShuffleQuality.run(ShuffleSource::xoroshiro, 5_000, 1, run * 1_000_003L);
+                chiSquare += result.getPositionChiSquare() / runs;
+                z += result.getPositionZ() / runs;
+            }
+            // the mean of 20 runs is within about 16 of its expectation, 52 * 51 = 2652 and not 51 * 51 = 2601
+            assertEquals(2652, chiSquare, 50);
+            assertEquals(0, z, 0.5);
+        }
+
+        @Test
+        @DisplayName("adjacency statistic of a fair shuffle centres on 51 * 51")
+        public void testShuffleQualityAdjacencyDf() {
+            int runs = 20;
+            double chiSquare = 0;
+            double z = 0;
+            for (int run = 0; run < runs; run++) {
+                ShuffleQuality.Result result = ShuffleQuality.run(ShuffleSource::xoroshiro, 5_000, 1, run * 1_000_003L + 7);
+                chiSquare += result.getAdjacencyChiSquare() / runs;
+                z += result.getAdjacencyZ() / runs;
+            }
+            // 51 * 51 = 2601, not the 52 * 51 - 1 = 2651 cells less one
+            assertEquals(2601, chiSquare, 40);
+            assertEquals(0, z, 0.5);
+        }
+
+        @Test
+        @DisplayName("off by one shuffle is caught")
+        public void testShuffleQualityBiased() {
+            // swapping only with lower positions (Sattolo's algorithm) yields cyclic orders only
+            ShuffleQuality.Result result = ShuffleQuality.run(seed -> {
+                ShuffleSource source = ShuffleSource.xoroshiro(seed);
+                return bound -> bound == 1 ? 0 : source.nextInt(bound - 1);
+            }, 20_000, 1, 7);
+            assertFalse(result.isFair(5));
+            assertTrue(result.getPermutationZ() > 5);
+            assertTrue(result.getPositionZ() > 5);
+        }
+
+        @Test
+        @DisplayName("invalid arguments")
+        public void testShuffleQualityArguments() {
+            assertThrows(IllegalArgumentException.class, () -> ShuffleQuality.run(null, 10, 1, 0));
+            assertThrows(IllegalArgumentException.class, () -> ShuffleQuality.run(ShuffleSource::seeded, -1, 1, 0));
+            assertThrows(IllegalArgumentException.class, () -> ShuffleQuality.run(ShuffleSource::seeded, 10, 0, 0));
+        }
+    }
+
+    @Nested
+    @DisplayName("PokerHandEvaluator Class Tests")
+    class PokerHandEvaluatorExecuteTests {
+
+        private int ordinal(int value, int suit) {
+            return (value - 1) * 4 + suit;
+        }
+
+        @Test
+        @DisplayName("every five card hand falls in the right category")
+        public void testPokerEvaluatorExhaustive() {
+            long[] counts = new long[PokerHandEvaluator.Category.values().length];
+            boolean[] ranks = new boolean[PokerHandEvaluator.RANK_COUNT + 1];
+            for (int a = 0; a < 48; a++) {
+                for (int b = a + 1; b < 49; b++) {
+                    for (int c = b + 1; c < 50; c++) {
+                        for (int d = c + 1; d < 51; d++) {
+                            for (int e = d + 1; e < 52; e++) {
+                                int rank = PokerHandEvaluator.evaluate(a, b, c, d, e);
+                                ranks[rank] = true;
+                                counts[PokerHandEvaluator.category(rank).ordinal()]++;
+                            }
+                        }
+                    }
+                }
+            }
+            assertArrayEquals(new long[]{1302540, 1098240, 123552, 54912, 10200, 5108, 3744, 624, 40}, counts);
+            for (int rank = 1; rank <= PokerHandEvaluator.RANK_COUNT; rank++) {
+                assertTrue(ranks[rank], "rank never seen: " + rank);
+            }
+        }
+
+        @Test
+        @DisplayName("orders hands like poker does")
+        public void testPokerEvaluatorOrder() {
+            // royal flush, 7-5-4-3-2 offsuit
+            assertEquals(PokerHandEvaluator.RANK_COUNT, PokerHandEvaluator.evaluate(
+                    ordinal(1, 3), ordinal(13, 3), ordinal(12, 3), ordinal(11, 3), ordinal(10, 3)));
+            assertEquals(1, PokerHandEvaluator.evaluate(
+                    ordinal(7, 0), ordinal(5, 1), ordinal(4, 0), ordinal(3, 0), ordinal(2, 0)));
+
+            int wheel = PokerHandEvaluator.evaluate(ordinal(1, 0), ordinal(2, 1), ordinal(3, 0), ordinal(4, 0), ordinal(5, 0));
+            int sixHigh = PokerHandEvaluator.evaluate(ordinal(6, 0), ordinal(2, 1), ordinal(3, 0), ordinal(4, 0), ordinal(5, 0));
+            assertEquals(PokerHandEvaluator.Category.STRAIGHT, PokerHandEvaluator.category(wheel));
+            assertTrue(sixHigh > wheel);
+
+            // aces over kings beats kings over queens, whatever the kicker
+            int acesUp = PokerHandEvaluator.evaluate(ordinal(1, 0), ordinal(1, 1), ordinal(13, 0), ordinal(13, 1), ordinal(2, 0));
+            int kingsUp = PokerHandEvaluator.evaluate(ordinal(13, 2), ordinal(13, 3), ordinal(12, 0), ordinal(12, 1), ordinal(11, 0));
+            assertTrue(acesUp > kingsUp);
+        }
+
+        @Test
+        @DisplayName("seven card hands rank their best five cards")
+        public void testPokerEvaluatorSevenCards() {
+            Deck deck = Deck.standard(ShuffleSource.seeded(23));
+            // enough hands for about 60 with five or more cards of a suit
+            for (int i = 0; i < 2000; i++) {
+                deck.reset();
+                deck.shuffle();
+                Card[] seven = deck.draw(7);
+                int best = 0;
+                for (int skip1 = 0; skip1 < 7; skip1++) {
+                    for (int skip2 = skip1 + 1; skip2 < 7; skip2++) {
+                        Card[] five = new Card[5];
+                        for (int c = 0, f = 0; c < 7; c++) {
+                            if (c != skip1 && c != skip2) {
+                                five[f++] = seven[c];
+                            }
+                        }
+                        best = Math.max(best, PokerHandEvaluator.evaluate(five));
+                    }
+                }
+                assertEquals(best, PokerHandEvaluator.evaluate(seven));
+                assertEquals(best, PokerHandEvaluator.evaluate(seven[0].getOrdinal(), seven[1].getOrdinal(),
+                        seven[2].getOrdinal(), seven[3].getOrdinal(), seven[4].getOrdinal(),
+                        seven[5].getOrdinal(), seven[6].getOrdinal()));
+            }
+
+            Player player = new Player("Holdem", 30);
+            int[][] cards = {{9, 0}, {10, 1}, {11, 1}, {12, 2}, {13, 3}, {2, 0}, {2, 2}};
+            for (int[] card : cards) {
+                player.addToHand(Card.standard(ordinal(card[0], card[1])));
+            }
+            assertEquals(PokerHandEvaluator.Category.STRAIGHT, PokerHandEvaluator.category(PokerHandEvaluator.evaluate(player)));
+        }
+
+        @Test
+        @DisplayName("invalid hands")
+        public void testPokerEvaluatorInvalid() {
+            Card ace = Card.standard(0);
+            assertThrows(IllegalArgumentException.class, () -> PokerHandEvaluator.evaluate((Card[]) null));
+            assertThrows(IllegalArgumentException.class, () -> PokerHandEvaluator.evaluate(new Card[4]));
+            assertThrows(IllegalArgumentException.class, () -> PokerHandEvaluator.evaluate(new Card[]{
+                    ace, ace, Card.standard(1), Card.standard(2), Card.standard(3)}));
+            assertThrows(IllegalArgumentException.class, () -> PokerHandEvaluator.evaluate(new Card[]{
+                    new Card("Joker", "Red", 99), Card.standard(4), Card.standard(1), Card.standard(2), Card.standard(3)}));
+            assertThrows(IllegalArgumentException.class, () -> PokerHandEvaluator.evaluate((Player) null));
+            assertThrows(IllegalArgumentException.class, () -> PokerHandEvaluator.category(0));
+            assertThrows(IllegalArgumentException.class, () -> PokerHandEvaluator.category(PokerHandEvaluator.RANK_COUNT + 1));
+        }
+    }
+
+    @Nested
+    @DisplayName("GameEngine Class Tests")
+    class GameEngineExecuteTests {
+
+        private TableState table(int players, long seed) {
+            Player[] seats = new Player[players];
+            for (int i = 0; i < players; i++) {
+                seats[i] = new Player("P" + i, 20);
+            }
+            return new TableState(Deck.standard(ShuffleSource.seeded(seed)), seats);
+        }
+
+        @Test
+        @DisplayName("plays High Card games back to back on one table")
+        public void testGameEngineHighCard() {
+            TableState table = table(3, 4);
+            GameEngine engine = new GameEngine(new HighCardRules(4), table);
+            for (int game = 1; game <= 100; game++) {
+                int winner = engine.playGame();
+                assertEquals(4, table.getTricks());
+                assertEquals(52 - 12, table.getDeck().size());
+                int best = Math.max(table.getScore(0), Math.max(table.getScore(1), table.getScore(2)));
+                assertTrue(table.getScore(0) + table.getScore(1) + table.getScore(2) <= 4);
+                if (winner == GameRules.TIE) {
+                    int top = 0;
+                    for (int seat = 0; seat < 3; seat++) {
+                        top += table.getScore(seat) == best ? 1 : 0;
+                    }
+                    assertTrue(top > 1);
+                } else {
+                    assertEquals(best, table.getScore(winner));
+                }
+                assertEquals(game * 12L, engine.getTurns());
+            }
+
+            table.reset();
+            assertEquals(0, table.getTricks());
+            assertEquals(0, table.getScore(0));
+            assertEquals(0, table.getPlayer(1).size());
+            assertNull(table.getPlayed(2));
+            assertEquals(52, table.getDeck().size());
+        }
+
+        @Test
+        @DisplayName("SelfPlayedGame plays by the High Card rules")
+        public void testGameEngineMatchesSelfPlayedGame() {
+            SelfPlayedGame game = new SelfPlayedGame("A", "B", ShuffleSource.seeded(11), GameListener.NONE);
+            TableState table = table(2, 11);
+            table.getDeck().shuffle();
+            GameEngine engine = new GameEngine(new HighCardRules(), table);
+            for (int i = 0; i < 50; i++) {
+                game.reset();
+                game.playSilently();
+                table.reset();
+                engine.play();
+                assertEquals(game.getPlayer1Score(), table.getScore(0));
+                assertEquals(game.getPlayer2Score(), table.getScore(1));
+                // every played card is discarded once, however the game is played
+                assertEquals(10, game.snapshot().getDiscardPileCards().length);
+                assertEquals(10, table.getDiscardPile().size());
+            }
+        }
+
+        @Test
+        @DisplayName("other rules plug in")
+        public void testGameEngineCustomRules() {
+            // lowest card takes the trick, one trick per card, the engine discards every trick
+            GameRules lowCard = new GameRules() {
+                @Override
+                public void deal(TableState table) {
+                    for (int seat = 0; seat < table.getPlayerCount(); seat++) {
+                        table.getPlayer(seat).draw(table.getDeck(), 3);
+                    }
+                }
+
+                @Override
+                public boolean isOver(TableState table) {
+                    return table.getTricks() == 3;
+                }
+
+                @Override
+                public Card choosePlay(TableState table, int seat) {
+                    Card card = table.getPlayer(seat).getHand()[0];
+                    table.getPlayer(seat).removeCardFromHand(card);
+                    return card;
+                }
+
+                @Override
+                public int resolveTrick(TableState table) {
+                    return table.getPlayed(0).getValue() < table.getPlayed(1).getValue() ? 0
+                            : table.getPlayed(1).getValue() < table.getPlayed(0).getValue() ? 1 : TIE;
+                }
+
+                @Override
+                public void score(TableState table, int winner) {
+                    if (winner != TIE) {
+                        table.addScore(winner, 2);
+                    }
+                }
+            };
+            TableState table = table(2, 3);
+            GameEngine engine = new GameEngine(lowCard, table);
+            int winner = engine.playGame();
+            assertEquals(6, table.getDiscardPile().size());
+            assertEquals(0, table.getPlayer(0).size());
+            assertEquals(0, (table.getScore(0) + table.getScore(1)) % 2);
+            assertEquals(table.getScore(0) == table.getScore(1) ? GameRules.TIE : table.getScore(0) > table.getScore(1) ? 0 : 1, winner);
+
+            engine.playGame();
+            assertEquals(6, table.getDiscardPile().size());
+        }
+
+        @Test
+        @DisplayName("invalid arguments")
+        public void testGameEngineInvalid() {
+            TableState table = table(2, 1);
+            assertThrows(IllegalArgumentException.class, () -> new GameEngine(null, table));
+            assertThrows(IllegalArgumentException.class, () -> new GameEngine(new HighCardRules(), null));
+            assertThrows(IllegalArgumentException.class, () -> new HighCardRules(0));
+            assertThrows(IllegalArgumentException.class, () -> new TableState(null, new Player[]{new Player("P", 1)}));
+            assertThrows(IllegalArgumentException.class, () -> new TableState(new Deck(), new Player[0]));
+            assertThrows(IllegalArgumentException.class, () -> new TableState(new Deck(), new Player[]{null}));
+        }
+    }
+
+    @Nested
+    @DisplayName("GameServer Class Tests")
+    class GameServerExecuteTests {
+
+        private java.nio.ByteBuffer exchange(java.nio.channels.SocketChannel channel, java.nio.ByteBuffer request,
+                                             int frames) throws java.io.IOException {
+            request.flip();
+            while (request.hasRemaining()) {
+                channel.write(request);
+            }
+            request.clear();
+            java.nio.ByteBuffer answer = java.nio.ByteBuffer.allocate(1024);
+            int read = 0;
+            while (read < frames) {
+                assertTrue(channel.read(answer) >= 0, "server closed the connection");
+                java.nio.ByteBuffer view = (java.nio.ByteBuffer) answer.duplicate().flip();
+                read = 0;
+                int size;
+                while ((size = GameProtocol.frameSize(view)) > 0) {
+                    view.position(view.position() + size);
+                    read++;
+                }
+            }
+            answer.flip();
+            return answer;
+        }
+
+        private byte type(java.nio.ByteBuffer answer) {
+            answer.getShort();
+            return answer.get();
+        }
+
+        @Test
+        @DisplayName("answers join, draw, play and discard requests over a socket")
+        public void testGameServerProtocol() throws Exception {
+            try (GameServer server = new GameServer(new java.net.InetSocketAddress("127.0.0.1", 0), 2, 7);
+                 java.nio.channels.SocketChannel channel = java.nio.channels.SocketChannel.open(
+                         new java.net.InetSocketAddress("127.0.0.1", server.getPort()))) {
+                server.start();
+                java.nio.ByteBuffer request = java.nio.ByteBuffer.allocate(256);
+
+                GameProtocol.draw(request);
+                java.nio.ByteBuffer answer = exchange(channel, request, 1);
+                assertEquals(GameProtocol.ERROR, type(answer));
+                assertEquals(GameProtocol.NOT_JOINED, answer.get());
+
+                GameProtocol.join(request, "Alice");
+                answer = exchange(channel, request, 1);
+                assertEquals(GameProtocol.JOINED, type(answer));
+                answer.getInt();
+                assertEquals(0, answer.get());
+
+                GameProtocol.draw(request);
+                answer = exchange(channel, request, 1);
+                assertEquals(GameProtocol.HAND, type(answer));
+                assertEquals(5, answer.get());
+                List<Card> hand = new ArrayList<>();
+                long seen = 0;
+                for (int i = 0; i < 5; i++) {
+                    Card card = GameProtocol.getCard(answer);
+                    seen |= 1L << card.getOrdinal();
+                    hand.add(card);
+                }
+                Card missing = null;
+                for (int ordinal = 0; missing == null; ordinal++) {
+                    if ((seen & 1L << ordinal) == 0) {
+                        missing = Card.standard(ordinal);
+                    }
+                }
+
+                GameProtocol.play(request, missing);
+                answer = exchange(channel, request, 1);
+                assertEquals(GameProtocol.ERROR, type(answer));
+                assertEquals(GameProtocol.NOT_IN_HAND, answer.get());
+
+                GameProtocol.draw(request);
+                answer = exchange(channel, request, 1);
+                assertEquals(GameProtocol.ERROR, type(answer));
+                assertEquals(GameProtocol.GAME_IN_PROGRESS, answer.get());
+
+                int myScore = 0;
+                for (int trick = 0; trick < 3; trick++) {
+                    GameProtocol.play(request, hand.get(trick));
+                    answer = exchange(channel, request, 1);
+                    assertEquals(GameProtocol.TRICK, type(answer));
+                    Card mine = GameProtocol.getCard(answer);
+                    Card house = GameProtocol.getCard(answer);
+                    assertEquals(hand.get(trick), mine);
+                    int winner = answer.get();
+                    int expected = mine.getValue() > house.getValue() ? 0 : mine.getValue() < house.getValue() ? 1 : -1;
+                    assertEquals(expected, winner);
+                    myScore += winner == 0 ? 1 : 0;
+                    assertEquals(myScore, answer.get());
+                }
+
+                GameProtocol.discard(request, hand.get(3));
+                answer = exchange(channel, request, 1);
+                assertEquals(GameProtocol.DISCARDED, type(answer));
+                assertEquals(hand.get(3), GameProtocol.getCard(answer));
+                assertEquals(1, answer.get());
+
+                GameProtocol.play(request, hand.get(4));
+                answer = exchange(channel, request, 2);
+                assertEquals(GameProtocol.TRICK, type(answer));
+                answer.position(answer.position() + 5);
+                assertEquals(GameProtocol.GAME_OVER, type(answer));
+                assertEquals(1, server.getGamesPlayed());
+
+                GameProtocol.play(request, hand.get(4));
+                answer = exchange(channel, request, 1);
+                assertEquals(GameProtocol.ERROR, type(answer));
+                assertEquals(GameProtocol.NO_GAME, answer.get());
+
+                // an unknown card ordinal is a bad request, the connection stays usable
+                int start = GameProtocol.begin(request, GameProtocol.PLAY);
+                request.put((byte) 60);
+                GameProtocol.end(request, start);
+                answer = exchange(channel, request, 1);
+                assertEquals(GameProtocol.ERROR, type(answer));
+                assertEquals(GameProtocol.BAD_REQUEST, answer.get());
+
+                GameProtocol.draw(request);
+                assertEquals(GameProtocol.HAND, type(exchange(channel, request, 1)));
+            }
+        }
+
+        @Test
+        @DisplayName("answers every pipelined request when the answers do not fit in one pass")
+        public void testGameServerPipelined() throws Exception {
+            int frames = 512;
+            try (GameServer server = new GameServer(new java.net.InetSocketAddress("127.0.0.1", 0), 1, 3);
+                 java.nio.channels.SocketChannel channel = java.nio.channels.SocketChannel.open(
+                         new java.net.InetSocketAddress("127.0.0.1", server.getPort()))) {
+                server.start();
+                // every answer is a NOT_JOINED error, far more of them than the server's output buffer holds
+                java.nio.ByteBuffer request = java.nio.ByteBuffer.allocate(frames * 4);
+                for (int i = 0; i < frames; i++) {
+                    GameProtocol.play(request, Card.standard(i % 52));
+                }
+                request.flip();
+                while (request.hasRemaining()) {
+                    channel.write(request);
+                }
+                channel.configureBlocking(false);
+                int answered = assertTimeoutPreemptively(java.time.Duration.ofSeconds(10), () -> {
+                    java.nio.ByteBuffer answer = java.nio.ByteBuffer.allocate(1024);
+                    int count = 0;
+                    while (count < frames) {
+                        assertTrue(channel.read(answer) >= 0, "server closed the connection");
+                        answer.flip();
+                        int size;
+                        while ((size = GameProtocol.frameSize(answer)) > 0) {
+                            assertEquals(GameProtocol.ERROR, answer.get(answer.position() + GameProtocol.LENGTH_SIZE));
+                            answer.position(answer.position() + size);
+                            count++;
+                        }
+                        answer.compact();
+                        Thread.yield();
+                    }
+                    return count;
+                });
+                assertEquals(frames, answered);
+                assertEquals(frames, server.getRequestCount());
+            }
+        }
+
+        @Test
+        @DisplayName("load generator plays games over many connections")
+        public void testGameServerLoad() throws Exception {
+            try (GameServer server = new GameServer(new java.net.InetSocketAddress("127.0.0.1", 0), 2, 11)) {
+                server.start();
+                LoadGenerator.Report report = LoadGenerator.run(
+                        new java.net.InetSocketAddress("127.0.0.1", server.getPort()), 20, 500);
+                assertEquals(500, report.getGames());
+                assertEquals(500, server.getGamesPlayed());
+                // a join per connection, then a draw and five plays per game
+                assertEquals(20 + 500 * 6, report.getRequests());
+                assertTrue(report.getP50Nanos() > 0);
+                assertTrue(report.getP99Nanos() >= report.getP50Nanos());
+                assertTrue(report.getGamesPerSecond() > 0);
+            }
+        }
+
+        @Test
+        @DisplayName("invalid arguments")
+        public void testGameServerInvalid() throws Exception {
+            assertThrows(IllegalArgumentException.class, () -> new GameServer(0, 0));
+            assertThrows(IllegalArgumentException.class, () -> new GameServer(null, 1, 0));
+            assertThrows(IllegalArgumentException.class, () -> LoadGenerator.run(null, 1, 1));
+            assertThrows(IllegalArgumentException.class,
+                    () -> LoadGenerator.run(new java.net.InetSocketAddress("127.0.0.1", 1), 0, 1));
+            assertThrows(IllegalArgumentException.class,
+                    () -> GameProtocol.frameSize(java.nio.ByteBuffer.wrap(new byte[]{0, 0, 1})));
+            assertEquals(-1, GameProtocol.frameSize(java.nio.ByteBuffer.wrap(new byte[]{0, 3, 1})));
+            try (GameServer server = new GameServer(0, 1)) {
+                server.start();
+                assertThrows(IllegalStateException.class, server::start);
+            }
+        }
     }
 
     @Nested